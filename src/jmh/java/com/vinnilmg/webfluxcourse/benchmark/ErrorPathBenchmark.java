@@ -0,0 +1,80 @@
+package com.vinnilmg.webfluxcourse.benchmark;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vinnilmg.webfluxcourse.controller.exception.StandardError;
+import com.vinnilmg.webfluxcourse.controller.exception.StandardErrorEncoder;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.service.exception.ObjectNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.time.LocalDateTime.now;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+// Custo de um 404 do lado do servidor: criar a exceção e serializar o corpo do erro.
+// before: exceção com stack trace e String.format, StandardError pelo builder e Jackson2JsonEncoder (caminho antigo);
+// after: ObjectNotFoundException sem stack, mensagem concatenada e StandardErrorEncoder.
+// A exceção nasce a 'stackDepth' frames de profundidade, como dentro do event loop do Netty com operadores do Reactor.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ErrorPathBenchmark {
+
+    private static final String ID = "63b5ac1e6f1d2a3b4c5d6e7f";
+    private static final String PATH = "/users/" + ID;
+    private static final ResolvableType ERROR_TYPE = ResolvableType.forClass(StandardError.class);
+
+    @Param({ "before", "after" })
+    public String mode;
+
+    @Param({ "128" })
+    public int stackDepth;
+
+    private final Jackson2JsonEncoder jacksonEncoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build());
+    private final StandardErrorEncoder errorEncoder = new StandardErrorEncoder();
+
+    @Benchmark
+    public int notFound() {
+        final RuntimeException exception = atDepth(stackDepth);
+
+        final var buffer = "before".equals(mode)
+                ? jacksonEncoder.encodeValue(StandardError.builder()
+                        .timestamp(now())
+                        .status(NOT_FOUND.value())
+                        .error(NOT_FOUND.getReasonPhrase())
+                        .message(exception.getMessage())
+                        .path(PATH)
+                        .build(), DefaultDataBufferFactory.sharedInstance, ERROR_TYPE, MediaType.APPLICATION_JSON, null)
+                : errorEncoder.encodeValue(new StandardError(now(), PATH, NOT_FOUND.value(), NOT_FOUND.getReasonPhrase(),
+                        exception.getMessage()), DefaultDataBufferFactory.sharedInstance, ERROR_TYPE, MediaType.APPLICATION_JSON, null);
+
+        final int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    private RuntimeException atDepth(final int depth) {
+        if (depth > 0) {
+            return atDepth(depth - 1);
+        }
+        if ("before".equals(mode)) {
+            return new RuntimeException(String.format("Object not found. Id: %s, Type: %s", ID, User.class.getSimpleName()));
+        }
+        return new ObjectNotFoundException(ID, User.class);
+    }
+}
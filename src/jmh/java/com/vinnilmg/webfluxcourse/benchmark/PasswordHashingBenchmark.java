@@ -0,0 +1,97 @@
+package com.vinnilmg.webfluxcourse.benchmark;
+
+import com.vinnilmg.webfluxcourse.config.PasswordHashingProperties;
+import com.vinnilmg.webfluxcourse.service.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Latência do event loop (quanto uma tarefa trivial espera pela thread do loop) durante uma enxurrada de cadastros.
+// inline: o bcrypt roda na thread do loop, como se fosse feito no UserMapper.toEntity;
+// offloaded: o loop só dispara o hash no PasswordHasher. Compare os percentis de eventLoopLatency entre os modos.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "password123";
+    // Cadastros aceitos pelo loop e ainda não terminados, como conexões abertas esperando resposta
+    private static final int SIGNUPS_IN_FLIGHT = 16;
+
+    @Param({ "inline", "offloaded" })
+    public String mode;
+
+    @Param({ "10" })
+    public int strength;
+
+    @Param({ "200" })
+    public int signupsPerSecond;
+
+    private ExecutorService eventLoop;
+    private PasswordHasher passwordHasher;
+    private BCryptPasswordEncoder encoder;
+    private Thread flood;
+    private volatile boolean running;
+
+    @Setup
+    public void setUp() {
+        eventLoop = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "event-loop"));
+        encoder = new BCryptPasswordEncoder(strength);
+
+        final var properties = new PasswordHashingProperties();
+        properties.setStrength(strength);
+        passwordHasher = new PasswordHasher(properties);
+
+        final var inFlight = new Semaphore(SIGNUPS_IN_FLIGHT);
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / signupsPerSecond;
+        running = true;
+        flood = new Thread(() -> {
+            while (running) {
+                inFlight.acquireUninterruptibly();
+                eventLoop.execute(() -> signup(inFlight));
+                LockSupport.parkNanos(intervalNanos);
+            }
+        }, "signup-flood");
+        flood.setDaemon(true);
+        flood.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        flood.join();
+        eventLoop.shutdownNow();
+        passwordHasher.destroy();
+    }
+
+    @Benchmark
+    public Object eventLoopLatency() throws ExecutionException, InterruptedException {
+        return eventLoop.submit(() -> Boolean.TRUE).get();
+    }
+
+    private void signup(final Semaphore inFlight) {
+        if ("inline".equals(mode)) {
+            encoder.encode(PASSWORD);
+            inFlight.release();
+            return;
+        }
+        // Rejeitado pela fila cheia vira 503 na API; aqui só libera a vaga
+        passwordHasher.hash(PASSWORD)
+                .doFinally(signal -> inFlight.release())
+                .subscribe(hash -> { }, error -> { });
+    }
+}
@@ -0,0 +1,46 @@
+package com.vinnilmg.webfluxcourse.benchmark;
+
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.mapper.UserMapper;
+import com.vinnilmg.webfluxcourse.mapper.UserMapperImpl;
+import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserMapperBenchmark {
+
+    private final UserMapper mapper = new UserMapperImpl();
+    private final UserRequest request = new UserRequest("Vinicius", "vini@mail.com", "password123");
+    private final UserRequest patch = new UserRequest("Vinicius Gomes", null, null);
+    private final User entity = User.builder()
+            .id("63b5ac1e6f1d2a3b4c5d6e7f")
+            .name("Vinicius")
+            .email("vini@mail.com")
+            .password("password123")
+            .build();
+
+    @Benchmark
+    public User toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public User toEntityMappingTarget() {
+        return mapper.toEntity(patch, User.builder().id(entity.getId()).email(entity.getEmail()).build());
+    }
+
+    @Benchmark
+    public UserResponse toResponse() {
+        return mapper.toResponse(entity);
+    }
+}
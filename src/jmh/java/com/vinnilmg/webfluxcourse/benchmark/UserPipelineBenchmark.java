@@ -0,0 +1,196 @@
+package com.vinnilmg.webfluxcourse.benchmark;
+
+import com.vinnilmg.webfluxcourse.config.EmailFilterProperties;
+import com.vinnilmg.webfluxcourse.config.ErrorEncodingConfig;
+import com.vinnilmg.webfluxcourse.config.InMemoryRepositoryProperties;
+import com.vinnilmg.webfluxcourse.config.PasswordHashingProperties;
+import com.vinnilmg.webfluxcourse.config.UserBatchProperties;
+import com.vinnilmg.webfluxcourse.config.UserCacheProperties;
+import com.vinnilmg.webfluxcourse.config.UserChangesProperties;
+import com.vinnilmg.webfluxcourse.config.UserLoaderProperties;
+import com.vinnilmg.webfluxcourse.config.UserPaginationProperties;
+import com.vinnilmg.webfluxcourse.config.UserRepositoryResilienceProperties;
+import com.vinnilmg.webfluxcourse.config.UserResponseEncodingConfig;
+import com.vinnilmg.webfluxcourse.config.UserSearchProperties;
+import com.vinnilmg.webfluxcourse.config.UserWriteBehindProperties;
+import com.vinnilmg.webfluxcourse.controller.exception.ControllerExceptionHandler;
+import com.vinnilmg.webfluxcourse.controller.functional.UserErrorWebExceptionHandler;
+import com.vinnilmg.webfluxcourse.controller.functional.UserHandler;
+import com.vinnilmg.webfluxcourse.controller.functional.UserRouter;
+import com.vinnilmg.webfluxcourse.controller.impl.UserControllerImpl;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.mapper.UserMapper;
+import com.vinnilmg.webfluxcourse.mapper.UserMapperImpl;
+import com.vinnilmg.webfluxcourse.repository.impl.InMemoryUserRepository;
+import com.vinnilmg.webfluxcourse.service.PasswordHasher;
+import com.vinnilmg.webfluxcourse.service.UserBatchLoader;
+import com.vinnilmg.webfluxcourse.service.UserCache;
+import com.vinnilmg.webfluxcourse.service.UserChangeFeed;
+import com.vinnilmg.webfluxcourse.service.UserEmailFilter;
+import com.vinnilmg.webfluxcourse.service.UserRepositoryGuard;
+import com.vinnilmg.webfluxcourse.service.UserService;
+import com.vinnilmg.webfluxcourse.service.UserServiceMetrics;
+import com.vinnilmg.webfluxcourse.service.UserWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Requisição completa pelo WebFlux (dispatch, validação, controller, serviço, mapper e encoders)
+// contra o repositório em memória. O HttpHandler roda na própria thread do benchmark, sem rede.
+// mode compara o @RestController com as rotas funcionais (users.web.mode)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserPipelineBenchmark {
+
+    private static final String ENDPOINT_USERS = "/users";
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Param({ "annotated", "functional" })
+    private String mode;
+
+    private ValidatorFactory factory;
+    private AnnotationConfigApplicationContext context;
+    private HttpHandler httpHandler;
+    private PasswordHasher passwordHasher;
+    private String existingId;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+
+        final UserMapper mapper = new UserMapperImpl();
+        final var repository = new InMemoryUserRepository(new InMemoryRepositoryProperties());
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var metrics = new UserServiceMetrics(meterRegistry);
+        final var cacheProperties = new UserCacheProperties();
+        cacheProperties.setEnabled(false);
+        // Custo mínimo: aqui interessa o pipeline; o bcrypt tem benchmark próprio (PasswordHashingBenchmark)
+        final var hashingProperties = new PasswordHashingProperties();
+        hashingProperties.setStrength(4);
+        passwordHasher = new PasswordHasher(hashingProperties);
+        final var emailFilter = new UserEmailFilter(new EmailFilterProperties(), meterRegistry);
+        emailFilter.rebuild(repository.findAllEmails()).block();
+        // Uma requisição por vez na thread do benchmark: a janela do lote só somaria espera
+        final var loaderProperties = new UserLoaderProperties();
+        loaderProperties.setEnabled(false);
+        final var cache = new UserCache(cacheProperties, meterRegistry);
+
+        final var service = new UserService(
+                repository,
+                mapper,
+                new UserPaginationProperties(),
+                new UserBatchProperties(),
+                factory.getValidator(),
+                cache,
+                metrics,
+                passwordHasher,
+                emailFilter,
+                new UserBatchLoader(repository, loaderProperties, meterRegistry),
+                new UserChangeFeed(repository, cache, emailFilter, new UserChangesProperties()),
+                new UserSearchProperties(),
+                new UserWriteBehind(repository, new UserWriteBehindProperties(), meterRegistry),
+                new UserRepositoryGuard(new UserRepositoryResilienceProperties(), meterRegistry)
+        );
+
+        context = new AnnotationConfigApplicationContext();
+        // Os beans de cada modo são condicionais a users.web.mode
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("benchmark", Map.of("users.web.mode", mode)));
+        context.register(WebFluxConfig.class, ErrorEncodingConfig.class, UserResponseEncodingConfig.class);
+        final var exceptionHandler = new ControllerExceptionHandler(metrics);
+        context.registerBean(ControllerExceptionHandler.class, () -> exceptionHandler);
+        if ("functional".equals(mode)) {
+            context.register(UserRouter.class);
+            context.registerBean(UserHandler.class, () -> new UserHandler(
+                    service, mapper, new UserChangesProperties(), exceptionHandler, metrics, factory.getValidator()
+            ));
+            context.registerBean(UserErrorWebExceptionHandler.class, () -> new UserErrorWebExceptionHandler(
+                    exceptionHandler, context.getBean(ServerCodecConfigurer.class)
+            ));
+        } else {
+            context.registerBean(UserControllerImpl.class, () -> new UserControllerImpl(service, mapper, new UserChangesProperties()));
+        }
+        context.refresh();
+        httpHandler = WebHttpHandlerBuilder.applicationContext(context).build();
+
+        existingId = repository.save(User.builder()
+                        .name("Vinicius")
+                        .email("vini@mail.com")
+                        .password("password123")
+                        .build())
+                .block()
+                .getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        factory.close();
+        passwordHasher.destroy();
+    }
+
+    @Benchmark
+    public String findById() {
+        return exchange(MockServerHttpRequest.get(ENDPOINT_USERS + "/" + existingId)
+                .accept(MediaType.APPLICATION_JSON)
+                .build());
+    }
+
+    @Benchmark
+    public String findByIdNotFound() {
+        return exchange(MockServerHttpRequest.get(ENDPOINT_USERS + "/000000000000000000000000")
+                .accept(MediaType.APPLICATION_JSON)
+                .build());
+    }
+
+    @Benchmark
+    public String save() {
+        final var body = "{\"name\":\"Vinicius\",\"email\":\"vini%d@mail.com\",\"password\":\"password123\"}"
+                .formatted(sequence.incrementAndGet());
+        return exchange(MockServerHttpRequest.post(ENDPOINT_USERS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body));
+    }
+
+    @Benchmark
+    public String saveWithValidationError() {
+        return exchange(MockServerHttpRequest.post(ENDPOINT_USERS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"name\":\" Vinicius\",\"email\":\"vini@mail.com\",\"password\":\"password123\"}"));
+    }
+
+    private String exchange(final MockServerHttpRequest request) {
+        final var response = new MockServerHttpResponse();
+        httpHandler.handle(request, response).block();
+        return response.getBodyAsString().block();
+    }
+
+    @Configuration
+    @EnableWebFlux
+    static class WebFluxConfig { }
+}
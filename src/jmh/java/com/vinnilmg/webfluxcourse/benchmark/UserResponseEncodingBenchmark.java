@@ -0,0 +1,86 @@
+package com.vinnilmg.webfluxcourse.benchmark;
+
+import com.vinnilmg.webfluxcourse.controller.UserResponseEncoder;
+import com.vinnilmg.webfluxcourse.model.response.PageResponse;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+// Uma página de 'users' usuários serializada em buffers do pool do Netty, como na resposta de verdade.
+// jackson: Jackson2JsonEncoder (caminho padrão do WebFlux); direct: UserResponseEncoder.
+// Com -prof gc, gc.alloc.rate.norm / users dá a alocação por usuário; o tamanho por usuário, sem e com gzip,
+// sai no log do setup (o gzip em si é do Reactor Netty e custa o mesmo nos dois modos)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserResponseEncodingBenchmark {
+
+    private static final ResolvableType PAGE_TYPE = ResolvableType.forClassWithGenerics(PageResponse.class, UserResponse.class);
+
+    @Param({ "jackson", "direct" })
+    public String encoder;
+
+    @Param({ "10", "100", "1000" })
+    public int users;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private Encoder<Object> selected;
+    private PageResponse<UserResponse> page;
+
+    @Setup
+    public void setUp() {
+        selected = "jackson".equals(encoder)
+                ? new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build())
+                : new UserResponseEncoder();
+        page = new PageResponse<>(IntStream.range(0, users)
+                .mapToObj(i -> new UserResponse("63b5ac1e6f1d2a3b4c5d%04x".formatted(i), "Usuário " + i, "usuario" + i + "@mail.com"))
+                .toList(), "63b5ac1e6f1d2a3b4c5dffff");
+
+        final DataBuffer buffer = selected.encodeValue(page, bufferFactory, PAGE_TYPE, MediaType.APPLICATION_JSON, null);
+        final byte[] json = new byte[buffer.readableByteCount()];
+        buffer.read(json);
+        DataBufferUtils.release(buffer);
+        System.out.printf("%n%s, %d users: %.1f bytes/user identity, %.1f bytes/user gzip%n",
+                encoder, users, (double) json.length / users, (double) gzip(json).length / users);
+    }
+
+    @Benchmark
+    public int page() {
+        final DataBuffer buffer = selected.encodeValue(page, bufferFactory, PAGE_TYPE, MediaType.APPLICATION_JSON, null);
+        final int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    private static byte[] gzip(final byte[] json) {
+        final var out = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,38 @@
+package com.vinnilmg.webfluxcourse.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserSerializationBenchmark {
+
+    // Mesma configuração base usada pelo Jackson2JsonEncoder do WebFlux
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectWriter writer = objectMapper.writerFor(UserResponse.class);
+    private final UserResponse response = new UserResponse(
+            "63b5ac1e6f1d2a3b4c5d6e7f", "Vinicius", "vini@mail.com"
+    );
+
+    @Benchmark
+    public byte[] objectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] typedWriter() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+}
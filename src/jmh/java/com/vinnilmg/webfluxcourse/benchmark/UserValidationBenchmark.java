@@ -0,0 +1,53 @@
+package com.vinnilmg.webfluxcourse.benchmark;
+
+import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserValidationBenchmark {
+
+    private final UserRequest valid = new UserRequest("Vinicius", "vini@mail.com", "password123");
+
+    // Falha no @TrimString e no @Email: exercita a montagem das violações
+    private final UserRequest invalid = new UserRequest(" Vinicius", "vinimail.com", "password123");
+
+    private ValidatorFactory factory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRequest>> validRequest() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserRequest>> invalidRequest() {
+        return validator.validate(invalid);
+    }
+}
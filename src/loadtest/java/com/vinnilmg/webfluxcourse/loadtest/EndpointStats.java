@@ -0,0 +1,47 @@
+package com.vinnilmg.webfluxcourse.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Latências em microssegundos por endpoint; erros são respostas 5xx ou falhas de conexão
+final class EndpointStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+
+    void record(final long latencyNanos, final boolean error) {
+        latencies.recordValue(Math.max(1, latencyNanos / 1_000));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    void reset() {
+        latencies.reset();
+        errors.reset();
+    }
+
+    String format(final String name, final double elapsedSeconds) {
+        final long count = latencies.getTotalCount();
+        return String.format("%-8s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f",
+                name,
+                count,
+                errors.sum(),
+                count / elapsedSeconds,
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    static String header() {
+        return String.format("%-8s %10s %8s %12s %10s %10s %10s %10s",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+    }
+
+    private static double millis(final long micros) {
+        return micros / 1_000.0;
+    }
+}
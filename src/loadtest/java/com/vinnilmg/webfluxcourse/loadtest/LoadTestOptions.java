@@ -0,0 +1,35 @@
+package com.vinnilmg.webfluxcourse.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Opções no formato --chave=valor, ex.: --base-url=http://localhost:8080 --duration=60s --concurrency=64
+record LoadTestOptions(
+        String baseUrl,
+        Duration duration,
+        Duration warmup,
+        int concurrency,
+        int seedUsers
+) {
+
+    static LoadTestOptions parse(final String[] args) {
+        final Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            final var pair = arg.replaceFirst("^--", "").split("=", 2);
+            values.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+
+        return new LoadTestOptions(
+                values.getOrDefault("base-url", "http://localhost:8080"),
+                parseDuration(values.getOrDefault("duration", "60s")),
+                parseDuration(values.getOrDefault("warmup", "10s")),
+                Integer.parseInt(values.getOrDefault("concurrency", "64")),
+                Integer.parseInt(values.getOrDefault("seed-users", "1000"))
+        );
+    }
+
+    private static Duration parseDuration(final String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+}
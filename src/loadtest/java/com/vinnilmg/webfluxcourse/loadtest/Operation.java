@@ -0,0 +1,33 @@
+package com.vinnilmg.webfluxcourse.loadtest;
+
+// Mix de operações do teste de carga; o peso é a fração relativa de requisições
+enum Operation {
+    CREATE(20),
+    GET(45),
+    PATCH(15),
+    DELETE(5),
+    LIST(15);
+
+    private static final int TOTAL_WEIGHT = 100;
+
+    private final int weight;
+
+    Operation(final int weight) {
+        this.weight = weight;
+    }
+
+    static Operation pick(final int roll) {
+        int bound = 0;
+        for (Operation operation : values()) {
+            bound += operation.weight;
+            if (roll < bound) {
+                return operation;
+            }
+        }
+        return LIST;
+    }
+
+    static int totalWeight() {
+        return TOTAL_WEIGHT;
+    }
+}
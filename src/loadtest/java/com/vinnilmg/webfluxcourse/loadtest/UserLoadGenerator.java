@@ -0,0 +1,162 @@
+package com.vinnilmg.webfluxcourse.loadtest;
+
+import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.PageResponse;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Gerador de carga mista contra /users. Imprime p50/p99/p999 e req/s por endpoint ao final.
+public final class UserLoadGenerator {
+
+    private static final String ENDPOINT_USERS = "/users";
+    private static final int ID_POOL_SIZE = 10_000;
+    private static final ParameterizedTypeReference<PageResponse<UserResponse>> PAGE_TYPE =
+            new ParameterizedTypeReference<>() { };
+
+    private final LoadTestOptions options;
+    private final WebClient client;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+    // Ids conhecidos para get/patch/delete, alimentados pelas listagens
+    private final AtomicReferenceArray<String> ids = new AtomicReferenceArray<>(ID_POOL_SIZE);
+    private final AtomicLong idCursor = new AtomicLong();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private UserLoadGenerator(final LoadTestOptions options) {
+        this.options = options;
+        final var provider = ConnectionProvider.builder("load-test")
+                .maxConnections(options.concurrency())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = WebClient.builder()
+                .baseUrl(options.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) {
+        final var options = LoadTestOptions.parse(args);
+        System.out.printf("Load test against %s: %d concurrent, warmup %s, duration %s%n",
+                options.baseUrl(), options.concurrency(), options.warmup(), options.duration());
+
+        new UserLoadGenerator(options).run();
+    }
+
+    private void run() {
+        seed();
+
+        drive(options.warmup());
+        stats.values().forEach(EndpointStats::reset);
+
+        final long start = System.nanoTime();
+        drive(options.duration());
+        final double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(EndpointStats.header());
+        stats.forEach((operation, endpoint) -> System.out.println(endpoint.format(operation.name(), elapsedSeconds)));
+    }
+
+    private void seed() {
+        Flux.range(0, options.seedUsers())
+                .flatMap(i -> execute(Operation.CREATE), options.concurrency())
+                .blockLast();
+
+        // Coleta os ids criados percorrendo as páginas
+        Mono.just("")
+                .expand(this::listPage)
+                .take(ID_POOL_SIZE / 100 + 1)
+                .blockLast();
+    }
+
+    private Mono<String> listPage(final String cursor) {
+        return client.get()
+                .uri(uriBuilder -> uriBuilder.path(ENDPOINT_USERS)
+                        .queryParam("limit", 100)
+                        .queryParamIfPresent("after", Optional.of(cursor).filter(value -> !value.isEmpty()))
+                        .build())
+                .retrieve()
+                .bodyToMono(PAGE_TYPE)
+                .doOnNext(page -> page.content().forEach(user -> remember(user.id())))
+                .mapNotNull(PageResponse::next);
+    }
+
+    private void drive(final Duration duration) {
+        Flux.<Operation>generate(sink -> sink.next(Operation.pick(ThreadLocalRandom.current().nextInt(Operation.totalWeight()))))
+                .take(duration)
+                .flatMap(this::execute, options.concurrency())
+                .blockLast();
+    }
+
+    private Mono<Void> execute(final Operation operation) {
+        final String id = operation == Operation.CREATE || operation == Operation.LIST ? null : pickId(operation);
+        if (id == null && operation != Operation.CREATE && operation != Operation.LIST) {
+            return execute(Operation.LIST);
+        }
+
+        final long start = System.nanoTime();
+        return request(operation, id)
+                .exchangeToMono(response -> consume(operation, response))
+                .doOnNext(error -> stats.get(operation).record(System.nanoTime() - start, error))
+                .onErrorResume(e -> {
+                    stats.get(operation).record(System.nanoTime() - start, true);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private WebClient.RequestHeadersSpec<?> request(final Operation operation, final String id) {
+        return switch (operation) {
+            case CREATE -> client.post().uri(ENDPOINT_USERS).bodyValue(newUser());
+            case GET -> client.get().uri(ENDPOINT_USERS + "/{id}", id);
+            case PATCH -> client.patch().uri(ENDPOINT_USERS + "/{id}", id)
+                    .bodyValue(new UserRequest("Patched " + runId, null, null));
+            case DELETE -> client.delete().uri(ENDPOINT_USERS + "/{id}", id);
+            case LIST -> client.get().uri(ENDPOINT_USERS + "?limit=20");
+        };
+    }
+
+    // Emite true quando a resposta conta como erro
+    private Mono<Boolean> consume(final Operation operation, final ClientResponse response) {
+        final boolean error = response.statusCode().is5xxServerError();
+        if (operation == Operation.LIST && response.statusCode().is2xxSuccessful()) {
+            return response.bodyToMono(PAGE_TYPE)
+                    .doOnNext(page -> page.content().forEach(user -> remember(user.id())))
+                    .thenReturn(false);
+        }
+        return response.releaseBody().thenReturn(error);
+    }
+
+    private UserRequest newUser() {
+        final long sequence = emailSequence.incrementAndGet();
+        return new UserRequest("Load " + sequence, "load-" + runId + "-" + sequence + "@mail.com", "password123");
+    }
+
+    private void remember(final String id) {
+        ids.set((int) (idCursor.getAndIncrement() % ID_POOL_SIZE), id);
+    }
+
+    private String pickId(final Operation operation) {
+        final int slot = ThreadLocalRandom.current().nextInt(ID_POOL_SIZE);
+        // Um id apagado sai do pool para não gerar 404 nas próximas leituras
+        return operation == Operation.DELETE ? ids.getAndSet(slot, null) : ids.get(slot);
+    }
+}
@@ -0,0 +1,14 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "users.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    // Fração das respostas 2xx que vão para o log; respostas de erro são sempre registradas
+    private double successSampleRate = 1.0;
+}
@@ -0,0 +1,22 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "users.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    // Limite de requisições simultâneas por rota, ajustado entre min-limit e max-limit
+    private int initialLimit = 64;
+    private int minLimit = 8;
+    private int maxLimit = 512;
+
+    // Resposta mais lenta que isso, ou 503/504, conta como sobrecarga e reduz o limite (multiplica por backoff-ratio)
+    private Duration latencyThreshold = Duration.ofMillis(500);
+    private double backoffRatio = 0.9;
+}
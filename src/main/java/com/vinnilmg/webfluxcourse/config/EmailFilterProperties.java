@@ -0,0 +1,18 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "users.email-filter")
+public class EmailFilterProperties {
+
+    // Dimensionamento do Bloom filter: ~1,2 MB para 1 milhão de e-mails a 1% de falso positivo
+    private long expectedInsertions = 1_000_000;
+    private double falsePositiveProbability = 0.01;
+    // Remoções (delete ou troca de e-mail) deixam bits velhos; passado esse número o filtro é reconstruído
+    private long rebuildAfterRemovals = 100_000;
+    private Duration rebuildCheckInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,16 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import com.vinnilmg.webfluxcourse.controller.exception.StandardErrorEncoder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+// Corpos de erro em JSON saem pelo StandardErrorEncoder; codecs customizados têm prioridade sobre o Jackson
+@Configuration
+public class ErrorEncodingConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureHttpMessageCodecs(final ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new StandardErrorEncoder());
+    }
+}
@@ -0,0 +1,17 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "users.in-memory")
+public class InMemoryRepositoryProperties {
+
+    // Latência artificial de cada operação, simulando a ida e volta ao banco
+    private Duration latency = Duration.ZERO;
+
+    // Eventos guardados para retomar o watch; um token mais antigo que isso não pode mais ser retomado
+    private int changeHistory = 1024;
+}
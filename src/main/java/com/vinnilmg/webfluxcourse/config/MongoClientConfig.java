@@ -0,0 +1,76 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+// Pool, timeouts, compressão e read preference do MongoClient a partir de users.mongo. Roda depois do customizer
+// do Boot que aplica a URI; os do actuator continuam registrando mongodb.driver.pool.* e mongodb.driver.commands
+@Configuration
+@Profile("!loadtest")
+@RequiredArgsConstructor
+public class MongoClientConfig implements MongoClientSettingsBuilderCustomizer, Ordered {
+
+    private final MongoClientProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void customize(final MongoClientSettings.Builder builder) {
+        builder.applyToConnectionPoolSettings(pool -> pool
+                        .minSize(properties.getMinPoolSize())
+                        .maxSize(properties.getMaxPoolSize())
+                        .maxWaitTime(properties.getMaxWait().toMillis(), MILLISECONDS)
+                        .maxConnecting(properties.getMaxConnecting())
+                        .maxConnectionIdleTime(properties.getMaxConnectionIdleTime().toMillis(), MILLISECONDS)
+                        .addConnectionPoolListener(checkOutFailures()))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(Math.toIntExact(properties.getConnectTimeout().toMillis()), MILLISECONDS)
+                        .readTimeout(Math.toIntExact(properties.getReadTimeout().toMillis()), MILLISECONDS))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(properties.getServerSelectionTimeout().toMillis(), MILLISECONDS))
+                .compressorList(properties.getCompressors().stream().map(this::compressor).toList());
+
+        if (StringUtils.hasText(properties.getReadPreference())) {
+            builder.readPreference(ReadPreference.valueOf(properties.getReadPreference()));
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    // O gauge mongodb.driver.pool.waitqueuesize mostra a fila; aqui ficam as esperas que estouraram o max-wait
+    private ConnectionPoolListener checkOutFailures() {
+        return new ConnectionPoolListener() {
+            @Override
+            public void connectionCheckOutFailed(final ConnectionCheckOutFailedEvent event) {
+                meterRegistry.counter("users.mongo.pool.checkout.failed",
+                                "reason", event.getReason().name().toLowerCase(Locale.ROOT))
+                        .increment();
+            }
+        };
+    }
+
+    private MongoCompressor compressor(final String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "zstd" -> MongoCompressor.createZstdCompressor();
+            case "snappy" -> MongoCompressor.createSnappyCompressor();
+            case "zlib" -> MongoCompressor.createZlibCompressor();
+            default -> throw new IllegalArgumentException("Unknown Mongo compressor: " + name);
+        };
+    }
+}
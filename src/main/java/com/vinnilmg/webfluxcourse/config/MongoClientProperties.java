@@ -0,0 +1,44 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+// Sobrepõe o que vier na URI (spring.data.mongodb.uri)
+@Data
+@ConfigurationProperties(prefix = "users.mongo")
+public class MongoClientProperties {
+
+    private int minPoolSize = 10;
+
+    private int maxPoolSize = 100;
+
+    // Espera máxima por uma conexão livre: com o pool esgotado a requisição vira 503 em vez de ficar na fila
+    private Duration maxWait = Duration.ofMillis(500);
+
+    // Conexões sendo abertas ao mesmo tempo
+    private int maxConnecting = 2;
+
+    private Duration maxConnectionIdleTime = Duration.ofMinutes(5);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // Timeout do socket: limita também as escritas, que não aceitam maxTimeMS
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    private Duration serverSelectionTimeout = Duration.ofSeconds(5);
+
+    // Negociados com o servidor na ordem da lista: zstd, snappy ou zlib
+    private List<String> compressors = List.of("zstd", "snappy");
+
+    // primary, primaryPreferred, secondary, secondaryPreferred ou nearest; vazio mantém o da URI
+    private String readPreference;
+
+    // O findAll (stream e exportação) percorre a coleção inteira e tolera dados levemente defasados
+    private String findAllReadPreference = "secondaryPreferred";
+
+    // maxTimeMS das consultas pontuais, paginadas e dos findAndModify; streams (findAll, e-mails) não têm limite
+    private Duration maxTime = Duration.ofSeconds(2);
+}
@@ -0,0 +1,15 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "users.password-hashing")
+public class PasswordHashingProperties {
+
+    // Custo do bcrypt (log2 das rodadas): cada +1 dobra o tempo de um hash
+    private int strength = 10;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    // Hashes aguardando por thread; acima disso a requisição falha na hora com 503
+    private int queueCapacity = 32;
+}
@@ -0,0 +1,28 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "users.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Taxa sustentada por cliente; burst é quantas requisições seguidas um cliente parado pode fazer
+    private double requestsPerSecond = 50;
+    private int burst = 100;
+
+    // O cliente é o IP de origem. O header só identifica o cliente em requisições vindas de um dos trusted-proxies,
+    // que o preenchem; de qualquer outra origem é ignorado, senão bastaria trocar o valor a cada requisição para
+    // escapar do limite e inflar o cache de clientes
+    private String clientIdHeader;
+    private List<String> trustedProxies = List.of();
+
+    // Limite de clientes acompanhados ao mesmo tempo; os inativos saem depois de client-idle-timeout
+    private long maxClients = 100_000;
+    private Duration clientIdleTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,12 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "users.batch")
+public class UserBatchProperties {
+
+    // Quantidade de documentos válidos enviados em cada insertMany
+    private int chunkSize = 500;
+}
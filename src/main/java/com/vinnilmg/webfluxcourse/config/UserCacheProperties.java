@@ -0,0 +1,15 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "users.cache")
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+    private long maximumSize = 10_000;
+    private Duration ttl = Duration.ofSeconds(30);
+}
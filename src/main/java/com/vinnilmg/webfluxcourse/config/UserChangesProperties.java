@@ -0,0 +1,20 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "users.changes")
+public class UserChangesProperties {
+
+    // Comentário SSE periódico para proxies não derrubarem a conexão ociosa
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    // Eventos acumulados por cliente lento; estourou, a conexão cai e o cliente retoma pelo Last-Event-ID
+    private int clientBuffer = 256;
+
+    // Espera máxima entre tentativas de reabrir o change stream usado para invalidar o cache
+    private Duration maxRetryBackoff = Duration.ofMinutes(1);
+}
@@ -0,0 +1,17 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "users.loader")
+public class UserLoaderProperties {
+
+    private boolean enabled = true;
+    // Quanto o primeiro id de um lote espera por companhia; é a latência extra máxima de um findById
+    private Duration window = Duration.ofMillis(1);
+    // Lote cheio vai para o Mongo na hora, sem esperar a janela
+    private int maxBatchSize = 100;
+}
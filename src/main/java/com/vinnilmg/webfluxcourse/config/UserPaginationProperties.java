@@ -0,0 +1,21 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "users.pagination")
+public class UserPaginationProperties {
+
+    private int defaultLimit = 20;
+
+    // Limite máximo aplicado pelo servidor, independente do que o cliente pedir
+    private int maxLimit = 100;
+
+    public int resolveLimit(final Integer requested) {
+        if (requested == null || requested <= 0) {
+            return Math.min(defaultLimit, maxLimit);
+        }
+        return Math.min(requested, maxLimit);
+    }
+}
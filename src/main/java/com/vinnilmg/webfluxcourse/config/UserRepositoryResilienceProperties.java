@@ -0,0 +1,68 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Proteções do UserService em volta de cada chamada ao UserRepository (UserRepositoryGuard)
+@Data
+@ConfigurationProperties(prefix = "users.repository")
+public class UserRepositoryResilienceProperties {
+
+    private boolean enabled = true;
+
+    // Prazo de cada chamada, medido no próprio pipeline (sem bloquear thread). Fica acima do max-time do Mongo:
+    // normalmente o maxTimeMS estoura antes e este é só o limite para quando o servidor nem responde
+    private Duration readTimeout = Duration.ofMillis(2500);
+    private Duration writeTimeout = Duration.ofSeconds(5);
+
+    // Prazo por operação do repositório (findById, findPage, save...), sobrepondo read/write-timeout
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Bulkhead bulkhead = new Bulkhead();
+
+    private Hedge hedge = new Hedge();
+
+    @Data
+    public static class CircuitBreaker {
+
+        // Últimas chamadas consideradas; abaixo de minimum-calls o circuito não abre
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+
+        // Percentual de falhas (timeout, banco indisponível) na janela que abre o circuito
+        private int failureRateThreshold = 50;
+
+        // Tempo aberto antes de deixar passar half-open-calls chamadas de teste
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 5;
+    }
+
+    @Data
+    public static class Bulkhead {
+
+        // Chamadas simultâneas ao banco; acima disso a requisição vira 503 na hora em vez de esperar conexão.
+        // Leituras e escritas separadas: uma enxurrada de cadastros não tira a vez dos GETs
+        private int maxConcurrentReads = 64;
+        private int maxConcurrentWrites = 32;
+    }
+
+    @Data
+    public static class Hedge {
+
+        // findById é idempotente: sem resposta até o p95 recente, dispara uma segunda tentativa e fica com a primeira
+        private boolean enabled = false;
+
+        // Piso do atraso, para não duplicar leituras quando o p95 é de poucos milissegundos
+        private Duration minDelay = Duration.ofMillis(10);
+
+        // Latências recentes de onde sai o p95; sem min-samples amostras ainda não há hedge
+        private int window = 1000;
+        private int minSamples = 100;
+    }
+}
@@ -0,0 +1,16 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import com.vinnilmg.webfluxcourse.controller.UserResponseEncoder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+// UserResponse e páginas de UserResponse saem pelo UserResponseEncoder; os demais tipos seguem no Jackson
+@Configuration
+public class UserResponseEncodingConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureHttpMessageCodecs(final ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new UserResponseEncoder());
+    }
+}
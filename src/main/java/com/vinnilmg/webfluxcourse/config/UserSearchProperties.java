@@ -0,0 +1,17 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "users.search")
+public class UserSearchProperties {
+
+    private int maxTermLength = 100;
+
+    // A busca textual pagina por skip, então só as primeiras max-text-results ocorrências são alcançáveis
+    private int maxTextResults = 500;
+
+    // Modo de depuração: expõe GET /users/search/explain com o plano de execução de cada busca
+    private boolean explain = false;
+}
@@ -0,0 +1,12 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "users.streaming")
+public class UserStreamingProperties {
+
+    // Quantidade de documentos pedidos ao cursor por vez; também é o batchSize enviado ao Mongo
+    private int prefetch = 256;
+}
@@ -0,0 +1,32 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "users.write-behind")
+public class UserWriteBehindProperties {
+
+    // POST /users grava no log local e responde 202; o Mongo recebe os cadastros em lotes, em segundo plano
+    private boolean enabled = false;
+
+    private String directory = "data/users-wal";
+
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+    // Capacidade do log: com todos os segmentos cheios e ainda não gravados no Mongo, POST /users responde 503
+    private int maxSegments = 8;
+
+    // false troca a durabilidade de cada cadastro (msync antes do 202) por vazão: uma queda da máquina perde o que
+    // o sistema operacional ainda não gravou, uma queda só do processo não
+    private boolean fsync = true;
+
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    private int batchSize = 500;
+
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);
+}
@@ -0,0 +1,71 @@
+package com.vinnilmg.webfluxcourse.controller;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+// Escrita de strings JSON direto no DataBuffer, sem ObjectMapper nem String intermediária.
+// Usado pelo StandardErrorEncoder, pelo UserResponseEncoder e pela exportação de usuários
+public final class JsonDataBuffers {
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private JsonDataBuffers() { }
+
+    // String JSON em UTF-8 com os mesmos escapes do Jackson: aspas, barra invertida e caracteres de controle
+    public static void writeString(final DataBuffer buffer, final String value) {
+        if (value == null) {
+            buffer.write(NULL);
+            return;
+        }
+
+        buffer.write((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    buffer.write((byte) c);
+                } else {
+                    writeEscaped(buffer, c);
+                }
+            } else if (c < 0x800) {
+                buffer.write((byte) (0xC0 | (c >> 6)));
+                buffer.write((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.write((byte) (0xF0 | (codePoint >> 18)));
+                buffer.write((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.write((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.write((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                writeEscaped(buffer, c);
+            } else {
+                buffer.write((byte) (0xE0 | (c >> 12)));
+                buffer.write((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.write((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        buffer.write((byte) '"');
+    }
+
+    private static void writeEscaped(final DataBuffer buffer, final char c) {
+        buffer.write((byte) '\\');
+        switch (c) {
+            case '"' -> buffer.write((byte) '"');
+            case '\\' -> buffer.write((byte) '\\');
+            case '\n' -> buffer.write((byte) 'n');
+            case '\r' -> buffer.write((byte) 'r');
+            case '\t' -> buffer.write((byte) 't');
+            case '\b' -> buffer.write((byte) 'b');
+            case '\f' -> buffer.write((byte) 'f');
+            default -> {
+                buffer.write((byte) 'u');
+                buffer.write(HEX[(c >> 12) & 0xF]);
+                buffer.write(HEX[(c >> 8) & 0xF]);
+                buffer.write(HEX[(c >> 4) & 0xF]);
+                buffer.write(HEX[c & 0xF]);
+            }
+        }
+    }
+}
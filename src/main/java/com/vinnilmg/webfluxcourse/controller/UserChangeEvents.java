@@ -0,0 +1,37 @@
+package com.vinnilmg.webfluxcourse.controller;
+
+import com.vinnilmg.webfluxcourse.mapper.UserMapper;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import com.vinnilmg.webfluxcourse.repository.UserChange;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+// Eventos SSE do /users/changes: o id de cada evento é o resume token; o nome do evento é a operação
+// (insert, update, delete). O primeiro keep-alive sai logo na abertura, confirmando ao cliente que o
+// stream já está ouvindo
+public final class UserChangeEvents {
+
+    private UserChangeEvents() { }
+
+    public static Flux<ServerSentEvent<UserResponse>> of(final Flux<UserChange> changes,
+                                                         final UserMapper mapper,
+                                                         final Duration heartbeat) {
+        final var keepAlive = Flux.interval(Duration.ZERO, heartbeat)
+                .map(tick -> ServerSentEvent.<UserResponse>builder().comment("keep-alive").build());
+
+        return changes.map(change -> toEvent(change, mapper)).mergeWith(keepAlive);
+    }
+
+    private static ServerSentEvent<UserResponse> toEvent(final UserChange change, final UserMapper mapper) {
+        final var data = change.user() == null
+                ? new UserResponse(change.id(), null, null)
+                : mapper.toResponse(change.user());
+
+        return ServerSentEvent.builder(data)
+                .id(change.token())
+                .event(change.type().name().toLowerCase())
+                .build();
+    }
+}
@@ -1,28 +1,104 @@
 package com.vinnilmg.webfluxcourse.controller;
 
+import com.vinnilmg.webfluxcourse.model.request.BulkDeleteRequest;
+import com.vinnilmg.webfluxcourse.model.request.BulkPatchRequest;
 import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.BatchItemResponse;
+import com.vinnilmg.webfluxcourse.model.response.PageResponse;
 import com.vinnilmg.webfluxcourse.model.response.UserResponse;
 import jakarta.validation.Valid;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
 public interface UserController {
 
     @PostMapping
-    ResponseEntity<Mono<Void>> save(@Valid @RequestBody UserRequest request);
+    Mono<ResponseEntity<UserResponse>> save(@Valid @RequestBody UserRequest request);
+
+    @PostMapping(value = "/batch", consumes = { APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE })
+    ResponseEntity<Flux<BatchItemResponse>> saveAll(@RequestBody Flux<UserRequest> requests);
 
     @GetMapping(value = "/{id}")
-    ResponseEntity<Mono<UserResponse>> findById(@PathVariable String id);
+    Mono<ResponseEntity<UserResponse>> findById(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch
+    );
 
     @GetMapping
-    ResponseEntity<Flux<UserResponse>> findAll();
+    ResponseEntity<Mono<PageResponse<UserResponse>>> findAll(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String fields
+    );
+
+    @GetMapping(params = "ids")
+    ResponseEntity<Flux<UserResponse>> findAllById(
+            @RequestParam List<String> ids,
+            @RequestParam(required = false) String fields
+    );
+
+    @GetMapping(produces = { APPLICATION_NDJSON_VALUE, TEXT_EVENT_STREAM_VALUE })
+    ResponseEntity<Flux<UserResponse>> stream(@RequestParam(required = false) String fields);
+
+    // Prefixo de e-mail ou de nome, ou busca textual (mode = email, name ou text); paginada como o GET /users
+    @GetMapping(value = "/search")
+    ResponseEntity<Mono<PageResponse<UserResponse>>> search(
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after
+    );
+
+    // Exportação completa em streaming (csv ou ndjson); com Accept-Encoding: gzip, a resposta sai comprimida
+    @GetMapping(value = "/export")
+    ResponseEntity<Flux<DataBuffer>> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = ACCEPT_ENCODING, required = false) String acceptEncoding,
+            ServerHttpResponse response
+    );
+
+    // Alterações em tempo real; o navegador reenvia o id do último evento no Last-Event-ID ao reconectar
+    @GetMapping(value = "/changes", produces = TEXT_EVENT_STREAM_VALUE)
+    ResponseEntity<Flux<ServerSentEvent<UserResponse>>> changes(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    );
 
     @PatchMapping(value = "/{id}")
-    ResponseEntity<Mono<UserResponse>> update(@PathVariable String id, @RequestBody UserRequest request);
+    Mono<ResponseEntity<UserResponse>> update(
+            @PathVariable String id,
+            @RequestHeader(value = IF_MATCH, required = false) String ifMatch,
+            @RequestBody UserRequest request
+    );
+
+    @PatchMapping(consumes = { APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE })
+    ResponseEntity<Flux<BatchItemResponse>> updateAll(
+            @RequestBody Flux<BulkPatchRequest> requests,
+            @RequestParam(defaultValue = "false") boolean ordered
+    );
 
     @DeleteMapping(value = "/{id}")
     ResponseEntity<Mono<Void>> delete(@PathVariable String id);
 
+    @DeleteMapping(consumes = { APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE })
+    ResponseEntity<Flux<BatchItemResponse>> deleteAll(
+            @RequestBody Flux<BulkDeleteRequest> requests,
+            @RequestParam(defaultValue = "false") boolean ordered
+    );
+
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.vinnilmg.webfluxcourse.controller;
+
+import com.vinnilmg.webfluxcourse.service.exception.PreconditionFailedException;
+
+import java.util.Arrays;
+
+// ETag forte derivado do @Version do usuário: "\"<version>\""
+public final class UserETag {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private UserETag() { }
+
+    public static String of(final long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-None-Match usa comparação fraca: W/"3" também casa com a versão 3
+    public static boolean noneMatchHits(final String ifNoneMatch, final long version) {
+        final var current = of(version);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+                .anyMatch(tag -> ANY.equals(tag) || current.equals(tag));
+    }
+
+    // If-Match usa comparação forte. Retorna null quando não há condição (ausente ou "*")
+    public static Long expectedVersion(final String ifMatch) {
+        if (ifMatch == null || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+
+        final var tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag: " + ifMatch);
+        }
+    }
+}
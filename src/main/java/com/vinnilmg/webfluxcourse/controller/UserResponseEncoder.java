@@ -0,0 +1,144 @@
+package com.vinnilmg.webfluxcourse.controller;
+
+import com.vinnilmg.webfluxcourse.model.response.PageResponse;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+// Escreve UserResponse e PageResponse<UserResponse> direto nos DataBuffers da resposta (no Netty, buffers do pool),
+// sem ObjectMapper nem byte[] intermediário por elemento. Os nomes dos campos são bytes prontos; por usuário só os
+// valores passam pelo JsonDataBuffers. Mesmo JSON do Jackson: nulos fora do UserResponse (NON_NULL), Flux como array
+// em application/json e uma linha por usuário em application/x-ndjson
+public class UserResponseEncoder extends AbstractEncoder<Object> implements HttpMessageEncoder<Object> {
+
+    private static final byte[] ID = ascii("\"id\":");
+    private static final byte[] NAME = ascii("\"name\":");
+    private static final byte[] EMAIL = ascii("\"email\":");
+    private static final byte[] CONTENT = ascii("{\"content\":[");
+    private static final byte[] NEXT = ascii("],\"next\":");
+    private static final byte[] EMPTY_ARRAY = ascii("[]");
+
+    // Tamanho típico de um usuário em JSON: a maioria cabe no buffer inicial sem realocação
+    private static final int USER_SIZE_HINT = 96;
+
+    public UserResponseEncoder() {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    public boolean canEncode(final ResolvableType elementType, final MimeType mimeType) {
+        return (isUser(elementType) || isUserPage(elementType)) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return List.of(MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(final Publisher<?> inputStream,
+                                   final DataBufferFactory bufferFactory,
+                                   final ResolvableType elementType,
+                                   final MimeType mimeType,
+                                   final Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> mono) {
+            return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(mimeType)) {
+            return Flux.from(inputStream)
+                    .map(value -> {
+                        final DataBuffer buffer = bufferFactory.allocateBuffer(USER_SIZE_HINT);
+                        writeUser(buffer, (UserResponse) value);
+                        return buffer.write((byte) '\n');
+                    })
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        }
+
+        // Array JSON: '[' vai junto do primeiro usuário e ',' na frente dos demais, sem buffers só de separador
+        return Flux.defer(() -> {
+            final boolean[] first = { true };
+            return Flux.from(inputStream)
+                    .map(value -> {
+                        final DataBuffer buffer = bufferFactory.allocateBuffer(USER_SIZE_HINT);
+                        buffer.write(first[0] ? (byte) '[' : (byte) ',');
+                        first[0] = false;
+                        writeUser(buffer, (UserResponse) value);
+                        return buffer;
+                    })
+                    .concatWith(Mono.fromSupplier(() -> first[0]
+                            ? bufferFactory.allocateBuffer(EMPTY_ARRAY.length).write(EMPTY_ARRAY)
+                            : bufferFactory.allocateBuffer(1).write((byte) ']')))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(final Object value,
+                                  final DataBufferFactory bufferFactory,
+                                  final ResolvableType valueType,
+                                  final MimeType mimeType,
+                                  final Map<String, Object> hints) {
+        if (value instanceof PageResponse<?> page) {
+            final DataBuffer buffer = bufferFactory.allocateBuffer(32 + USER_SIZE_HINT * page.content().size());
+            buffer.write(CONTENT);
+            for (int i = 0; i < page.content().size(); i++) {
+                if (i > 0) {
+                    buffer.write((byte) ',');
+                }
+                writeUser(buffer, (UserResponse) page.content().get(i));
+            }
+            buffer.write(NEXT);
+            JsonDataBuffers.writeString(buffer, page.next());
+            return buffer.write((byte) '}');
+        }
+
+        final DataBuffer buffer = bufferFactory.allocateBuffer(USER_SIZE_HINT);
+        writeUser(buffer, (UserResponse) value);
+        return buffer;
+    }
+
+    private void writeUser(final DataBuffer buffer, final UserResponse user) {
+        buffer.write((byte) '{');
+        boolean first = writeField(buffer, ID, user.id(), true);
+        first = writeField(buffer, NAME, user.name(), first);
+        writeField(buffer, EMAIL, user.email(), first);
+        buffer.write((byte) '}');
+    }
+
+    private boolean writeField(final DataBuffer buffer, final byte[] name, final String value, final boolean first) {
+        if (value == null) {
+            return first;
+        }
+        if (!first) {
+            buffer.write((byte) ',');
+        }
+        buffer.write(name);
+        JsonDataBuffers.writeString(buffer, value);
+        return false;
+    }
+
+    private static boolean isUser(final ResolvableType type) {
+        return UserResponse.class.equals(type.toClass());
+    }
+
+    private static boolean isUserPage(final ResolvableType type) {
+        return PageResponse.class.equals(type.toClass()) && UserResponse.class.equals(type.getGeneric(0).toClass());
+    }
+
+    private static byte[] ascii(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -1,9 +1,24 @@
 package com.vinnilmg.webfluxcourse.controller.exception;
 
+import com.vinnilmg.webfluxcourse.service.UserServiceMetrics;
+import com.vinnilmg.webfluxcourse.service.exception.DuplicateKeyMessages;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidCursorException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidExportFormatException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidFieldsException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidIdsException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidResumeTokenException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidSearchException;
 import com.vinnilmg.webfluxcourse.service.exception.ObjectNotFoundException;
+import com.vinnilmg.webfluxcourse.service.exception.PreconditionFailedException;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.support.WebExchangeBindException;
@@ -12,40 +27,45 @@ import reactor.core.publisher.Mono;
 import static java.time.LocalDateTime.now;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
+@RequiredArgsConstructor
 @ControllerAdvice
 public class ControllerExceptionHandler {
 
+    private final UserServiceMetrics metrics;
+
     @ExceptionHandler(DuplicateKeyException.class)
     ResponseEntity<Mono<StandardError>> duplicateKeyException(
             DuplicateKeyException e, ServerHttpRequest request
     ) {
         return ResponseEntity.badRequest()
-                .body(Mono.just(
-                        StandardError.builder()
-                                .timestamp(now())
-                                .status(BAD_REQUEST.value())
-                                .error(BAD_REQUEST.getReasonPhrase())
-                                .message(verifyDupKey(e.getMessage()))
-                                .path(request.getPath().toString())
-                                .build()
-                ));
+                .body(error(BAD_REQUEST, verifyDupKey(e.getMessage()), request));
     }
 
     @ExceptionHandler(WebExchangeBindException.class)
     public ResponseEntity<Mono<ValidationError>> validationError(
             WebExchangeBindException e, ServerHttpRequest request
     ) {
+        // A validação do @Valid acontece antes de chegar no serviço, então é contabilizada aqui
+        metrics.recordError(e.getMethodParameter().getExecutable().getName(), e);
+
+        return validationError(e.getBindingResult(), request);
+    }
+
+    // Também usado pelas rotas funcionais, que validam o corpo no próprio handler
+    public ResponseEntity<Mono<ValidationError>> validationError(Errors errors, ServerHttpRequest request) {
         ValidationError error = new ValidationError(
                 now(),
-                request.getPath().toString(),
+                request.getPath().value(),
                 BAD_REQUEST.value(),
                 "Validation Error",
                 "Error on validation attributes"
         );
 
         // Pega field errors
-        e.getBindingResult().getFieldErrors().forEach(fe -> error.addError(fe.getField(), fe.getDefaultMessage()));
+        errors.getFieldErrors().forEach(fe -> error.addError(fe.getField(), fe.getDefaultMessage()));
 
         return ResponseEntity.badRequest().body(Mono.just(error));
     }
@@ -55,22 +75,70 @@ public class ControllerExceptionHandler {
             ObjectNotFoundException e, ServerHttpRequest request
     ) {
         return ResponseEntity.status(NOT_FOUND)
-                .body(Mono.just(
-                        StandardError.builder()
-                                .timestamp(now())
-                                .status(NOT_FOUND.value())
-                                .error(NOT_FOUND.getReasonPhrase())
-                                .message(e.getMessage())
-                                .path(request.getPath().toString())
-                                .build()
-                ));
+                .body(error(NOT_FOUND, e.getMessage(), request));
     }
 
-    private String verifyDupKey(String message) {
-        if (message.contains("email dup key")) {
-            return "E-mail already exists.";
+    @ExceptionHandler({
+            InvalidCursorException.class, InvalidFieldsException.class, InvalidIdsException.class, InvalidResumeTokenException.class,
+            InvalidExportFormatException.class, InvalidSearchException.class
+    })
+    public ResponseEntity<Mono<StandardError>> invalidQueryParameterException(
+            RuntimeException e, ServerHttpRequest request
+    ) {
+        return ResponseEntity.badRequest()
+                .body(error(BAD_REQUEST, e.getMessage(), request));
+    }
+
+    // If-Match diferente da versão atual, ou outra escrita venceu entre a leitura e o save
+    @ExceptionHandler({ PreconditionFailedException.class, OptimisticLockingFailureException.class })
+    public ResponseEntity<Mono<StandardError>> preconditionFailedException(
+            RuntimeException e, ServerHttpRequest request
+    ) {
+        return ResponseEntity.status(PRECONDITION_FAILED)
+                .body(error(PRECONDITION_FAILED, e.getMessage(), request));
+    }
+
+    // Pool de trabalho saturado, banco lento ou circuito aberto (RepositoryUnavailableException): falha rápida,
+    // o cliente tenta de novo depois do Retry-After (com o circuito aberto, o tempo que falta para o half-open)
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Mono<StandardError>> serviceUnavailableException(
+            ServiceUnavailableException e, ServerHttpRequest request
+    ) {
+        return ResponseEntity.status(SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(error(SERVICE_UNAVAILABLE, e.getMessage(), request));
+    }
+
+    // Mesmo mapeamento dos @ExceptionHandler acima, para quem não passa pelo @ControllerAdvice (rotas funcionais).
+    // null quando a exceção não é um erro conhecido
+    public ResponseEntity<Mono<StandardError>> resolve(Throwable e, ServerHttpRequest request) {
+        if (e instanceof DuplicateKeyException duplicateKey) {
+            return duplicateKeyException(duplicateKey, request);
+        }
+        if (e instanceof ObjectNotFoundException notFound) {
+            return objectNotFoundException(notFound, request);
+        }
+        if (e instanceof InvalidCursorException || e instanceof InvalidFieldsException
+                || e instanceof InvalidIdsException || e instanceof InvalidResumeTokenException
+                || e instanceof InvalidExportFormatException || e instanceof InvalidSearchException) {
+            return invalidQueryParameterException((RuntimeException) e, request);
+        }
+        if (e instanceof PreconditionFailedException || e instanceof OptimisticLockingFailureException) {
+            return preconditionFailedException((RuntimeException) e, request);
         }
-        return "Dup key exception.";
+        if (e instanceof ServiceUnavailableException unavailable) {
+            return serviceUnavailableException(unavailable, request);
+        }
+        return null;
+    }
+
+    // Corpo serializado pelo StandardErrorEncoder, sem Jackson
+    private Mono<StandardError> error(final HttpStatus status, final String message, final ServerHttpRequest request) {
+        return Mono.just(new StandardError(now(), request.getPath().value(), status.value(), status.getReasonPhrase(), message));
+    }
+
+    private String verifyDupKey(String message) {
+        return DuplicateKeyMessages.resolve(message);
     }
 
 }
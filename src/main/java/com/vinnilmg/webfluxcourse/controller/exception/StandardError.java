@@ -1,5 +1,6 @@
 package com.vinnilmg.webfluxcourse.controller.exception;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -7,6 +8,7 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+@AllArgsConstructor
 @Builder
 @Data
 public class StandardError implements Serializable {
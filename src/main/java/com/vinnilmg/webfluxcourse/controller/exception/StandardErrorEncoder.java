@@ -0,0 +1,164 @@
+package com.vinnilmg.webfluxcourse.controller.exception;
+
+import com.vinnilmg.webfluxcourse.controller.JsonDataBuffers;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Escreve StandardError/ValidationError direto no buffer da resposta, sem passar pelo ObjectMapper.
+// Os trechos fixos (nomes dos campos e, por status, '"status":404,"error":"Not Found"') são montados uma vez;
+// por requisição só data, path e mensagem são escritos. Mesmo JSON que o Jackson produziria.
+public class StandardErrorEncoder extends AbstractEncoder<StandardError> {
+
+    private static final byte[] TIMESTAMP = ascii("{\"timestamp\":");
+    private static final byte[] PATH = ascii(",\"path\":");
+    private static final byte[] STATUS = ascii(",\"status\":");
+    private static final byte[] ERROR = ascii(",\"error\":");
+    private static final byte[] MESSAGE = ascii(",\"message\":");
+    private static final byte[] ERRORS = ascii(",\"errors\":[");
+    private static final byte[] FIELD_NAME = ascii("{\"fieldName\":");
+    private static final byte[] NULL = ascii("null");
+
+    // ',"status":404,"error":"Not Found"' de cada status conhecido, indexado pelo código
+    private static final byte[][] STATUS_AND_ERROR = new byte[600][];
+    private static final String[] REASON_PHRASES = new String[600];
+
+    static {
+        for (final HttpStatus status : HttpStatus.values()) {
+            REASON_PHRASES[status.value()] = status.getReasonPhrase();
+            STATUS_AND_ERROR[status.value()] = ascii(",\"status\":" + status.value() + ",\"error\":\"" + status.getReasonPhrase() + "\"");
+        }
+    }
+
+    public StandardErrorEncoder() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    public boolean canEncode(final ResolvableType elementType, final MimeType mimeType) {
+        return StandardError.class.isAssignableFrom(elementType.toClass()) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(final Publisher<? extends StandardError> inputStream,
+                                   final DataBufferFactory bufferFactory,
+                                   final ResolvableType elementType,
+                                   final MimeType mimeType,
+                                   final Map<String, Object> hints) {
+        return Flux.from(inputStream).map(error -> encodeValue(error, bufferFactory, elementType, mimeType, hints));
+    }
+
+    @Override
+    public DataBuffer encodeValue(final StandardError error,
+                                  final DataBufferFactory bufferFactory,
+                                  final ResolvableType valueType,
+                                  final MimeType mimeType,
+                                  final Map<String, Object> hints) {
+        final DataBuffer buffer = bufferFactory.allocateBuffer(256);
+
+        buffer.write(TIMESTAMP);
+        writeTimestamp(buffer, error.getTimestamp());
+        buffer.write(PATH);
+        JsonDataBuffers.writeString(buffer, error.getPath());
+        writeStatusAndError(buffer, error.getStatus(), error.getError());
+        buffer.write(MESSAGE);
+        JsonDataBuffers.writeString(buffer, error.getMessage());
+
+        if (error instanceof ValidationError validation) {
+            buffer.write(ERRORS);
+            for (int i = 0; i < validation.getErrors().size(); i++) {
+                final var field = validation.getErrors().get(i);
+                if (i > 0) {
+                    buffer.write((byte) ',');
+                }
+                buffer.write(FIELD_NAME);
+                JsonDataBuffers.writeString(buffer, field.getFieldName());
+                buffer.write(MESSAGE);
+                JsonDataBuffers.writeString(buffer, field.getMessage());
+                buffer.write((byte) '}');
+            }
+            buffer.write((byte) ']');
+        }
+
+        return buffer.write((byte) '}');
+    }
+
+    private void writeStatusAndError(final DataBuffer buffer, final Integer status, final String error) {
+        if (status != null && status >= 0 && status < REASON_PHRASES.length
+                && REASON_PHRASES[status] != null && REASON_PHRASES[status].equals(error)) {
+            buffer.write(STATUS_AND_ERROR[status]);
+            return;
+        }
+
+        buffer.write(STATUS);
+        if (status == null) {
+            buffer.write(NULL);
+        } else {
+            writeInt(buffer, status, 1);
+        }
+        buffer.write(ERROR);
+        JsonDataBuffers.writeString(buffer, error);
+    }
+
+    // Mesmo formato do ISO_LOCAL_DATE_TIME usado pelo Jackson: fração só com os dígitos significativos
+    private void writeTimestamp(final DataBuffer buffer, final LocalDateTime timestamp) {
+        if (timestamp == null) {
+            buffer.write(NULL);
+            return;
+        }
+
+        buffer.write((byte) '"');
+        writeInt(buffer, timestamp.getYear(), 4);
+        buffer.write((byte) '-');
+        writeInt(buffer, timestamp.getMonthValue(), 2);
+        buffer.write((byte) '-');
+        writeInt(buffer, timestamp.getDayOfMonth(), 2);
+        buffer.write((byte) 'T');
+        writeInt(buffer, timestamp.getHour(), 2);
+        buffer.write((byte) ':');
+        writeInt(buffer, timestamp.getMinute(), 2);
+        buffer.write((byte) ':');
+        writeInt(buffer, timestamp.getSecond(), 2);
+
+        int nano = timestamp.getNano();
+        if (nano > 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buffer.write((byte) '.');
+            writeInt(buffer, nano, digits);
+        }
+        buffer.write((byte) '"');
+    }
+
+    private void writeInt(final DataBuffer buffer, final int value, final int minDigits) {
+        int divisor = 1;
+        int digits = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+            digits++;
+        }
+        for (; digits < minDigits; digits++) {
+            buffer.write((byte) '0');
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.write((byte) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private static byte[] ascii(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
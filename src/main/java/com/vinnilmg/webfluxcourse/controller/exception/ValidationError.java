@@ -27,7 +27,7 @@ public class ValidationError extends StandardError implements Serializable {
 
     @Getter
     @AllArgsConstructor
-    private static final class FieldError {
+    static final class FieldError {
         private String fieldName;
         private String message;
     }
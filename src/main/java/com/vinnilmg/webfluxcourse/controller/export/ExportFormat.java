@@ -0,0 +1,37 @@
+package com.vinnilmg.webfluxcourse.controller.export;
+
+import com.vinnilmg.webfluxcourse.service.exception.InvalidExportFormatException;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+public enum ExportFormat {
+
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(final MediaType mediaType, final String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat parse(final String format) {
+        for (final ExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new InvalidExportFormatException("Invalid format: " + format + ". Allowed: csv, ndjson");
+    }
+}
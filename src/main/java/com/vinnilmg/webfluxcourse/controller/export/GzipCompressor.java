@@ -0,0 +1,96 @@
+package com.vinnilmg.webfluxcourse.controller.export;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// gzip em streaming: cada buffer de entrada passa pelo Deflater e é liberado na hora. A memória fica na janela
+// do Deflater mais um buffer de saída, qualquer que seja o tamanho da exportação. Um compressor por resposta
+final class GzipCompressor {
+
+    // ID1 ID2, CM=deflate, sem flags, mtime 0, XFL 0, OS desconhecido
+    private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+    private static final int CHUNK_SIZE = 8192;
+
+    private final DataBufferFactory bufferFactory;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] input = new byte[CHUNK_SIZE];
+    private final byte[] output = new byte[CHUNK_SIZE];
+
+    private GzipCompressor(final DataBufferFactory bufferFactory) {
+        this.bufferFactory = bufferFactory;
+    }
+
+    static Flux<DataBuffer> compress(final Flux<DataBuffer> body, final DataBufferFactory bufferFactory) {
+        return Flux.using(
+                () -> new GzipCompressor(bufferFactory),
+                compressor -> Flux.concat(
+                        Mono.fromSupplier(() -> bufferFactory.wrap(HEADER.clone())),
+                        body.<DataBuffer>handle((buffer, sink) -> {
+                            final var compressed = compressor.deflate(buffer);
+                            if (compressed != null) {
+                                sink.next(compressed);
+                            }
+                        }),
+                        Mono.fromSupplier(compressor::finish)
+                ),
+                GzipCompressor::end
+        );
+    }
+
+    // null enquanto o Deflater ainda acumula: a maioria das linhas não gera saída sozinha
+    private DataBuffer deflate(final DataBuffer buffer) {
+        try {
+            DataBuffer compressed = null;
+            while (buffer.readableByteCount() > 0) {
+                final int length = Math.min(input.length, buffer.readableByteCount());
+                buffer.read(input, 0, length);
+                crc.update(input, 0, length);
+                deflater.setInput(input, 0, length);
+                while (!deflater.needsInput()) {
+                    compressed = drain(compressed, Deflater.NO_FLUSH);
+                }
+            }
+            return compressed;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private DataBuffer finish() {
+        deflater.finish();
+        DataBuffer compressed = bufferFactory.allocateBuffer(CHUNK_SIZE);
+        while (!deflater.finished()) {
+            compressed = drain(compressed, Deflater.NO_FLUSH);
+        }
+        writeIntLittleEndian(compressed, (int) crc.getValue());
+        writeIntLittleEndian(compressed, (int) deflater.getBytesRead());
+        return compressed;
+    }
+
+    private DataBuffer drain(final DataBuffer compressed, final int flush) {
+        final int length = deflater.deflate(output, 0, output.length, flush);
+        if (length == 0) {
+            return compressed;
+        }
+        final var target = compressed == null ? bufferFactory.allocateBuffer(CHUNK_SIZE) : compressed;
+        return target.write(output, 0, length);
+    }
+
+    private void writeIntLittleEndian(final DataBuffer buffer, final int value) {
+        buffer.write((byte) value);
+        buffer.write((byte) (value >> 8));
+        buffer.write((byte) (value >> 16));
+        buffer.write((byte) (value >> 24));
+    }
+
+    private void end() {
+        deflater.end();
+    }
+}
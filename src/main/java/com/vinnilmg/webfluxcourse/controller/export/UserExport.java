@@ -0,0 +1,148 @@
+package com.vinnilmg.webfluxcourse.controller.export;
+
+import com.vinnilmg.webfluxcourse.controller.JsonDataBuffers;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.service.UserFields;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// GET /users/export: cada usuário lido do cursor vira um DataBuffer do pool da resposta, escrito byte a byte.
+// Sem UserResponse, sem lista e sem Jackson; a contrapressão do cursor (users.streaming.prefetch) mantém a
+// memória constante, qualquer que seja o tamanho da coleção
+public final class UserExport {
+
+    private static final int ROW_CAPACITY = 128;
+    private static final byte[] CRLF = { '\r', '\n' };
+
+    private final ExportFormat format;
+    private final List<String> columns;
+    private final boolean gzip;
+
+    private UserExport(final ExportFormat format, final List<String> columns, final boolean gzip) {
+        this.format = format;
+        this.columns = columns;
+        this.gzip = gzip;
+    }
+
+    // Valida os parâmetros antes de a resposta começar: depois dela, um 400 já não poderia ser enviado
+    public static UserExport of(final String format, final String fields, final String acceptEncoding) {
+        return new UserExport(ExportFormat.parse(format), UserFields.columns(fields), acceptsGzip(acceptEncoding));
+    }
+
+    // Campos a projetar no Mongo; o id sempre vem
+    public Set<String> projection() {
+        return columns.stream().filter(UserFields.DEFAULT::contains).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public HttpHeaders headers() {
+        final var headers = new HttpHeaders();
+        headers.setContentType(format.mediaType());
+        headers.setContentDisposition(ContentDisposition.attachment().filename("users." + format.extension()).build());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return headers;
+    }
+
+    public Flux<DataBuffer> body(final Flux<User> users, final DataBufferFactory bufferFactory) {
+        final Flux<DataBuffer> rows = format == ExportFormat.CSV
+                ? Flux.concat(Mono.fromSupplier(() -> csvHeader(bufferFactory)), users.map(user -> csvRow(user, bufferFactory)))
+                : users.map(user -> jsonRow(user, bufferFactory));
+
+        return gzip ? GzipCompressor.compress(rows, bufferFactory) : rows;
+    }
+
+    private DataBuffer csvHeader(final DataBufferFactory bufferFactory) {
+        final var buffer = bufferFactory.allocateBuffer(32);
+        buffer.write(String.join(",", columns), StandardCharsets.US_ASCII);
+        return buffer.write(CRLF);
+    }
+
+    // RFC 4180: linhas terminadas em CRLF; valores com vírgula, aspas ou quebra de linha vão entre aspas
+    private DataBuffer csvRow(final User user, final DataBufferFactory bufferFactory) {
+        final var buffer = bufferFactory.allocateBuffer(ROW_CAPACITY);
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                buffer.write((byte) ',');
+            }
+            final var value = value(user, columns.get(i));
+            if (value == null) {
+                continue;
+            }
+            if (needsQuotes(value)) {
+                buffer.write((byte) '"');
+                buffer.write(value.replace("\"", "\"\""), StandardCharsets.UTF_8);
+                buffer.write((byte) '"');
+            } else {
+                buffer.write(value, StandardCharsets.UTF_8);
+            }
+        }
+        return buffer.write(CRLF);
+    }
+
+    // Mesmo JSON do UserResponse: campos nulos ficam de fora
+    private DataBuffer jsonRow(final User user, final DataBufferFactory bufferFactory) {
+        final var buffer = bufferFactory.allocateBuffer(ROW_CAPACITY);
+        buffer.write((byte) '{');
+        boolean first = true;
+        for (final String column : columns) {
+            final var value = value(user, column);
+            if (value == null) {
+                continue;
+            }
+            if (!first) {
+                buffer.write((byte) ',');
+            }
+            buffer.write((byte) '"');
+            buffer.write(column, StandardCharsets.US_ASCII);
+            buffer.write((byte) '"');
+            buffer.write((byte) ':');
+            JsonDataBuffers.writeString(buffer, value);
+            first = false;
+        }
+        buffer.write((byte) '}');
+        return buffer.write((byte) '\n');
+    }
+
+    private static String value(final User user, final String column) {
+        return switch (column) {
+            case "id" -> user.getId();
+            case "name" -> user.getName();
+            default -> user.getEmail();
+        };
+    }
+
+    private static boolean needsQuotes(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // gzip aceito e sem q=0
+    private static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (final String coding : acceptEncoding.split(",")) {
+            final var parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package com.vinnilmg.webfluxcourse.controller.functional;
+
+import com.vinnilmg.webfluxcourse.controller.exception.ControllerExceptionHandler;
+import com.vinnilmg.webfluxcourse.controller.exception.StandardError;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.result.view.ViewResolver;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// O @ControllerAdvice não vale para RouterFunction: o UserHandler.resolveErrors cobre os erros do handler, e aqui os
+// mesmos erros conhecidos que só surgem ao escrever o corpo viram o mesmo StandardError.
+// Fica antes do DefaultErrorWebExceptionHandler (-1), que continua tratando o resto (400 de entrada, 500)
+@ConditionalOnProperty(prefix = "users.web", name = "mode", havingValue = "functional")
+@Order(-2)
+@Component
+public class UserErrorWebExceptionHandler implements WebExceptionHandler {
+
+    private final ControllerExceptionHandler exceptionHandler;
+    private final ServerResponse.Context context;
+
+    public UserErrorWebExceptionHandler(final ControllerExceptionHandler exceptionHandler,
+                                        final ServerCodecConfigurer codecConfigurer) {
+        this.exceptionHandler = exceptionHandler;
+        final List<HttpMessageWriter<?>> writers = codecConfigurer.getWriters();
+        this.context = new ServerResponse.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return writers;
+            }
+
+            @Override
+            public List<ViewResolver> viewResolvers() {
+                return List.of();
+            }
+        };
+    }
+
+    @Override
+    public Mono<Void> handle(final ServerWebExchange exchange, final Throwable ex) {
+        final var entity = exceptionHandler.resolve(ex, exchange.getRequest());
+        // Com a resposta já enviada (stream que falhou no meio) não há como trocar o status
+        if (entity == null || exchange.getResponse().isCommitted()) {
+            return Mono.error(ex);
+        }
+
+        return ServerResponse.status(entity.getStatusCode())
+                .headers(headers -> headers.addAll(entity.getHeaders()))
+                .body(entity.getBody(), StandardError.class)
+                .flatMap(response -> response.writeTo(exchange, context));
+    }
+}
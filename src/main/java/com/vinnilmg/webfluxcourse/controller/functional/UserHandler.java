@@ -0,0 +1,236 @@
+package com.vinnilmg.webfluxcourse.controller.functional;
+
+import com.vinnilmg.webfluxcourse.config.UserChangesProperties;
+import com.vinnilmg.webfluxcourse.controller.UserChangeEvents;
+import com.vinnilmg.webfluxcourse.controller.UserETag;
+import com.vinnilmg.webfluxcourse.controller.exception.ControllerExceptionHandler;
+import com.vinnilmg.webfluxcourse.controller.exception.StandardError;
+import com.vinnilmg.webfluxcourse.controller.export.UserExport;
+import com.vinnilmg.webfluxcourse.controller.exception.ValidationError;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.mapper.UserMapper;
+import com.vinnilmg.webfluxcourse.model.request.BulkDeleteRequest;
+import com.vinnilmg.webfluxcourse.model.request.BulkPatchRequest;
+import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.BatchItemResponse;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import com.vinnilmg.webfluxcourse.service.UserFields;
+import com.vinnilmg.webfluxcourse.service.UserService;
+import com.vinnilmg.webfluxcourse.service.UserServiceMetrics;
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+// Mesmo comportamento do UserControllerImpl, sem a resolução de @RequestParam/@RequestBody/ResponseEntity
+// por reflexão a cada requisição. Erros conhecidos viram resposta em resolveErrors; os que surgem ao escrever o corpo
+// seguem para o UserErrorWebExceptionHandler
+@ConditionalOnProperty(prefix = "users.web", name = "mode", havingValue = "functional")
+@Component
+public class UserHandler {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<UserResponse>> CHANGE_EVENT =
+            new ParameterizedTypeReference<>() { };
+
+    private final UserService service;
+    private final UserMapper mapper;
+    private final UserChangesProperties changesProperties;
+    private final ControllerExceptionHandler exceptionHandler;
+    private final UserServiceMetrics metrics;
+    private final SpringValidatorAdapter validator;
+
+    public UserHandler(final UserService service,
+                       final UserMapper mapper,
+                       final UserChangesProperties changesProperties,
+                       final ControllerExceptionHandler exceptionHandler,
+                       final UserServiceMetrics metrics,
+                       final Validator validator) {
+        this.service = service;
+        this.mapper = mapper;
+        this.changesProperties = changesProperties;
+        this.exceptionHandler = exceptionHandler;
+        this.metrics = metrics;
+        this.validator = new SpringValidatorAdapter(validator);
+    }
+
+    public Mono<ServerResponse> save(final ServerRequest request) {
+        return body(request, UserRequest.class)
+                .flatMap(user -> {
+                    // Mesmo @Valid do controller: erros de campo viram ValidationError e contam como validação do save
+                    final var errors = new BeanPropertyBindingResult(user, "userRequest");
+                    validator.validate(user, errors);
+                    if (errors.hasErrors()) {
+                        metrics.recordError("save", UserServiceMetrics.OUTCOME_VALIDATION);
+                        final var entity = exceptionHandler.validationError(errors, request.exchange().getRequest());
+                        return ServerResponse.status(entity.getStatusCode()).body(entity.getBody(), ValidationError.class);
+                    }
+                    if (!service.isWriteBehind()) {
+                        return service.save(user).then(ServerResponse.status(HttpStatus.CREATED).build());
+                    }
+                    return service.save(user)
+                            .flatMap(saved -> ServerResponse.accepted()
+                                    .location(URI.create("/users/" + saved.getId()))
+                                    .bodyValue(mapper.toResponse(saved)));
+                });
+    }
+
+    public Mono<ServerResponse> saveAll(final ServerRequest request) {
+        return ServerResponse.ok().body(service.saveAll(request.bodyToFlux(UserRequest.class)), BatchItemResponse.class);
+    }
+
+    // Com If-None-Match, consulta só a versão: se o cliente já tem a atual, responde 304 sem ler o documento
+    public Mono<ServerResponse> findById(final ServerRequest request) {
+        final var id = request.pathVariable("id");
+        final var fields = request.queryParam("fields").orElse(null);
+        final var ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return fetch(id, fields);
+        }
+        return service.findVersion(id)
+                .flatMap(version -> UserETag.noneMatchHits(ifNoneMatch, version)
+                        ? ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(UserETag.of(version)).build()
+                        : fetch(id, fields));
+    }
+
+    public Mono<ServerResponse> findAll(final ServerRequest request) {
+        final var limit = request.queryParam("limit").map(this::parseLimit).orElse(null);
+        final var after = request.queryParam("after").orElse(null);
+        final var fields = request.queryParam("fields").orElse(null);
+
+        return Mono.defer(() -> service.findPage(limit, after, UserFields.parse(fields)))
+                .map(page -> page.map(mapper::toResponse))
+                .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    // Os campos são validados antes de montar a resposta: depois dela, um 400 já não poderia ser enviado
+    public Mono<ServerResponse> findAllById(final ServerRequest request) {
+        final List<String> ids = request.queryParams().get("ids").stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .toList();
+
+        return Mono.fromCallable(() -> UserFields.parse(request.queryParam("fields").orElse(null)))
+                .flatMap(fields -> ServerResponse.ok()
+                        .body(service.findAllById(ids, fields).map(mapper::toResponse), UserResponse.class));
+    }
+
+    public Mono<ServerResponse> stream(final ServerRequest request) {
+        return Mono.fromCallable(() -> UserFields.parse(request.queryParam("fields").orElse(null)))
+                .flatMap(fields -> ServerResponse.ok()
+                        .body(service.findAll(fields).map(mapper::toResponse), UserResponse.class));
+    }
+
+    public Mono<ServerResponse> search(final ServerRequest request) {
+        final var limit = request.queryParam("limit").map(this::parseLimit).orElse(null);
+
+        return service.search(
+                        request.queryParam("mode").orElse(null),
+                        request.queryParam("q").orElse(null),
+                        limit,
+                        request.queryParam("after").orElse(null))
+                .map(page -> page.map(mapper::toResponse))
+                .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    public Mono<ServerResponse> export(final ServerRequest request) {
+        return Mono.fromCallable(() -> UserExport.of(
+                        request.queryParam("format").orElse("ndjson"),
+                        request.queryParam("fields").orElse(null),
+                        request.headers().firstHeader(HttpHeaders.ACCEPT_ENCODING)))
+                .flatMap(export -> ServerResponse.ok()
+                        .headers(headers -> headers.addAll(export.headers()))
+                        .body(BodyInserters.fromDataBuffers(export.body(
+                                service.findAll(export.projection()), request.exchange().getResponse().bufferFactory()))));
+    }
+
+    public Mono<ServerResponse> changes(final ServerRequest request) {
+        final var lastEventId = request.headers().firstHeader("Last-Event-ID");
+        return ServerResponse.ok().body(UserChangeEvents.of(
+                Flux.defer(() -> service.changes(lastEventId)), mapper, changesProperties.getHeartbeat()
+        ), CHANGE_EVENT);
+    }
+
+    public Mono<ServerResponse> update(final ServerRequest request) {
+        final var id = request.pathVariable("id");
+        final var ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+
+        return body(request, UserRequest.class)
+                .flatMap(user -> service.update(id, user, UserETag.expectedVersion(ifMatch)))
+                .flatMap(this::toResponse);
+    }
+
+    public Mono<ServerResponse> updateAll(final ServerRequest request) {
+        return ServerResponse.ok().body(
+                service.updateAll(request.bodyToFlux(BulkPatchRequest.class), ordered(request)), BatchItemResponse.class
+        );
+    }
+
+    public Mono<ServerResponse> delete(final ServerRequest request) {
+        return service.delete(request.pathVariable("id")).then(ServerResponse.ok().build());
+    }
+
+    public Mono<ServerResponse> deleteAll(final ServerRequest request) {
+        return ServerResponse.ok().body(
+                service.deleteAll(request.bodyToFlux(BulkDeleteRequest.class), ordered(request)), BatchItemResponse.class
+        );
+    }
+
+    // Filtro de todas as rotas: como o @ControllerAdvice, resolve os erros conhecidos dentro do handler, então a cadeia
+    // de WebFilter termina em ON_COMPLETE com o status certo (access log e limite adaptativo do RateLimitFilter)
+    public Mono<ServerResponse> resolveErrors(final ServerRequest request, final HandlerFunction<ServerResponse> next) {
+        return next.handle(request).onErrorResume(error -> {
+            final var entity = exceptionHandler.resolve(error, request.exchange().getRequest());
+            if (entity == null) {
+                return Mono.error(error);
+            }
+            return ServerResponse.status(entity.getStatusCode())
+                    .headers(headers -> headers.addAll(entity.getHeaders()))
+                    .body(entity.getBody(), StandardError.class);
+        });
+    }
+
+    private Mono<ServerResponse> fetch(final String id, final String fields) {
+        return Mono.defer(() -> service.findById(id, UserFields.parse(fields))).flatMap(this::toResponse);
+    }
+
+    private Mono<ServerResponse> toResponse(final User user) {
+        final var builder = ServerResponse.ok();
+        if (user.getVersion() != null) {
+            builder.eTag(UserETag.of(user.getVersion()));
+        }
+        return builder.bodyValue(mapper.toResponse(user));
+    }
+
+    // @RequestBody obrigatório: corpo ausente é 400, como no controller
+    private <T> Mono<T> body(final ServerRequest request, final Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("No request body")));
+    }
+
+    private Integer parseLimit(final String limit) {
+        try {
+            return Integer.valueOf(limit);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Type mismatch for 'limit': " + limit);
+        }
+    }
+
+    private boolean ordered(final ServerRequest request) {
+        return request.queryParam("ordered").map(Boolean::parseBoolean).orElse(false);
+    }
+}
@@ -0,0 +1,63 @@
+package com.vinnilmg.webfluxcourse.controller.functional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RequestPredicates.queryParam;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+// Mesmas rotas do UserController. A ordem importa: o primeiro predicado que casa atende, então as rotas
+// mais específicas (/batch, /changes, /export, /search, ?ids=, Accept de stream) vêm antes das genéricas
+@ConditionalOnProperty(prefix = "users.web", name = "mode", havingValue = "functional")
+@Configuration
+public class UserRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> userRoutes(final UserHandler handler) {
+        final RequestPredicate bulkBody = contentType(APPLICATION_JSON, APPLICATION_NDJSON);
+
+        return route()
+                .path("/users", users -> users
+                        .POST("/batch", bulkBody, handler::saveAll)
+                        .GET("/changes", UserRouter::acceptsEventStream, handler::changes)
+                        .GET("/export", handler::export)
+                        .GET("/search", handler::search)
+                        .GET("/{id}", handler::findById)
+                        .PATCH("/{id}", handler::update)
+                        .DELETE("/{id}", handler::delete)
+                        .POST(handler::save)
+                        .GET(queryParam("ids", ids -> true), handler::findAllById)
+                        .GET(UserRouter::acceptsStream, handler::stream)
+                        .GET(handler::findAll)
+                        .PATCH(bulkBody, handler::updateAll)
+                        .DELETE(bulkBody, handler::deleteAll))
+                .filter(handler::resolveErrors)
+                .build();
+    }
+
+    // Como o produces do @GetMapping: só Accept explícito de NDJSON/SSE vai para o stream; */* fica com a página
+    private static boolean acceptsStream(final ServerRequest request) {
+        return request.headers().accept().stream()
+                .anyMatch(type -> isExactly(type, APPLICATION_NDJSON) || isExactly(type, TEXT_EVENT_STREAM));
+    }
+
+    // Sem Accept, ou com */*, o /changes também atende (produces aceita qualquer tipo compatível)
+    private static boolean acceptsEventStream(final ServerRequest request) {
+        final var accept = request.headers().accept();
+        return accept.isEmpty() || accept.stream().anyMatch(type -> type.isCompatibleWith(TEXT_EVENT_STREAM));
+    }
+
+    private static boolean isExactly(final MediaType type, final MediaType expected) {
+        return type.getType().equals(expected.getType()) && type.getSubtype().equals(expected.getSubtype());
+    }
+}
@@ -1,64 +1,150 @@
 package com.vinnilmg.webfluxcourse.controller.impl;
 
+import com.vinnilmg.webfluxcourse.config.UserChangesProperties;
+import com.vinnilmg.webfluxcourse.controller.UserChangeEvents;
 import com.vinnilmg.webfluxcourse.controller.UserController;
+import com.vinnilmg.webfluxcourse.controller.UserETag;
+import com.vinnilmg.webfluxcourse.controller.export.UserExport;
+import com.vinnilmg.webfluxcourse.entity.User;
 import com.vinnilmg.webfluxcourse.mapper.UserMapper;
+import com.vinnilmg.webfluxcourse.model.request.BulkDeleteRequest;
+import com.vinnilmg.webfluxcourse.model.request.BulkPatchRequest;
 import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.BatchItemResponse;
+import com.vinnilmg.webfluxcourse.model.response.PageResponse;
 import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import com.vinnilmg.webfluxcourse.service.UserFields;
 import com.vinnilmg.webfluxcourse.service.UserService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-@Slf4j
+import java.net.URI;
+import java.util.List;
+
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "users.web", name = "mode", havingValue = "annotated", matchIfMissing = true)
 @RestController
 @RequestMapping(value = "/users")
 public class UserControllerImpl implements UserController {
 
     private final UserService service;
     private final UserMapper mapper;
+    private final UserChangesProperties changesProperties;
+
+    // Em modo write-behind o usuário ainda está só no log local: 202 com o id já definido e o Location dele
+    @Override
+    public Mono<ResponseEntity<UserResponse>> save(final UserRequest request) {
+        if (!service.isWriteBehind()) {
+            return service.save(request).thenReturn(ResponseEntity.status(HttpStatus.CREATED).build());
+        }
+        return service.save(request)
+                .map(user -> ResponseEntity.accepted()
+                        .location(URI.create("/users/" + user.getId()))
+                        .body(mapper.toResponse(user)));
+    }
+
+    @Override
+    public ResponseEntity<Flux<BatchItemResponse>> saveAll(final Flux<UserRequest> requests) {
+        return ResponseEntity.ok().body(service.saveAll(requests));
+    }
+
+    // Com If-None-Match, consulta só a versão: se o cliente já tem a atual, responde 304 sem ler o documento
+    @Override
+    public Mono<ResponseEntity<UserResponse>> findById(String id, String fields, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return fetch(id, fields);
+        }
+        return service.findVersion(id)
+                .flatMap(version -> UserETag.noneMatchHits(ifNoneMatch, version)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(UserETag.of(version)).build())
+                        : fetch(id, fields));
+    }
 
     @Override
-    public ResponseEntity<Mono<Void>> save(final UserRequest request) {
-        log.info("Iniciando save()");
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(service.save(request).then());
+    public ResponseEntity<Mono<PageResponse<UserResponse>>> findAll(Integer limit, String after, String fields) {
+        return ResponseEntity.ok().body(
+                Mono.defer(() -> service.findPage(limit, after, UserFields.parse(fields)))
+                        .map(page -> page.map(mapper::toResponse))
+        );
     }
 
     @Override
-    public ResponseEntity<Mono<UserResponse>> findById(String id) {
-        log.info("Iniciando findById()");
+    public ResponseEntity<Flux<UserResponse>> findAllById(List<String> ids, String fields) {
         return ResponseEntity.ok().body(
-                service.findById(id).map(mapper::toResponse)
+                Flux.defer(() -> service.findAllById(ids, UserFields.parse(fields))).map(mapper::toResponse)
         );
     }
 
     @Override
-    public ResponseEntity<Flux<UserResponse>> findAll() {
-        log.info("Iniciando findAll()");
+    public ResponseEntity<Flux<UserResponse>> stream(String fields) {
         return ResponseEntity.ok().body(
-                service.findAll().map(mapper::toResponse)
+                Flux.defer(() -> service.findAll(UserFields.parse(fields))).map(mapper::toResponse)
         );
     }
 
     @Override
-    public ResponseEntity<Mono<UserResponse>> update(String id, UserRequest request) {
-        log.info("Iniciando update()");
+    public ResponseEntity<Mono<PageResponse<UserResponse>>> search(String mode, String q, Integer limit, String after) {
         return ResponseEntity.ok().body(
-                service.update(id, request).map(mapper::toResponse)
+                service.search(mode, q, limit, after).map(page -> page.map(mapper::toResponse))
         );
     }
 
+    @Override
+    public ResponseEntity<Flux<DataBuffer>> export(String format, String fields, String acceptEncoding, ServerHttpResponse response) {
+        final var export = UserExport.of(format, fields, acceptEncoding);
+        return ResponseEntity.ok()
+                .headers(export.headers())
+                .body(export.body(service.findAll(export.projection()), response.bufferFactory()));
+    }
+
+    @Override
+    public ResponseEntity<Flux<ServerSentEvent<UserResponse>>> changes(String lastEventId) {
+        return ResponseEntity.ok().body(UserChangeEvents.of(
+                Flux.defer(() -> service.changes(lastEventId)), mapper, changesProperties.getHeartbeat()
+        ));
+    }
+
+    @Override
+    public Mono<ResponseEntity<UserResponse>> update(String id, String ifMatch, UserRequest request) {
+        return Mono.defer(() -> service.update(id, request, UserETag.expectedVersion(ifMatch)))
+                .map(this::toResponseEntity);
+    }
+
+    @Override
+    public ResponseEntity<Flux<BatchItemResponse>> updateAll(final Flux<BulkPatchRequest> requests, final boolean ordered) {
+        return ResponseEntity.ok().body(service.updateAll(requests, ordered));
+    }
+
     @Override
     public ResponseEntity<Mono<Void>> delete(String id) {
-        log.info("Iniciando delete()");
         return ResponseEntity.ok().body(
                 service.delete(id).then());
     }
 
+    @Override
+    public ResponseEntity<Flux<BatchItemResponse>> deleteAll(final Flux<BulkDeleteRequest> requests, final boolean ordered) {
+        return ResponseEntity.ok().body(service.deleteAll(requests, ordered));
+    }
+
+    private Mono<ResponseEntity<UserResponse>> fetch(final String id, final String fields) {
+        return Mono.defer(() -> service.findById(id, UserFields.parse(fields))).map(this::toResponseEntity);
+    }
+
+    private ResponseEntity<UserResponse> toResponseEntity(final User user) {
+        final var builder = ResponseEntity.ok();
+        if (user.getVersion() != null) {
+            builder.eTag(UserETag.of(user.getVersion()));
+        }
+        return builder.body(mapper.toResponse(user));
+    }
+
 }
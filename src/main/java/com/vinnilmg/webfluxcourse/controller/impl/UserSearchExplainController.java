@@ -0,0 +1,33 @@
+package com.vinnilmg.webfluxcourse.controller.impl;
+
+import com.vinnilmg.webfluxcourse.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Só existe com users.search.explain=true (depuração): mostra índices usados, chaves e documentos examinados
+// da mesma consulta que o GET /users/search faria. Vale nos dois modos de users.web.mode
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "users.search", name = "explain", havingValue = "true")
+@RestController
+@RequestMapping(value = "/users/search/explain")
+public class UserSearchExplainController {
+
+    private final UserService service;
+
+    @GetMapping
+    public Mono<Map<String, Object>> explain(
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after
+    ) {
+        return service.explainSearch(mode, q, limit, after);
+    }
+}
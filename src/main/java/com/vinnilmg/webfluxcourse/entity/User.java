@@ -3,19 +3,36 @@ package com.vinnilmg.webfluxcourse.entity;
 import lombok.Builder;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
 @Builder
-@Document
+// language none: o índice de texto só separa palavras, sem stemming nem stop words (nomes próprios)
+@Document(language = "none")
+// Cobre a listagem paginada por _id: com a projeção sem password, o Mongo responde só pelo índice, sem ler os documentos
+@CompoundIndex(name = "users_listing", def = "{'_id': 1, 'name': 1, 'email': 1, 'version': 1}")
+// Busca por prefixo (GET /users/search). A collation do índice é a mesma das consultas: e-mail sem diferenciar
+// maiúsculas (strength 2); nome sem diferenciar maiúsculas nem acentos (strength 1). O _id desempata o keyset
+@CompoundIndex(name = "users_email_search", def = "{'email': 1, '_id': 1}", collation = "{'locale': 'en', 'strength': 2}")
+@CompoundIndex(name = "users_name_search", def = "{'name': 1, '_id': 1}", collation = "{'locale': 'en', 'strength': 1}")
 public class User {
 
     @Id
     private String id;
+
+    @TextIndexed(weight = 3)
     private String name;
 
     @Indexed(unique = true)
+    @TextIndexed
     private String email;
     private String password;
+
+    // Controle de concorrência otimista e base do ETag
+    @Version
+    private Long version;
 }
@@ -0,0 +1,138 @@
+package com.vinnilmg.webfluxcourse.filter;
+
+import com.vinnilmg.webfluxcourse.config.AccessLogProperties;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Access log estruturado de todas as requisições. O logger ACCESS_LOG usa um AsyncAppender
+// com fila limitada (logback-spring.xml), então o event loop nunca espera por I/O de log.
+// Roda antes do RateLimitFilter, para registrar também as requisições recusadas com 429.
+@RequiredArgsConstructor
+@Order(0)
+@Component
+public class AccessLogFilter implements WebFilter {
+
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
+    public static final String CORRELATION_ID_ATTRIBUTE = AccessLogFilter.class.getName() + ".correlationId";
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS_LOG");
+
+    private final AccessLogProperties properties;
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        final long start = System.nanoTime();
+        final var correlationId = resolveCorrelationId(exchange);
+        exchange.getAttributes().put(CORRELATION_ID_ATTRIBUTE, correlationId);
+        exchange.getResponse().getHeaders().set(CORRELATION_ID_HEADER, correlationId);
+
+        final var response = new CountingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(response).build())
+                .doOnSuccess(done -> log(exchange, response, correlationId, statusOf(response), false, start))
+                .doOnError(error -> log(exchange, response, correlationId, statusOf(response, error), true, start))
+                // 499: cliente desconectou antes da resposta terminar
+                .doOnCancel(() -> log(exchange, response, correlationId, 499, false, start));
+    }
+
+    // Erro sempre vai para o log, mesmo com status 2xx (stream que falhou depois de começar a responder)
+    private void log(
+            final ServerWebExchange exchange,
+            final CountingResponse response,
+            final String correlationId,
+            final int status,
+            final boolean failed,
+            final long start
+    ) {
+        if (!(failed || shouldLog(status)) || !ACCESS_LOG.isInfoEnabled()) {
+            return;
+        }
+        final long latencyNanos = System.nanoTime() - start;
+
+        final var request = exchange.getRequest();
+        ACCESS_LOG.info("method={} path={} status={} latency_us={} bytes={} correlation_id={}",
+                request.getMethod(),
+                request.getPath().value(),
+                status,
+                latencyNanos / 1_000,
+                response.bytes(),
+                correlationId);
+    }
+
+    private int statusOf(final ServerHttpResponse response) {
+        return response.getStatusCode() == null ? 200 : response.getStatusCode().value();
+    }
+
+    // Erro que sai da cadeia de filtros ainda sem resposta é resolvido depois, por um WebExceptionHandler
+    // (400/415 do WebFlux, rotas funcionais): o status é o da exceção, ou 500 para o que ninguém conhece
+    private int statusOf(final ServerHttpResponse response, final Throwable error) {
+        if (response.isCommitted()) {
+            return statusOf(response);
+        }
+        if (error instanceof ErrorResponse errorResponse) {
+            return errorResponse.getStatusCode().value();
+        }
+        return 500;
+    }
+
+    private boolean shouldLog(final int status) {
+        if (status < 200 || status >= 300) {
+            return true;
+        }
+        final double rate = properties.getSuccessSampleRate();
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private String resolveCorrelationId(final ServerWebExchange exchange) {
+        final var received = exchange.getRequest().getHeaders().getFirst(CORRELATION_ID_HEADER);
+        return received == null || received.isBlank() ? UUID.randomUUID().toString() : received;
+    }
+
+    // Conta os bytes escritos no corpo, inclusive em respostas em streaming (NDJSON/SSE)
+    private static final class CountingResponse extends ServerHttpResponseDecorator {
+
+        private final LongAdder bytes = new LongAdder();
+
+        private CountingResponse(final ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(final Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(final Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(chunk -> Flux.from(chunk).doOnNext(this::count)));
+        }
+
+        private void count(final DataBuffer buffer) {
+            bytes.add(buffer.readableByteCount());
+        }
+
+        private long bytes() {
+            return bytes.sum();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.vinnilmg.webfluxcourse.filter;
+
+import com.vinnilmg.webfluxcourse.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Limite de requisições simultâneas em AIMD: cada resposta rápida soma 1/limite (cerca de +1 por janela cheia);
+// cada sinal de sobrecarga multiplica o limite por backoff-ratio. Contadores atômicos, sem lock.
+class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // double guardado como bits para poder usar CAS
+    private final AtomicLong limit;
+
+    AdaptiveConcurrencyLimit(final ConcurrencyLimitProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.limit = new AtomicLong(Double.doubleToLongBits(properties.getInitialLimit()));
+    }
+
+    // Quantas requisições já estavam em andamento, ou -1 quando o limite foi atingido
+    int tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= (int) limit()) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    // inFlightAtStart evita crescer o limite quando ele nem estava sendo usado
+    void release(final int inFlightAtStart, final long latencyNanos, final boolean overloaded) {
+        inFlight.decrementAndGet();
+
+        if (overloaded || latencyNanos > latencyThresholdNanos) {
+            limit.updateAndGet(bits -> Double.doubleToLongBits(
+                    Math.max(minLimit, Double.longBitsToDouble(bits) * backoffRatio)));
+        } else if (inFlightAtStart * 2 >= (int) limit()) {
+            limit.updateAndGet(bits -> {
+                final double value = Double.longBitsToDouble(bits);
+                return Double.doubleToLongBits(Math.min(maxLimit, value + 1 / value));
+            });
+        }
+    }
+
+    // Requisição que não serve de amostra (stream longo, erro, cancelamento): só libera a vaga
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    double limit() {
+        return Double.longBitsToDouble(limit.get());
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
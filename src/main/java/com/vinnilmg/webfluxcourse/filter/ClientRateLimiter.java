@@ -0,0 +1,45 @@
+package com.vinnilmg.webfluxcourse.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vinnilmg.webfluxcourse.config.RateLimitProperties;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket por cliente na forma GCRA: o estado de cada cliente é um único long (o instante teórico da
+// próxima chegada), atualizado por CAS. Sem lock e sem thread de reposição de tokens.
+// O Caffeine guarda os clientes com limite de tamanho e expira os inativos.
+class ClientRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> clients;
+
+    ClientRateLimiter(final RateLimitProperties properties) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / properties.getRequestsPerSecond());
+        this.burstNanos = emissionIntervalNanos * Math.max(1, properties.getBurst());
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getClientIdleTimeout())
+                .build();
+    }
+
+    // 0 quando a requisição pode seguir; senão, quantos nanossegundos até o próximo token
+    long tryAcquire(final String client) {
+        final long now = System.nanoTime();
+        // Cliente novo começa com o balde cheio
+        final AtomicLong arrival = clients.get(client, key -> new AtomicLong(now));
+
+        while (true) {
+            final long current = arrival.get();
+            final long next = Math.max(current, now) + emissionIntervalNanos;
+            final long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.vinnilmg.webfluxcourse.filter;
+
+import com.vinnilmg.webfluxcourse.config.ConcurrencyLimitProperties;
+import com.vinnilmg.webfluxcourse.config.RateLimitProperties;
+import com.vinnilmg.webfluxcourse.controller.exception.StandardError;
+import com.vinnilmg.webfluxcourse.controller.exception.StandardErrorEncoder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Controle de admissão do /users, antes do controller: primeiro a taxa por cliente (token bucket), depois
+// o limite adaptativo de requisições simultâneas por rota. Recusa com 429 e Retry-After, sem chegar no Mongo.
+// Roda depois do AccessLogFilter, então as recusas também aparecem no access log.
+@Order(Ordered.LOWEST_PRECEDENCE)
+@Component
+public class RateLimitFilter implements WebFilter {
+
+    private static final String USERS = "/users";
+    private static final Set<HttpMethod> METHODS = Set.of(
+            HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE
+    );
+    // Limite do header de cliente: valores maiores caem no IP, para não inflar o cache de clientes
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
+    private static final Set<String> LITERAL_ROUTES = Set.of("batch", "changes", "export", "search", "search/explain");
+    private static final String REASON_RATE = "rate_limit";
+    private static final String REASON_CONCURRENCY = "concurrency";
+
+    private final RateLimitProperties rateLimitProperties;
+    private final ConcurrencyLimitProperties concurrencyProperties;
+    private final MeterRegistry meterRegistry;
+    private final ClientRateLimiter rateLimiter;
+    private final Map<String, AdaptiveConcurrencyLimit> routes = new ConcurrentHashMap<>();
+    private final StandardErrorEncoder encoder = new StandardErrorEncoder();
+
+    public RateLimitFilter(final RateLimitProperties rateLimitProperties,
+                           final ConcurrencyLimitProperties concurrencyProperties,
+                           final MeterRegistry meterRegistry) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.concurrencyProperties = concurrencyProperties;
+        this.meterRegistry = meterRegistry;
+        this.rateLimiter = new ClientRateLimiter(rateLimitProperties);
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        final var request = exchange.getRequest();
+        final var path = request.getPath().pathWithinApplication().value();
+        if (!path.equals(USERS) && !path.startsWith(USERS + "/")) {
+            return chain.filter(exchange);
+        }
+
+        final var route = route(request.getMethod(), path);
+
+        if (rateLimitProperties.isEnabled()) {
+            final long waitNanos = rateLimiter.tryAcquire(clientId(request));
+            if (waitNanos > 0) {
+                return reject(exchange, route, REASON_RATE, "Too many requests", retryAfterSeconds(waitNanos));
+            }
+        }
+
+        // O /changes fica aberto enquanto o cliente ouvir: ocuparia uma vaga indefinidamente
+        if (!concurrencyProperties.isEnabled() || path.equals(USERS + "/changes")) {
+            return chain.filter(exchange);
+        }
+
+        final var limit = routes.computeIfAbsent(route, this::newLimit);
+        final int inFlightAtStart = limit.tryAcquire();
+        if (inFlightAtStart < 0) {
+            return reject(exchange, route, REASON_CONCURRENCY, "Too many concurrent requests", 1);
+        }
+
+        final long start = System.nanoTime();
+        final boolean streaming = isStreaming(request) || path.equals(USERS + "/export");
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    // Streams duram o quanto o cliente consome; erro e cancelamento não medem a capacidade da rota
+                    if (signal != SignalType.ON_COMPLETE || streaming) {
+                        limit.release();
+                        return;
+                    }
+                    final var status = exchange.getResponse().getStatusCode();
+                    final boolean overloaded = status != null && (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                            || status.value() == HttpStatus.GATEWAY_TIMEOUT.value());
+                    limit.release(inFlightAtStart, System.nanoTime() - start, overloaded);
+                });
+    }
+
+    private AdaptiveConcurrencyLimit newLimit(final String route) {
+        final var limit = new AdaptiveConcurrencyLimit(concurrencyProperties);
+        Gauge.builder("users.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .tag("route", route)
+                .register(meterRegistry);
+        Gauge.builder("users.concurrency.in_flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .tag("route", route)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    private Mono<Void> reject(final ServerWebExchange exchange,
+                              final String route,
+                              final String reason,
+                              final String message,
+                              final long retryAfterSeconds) {
+        meterRegistry.counter("users.admission.rejected", "route", route, "reason", reason).increment();
+
+        final var response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        final var error = new StandardError(
+                LocalDateTime.now(),
+                exchange.getRequest().getPath().value(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                message
+        );
+        return response.writeWith(Mono.fromSupplier(() -> encoder.encodeValue(
+                error, response.bufferFactory(), ResolvableType.forClass(StandardError.class), MediaType.APPLICATION_JSON, null
+        )));
+    }
+
+    private String clientId(final ServerHttpRequest request) {
+        final var address = request.getRemoteAddress();
+        final var remote = address == null || address.getAddress() == null ? "unknown" : address.getAddress().getHostAddress();
+
+        final var header = rateLimitProperties.getClientIdHeader();
+        if (header != null && !header.isBlank() && rateLimitProperties.getTrustedProxies().contains(remote)) {
+            final var clientId = request.getHeaders().getFirst(header);
+            if (clientId != null && !clientId.isBlank() && clientId.length() <= MAX_CLIENT_ID_LENGTH) {
+                return clientId;
+            }
+        }
+        return remote;
+    }
+
+    // Rota no formato do mapeamento (GET /users/{id}): poucas chaves, servem de tag de métrica
+    private static String route(final HttpMethod method, final String path) {
+        final var name = METHODS.contains(method) ? method.name() : "OTHER";
+        if (path.equals(USERS) || path.equals(USERS + "/")) {
+            return name + " " + USERS;
+        }
+        final var segment = path.substring(USERS.length() + 1);
+        if (LITERAL_ROUTES.contains(segment)) {
+            return name + " " + path;
+        }
+        return name + " " + USERS + "/{id}";
+    }
+
+    private static boolean isStreaming(final ServerHttpRequest request) {
+        return request.getHeaders().getAccept().stream().anyMatch(type ->
+                MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(type) || MediaType.TEXT_EVENT_STREAM.equalsTypeAndSubtype(type));
+    }
+
+    private static long retryAfterSeconds(final long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+}
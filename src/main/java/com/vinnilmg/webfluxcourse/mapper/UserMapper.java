@@ -18,9 +18,11 @@ import static org.mapstruct.NullValuePropertyMappingStrategy.IGNORE;
 public interface UserMapper {
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     User toEntity(final UserRequest request);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     User toEntity(final UserRequest request, @MappingTarget final User entity);
 
     UserResponse toResponse(final User entity);
@@ -0,0 +1,5 @@
+package com.vinnilmg.webfluxcourse.model.request;
+
+public record BulkDeleteRequest(
+        String id
+) { }
@@ -0,0 +1,7 @@
+package com.vinnilmg.webfluxcourse.model.request;
+
+// Um item do PATCH em massa: o usuário e os campos a alterar, como no PATCH de um único usuário
+public record BulkPatchRequest(
+        String id,
+        UserRequest changes
+) { }
@@ -0,0 +1,8 @@
+package com.vinnilmg.webfluxcourse.model.response;
+
+public record BatchItemResponse(
+        Long index,
+        String id,
+        Integer status,
+        String message
+) { }
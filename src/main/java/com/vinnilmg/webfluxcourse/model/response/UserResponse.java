@@ -1,8 +1,13 @@
 package com.vinnilmg.webfluxcourse.model.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+// Campos fora do 'fields' pedido chegam nulos e ficam fora do JSON
+@JsonInclude(NON_NULL)
 public record UserResponse(
         String id,
         String name,
-        String email,
-        String password
+        String email
 ) { }
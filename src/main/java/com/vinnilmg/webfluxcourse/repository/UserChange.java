@@ -0,0 +1,10 @@
+package com.vinnilmg.webfluxcourse.repository;
+
+import com.vinnilmg.webfluxcourse.entity.User;
+
+// Um evento do change stream da coleção de usuários. 'token' retoma o stream logo depois deste evento;
+// 'user' é o documento atual sem password, ausente em DELETE
+public record UserChange(String token, Type type, String id, User user) {
+
+    public enum Type { INSERT, UPDATE, DELETE }
+}
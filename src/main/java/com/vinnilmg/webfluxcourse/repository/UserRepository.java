@@ -1,36 +1,69 @@
 package com.vinnilmg.webfluxcourse.repository;
 
 import com.vinnilmg.webfluxcourse.entity.User;
-import lombok.RequiredArgsConstructor;
-import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-@RequiredArgsConstructor
-@Repository
-public class UserRepository {
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-    private final ReactiveMongoTemplate mongoTemplate;
+// Nas leituras, 'fields' são as propriedades projetadas além de id e version; password nunca é lida
+public interface UserRepository {
 
-    public Mono<User> save(final User user) {
-        return mongoTemplate.save(user);
-    }
+    Mono<User> save(final User user);
 
-    public Mono<User> findById(String id) {
-        return mongoTemplate.findById(id, User.class);
-    }
+    // Retorna as falhas indexadas pela posição do usuário na lista recebida; um _id já existente também é
+    // DUPLICATE_KEY, nunca sobrescreve o documento
+    Mono<Map<Integer, WriteFailure>> insertMany(final List<User> users);
 
-    public Flux<User> findAll() {
-        return mongoTemplate.findAll(User.class);
-    }
+    Mono<User> findById(String id, Set<String> fields);
 
-    public Mono<User> findAndRemove(String id) {
-        Query query = new Query();
-        Criteria where = Criteria.where("id").is(id);
+    // Uma única consulta $in; ids inexistentes simplesmente não aparecem no resultado
+    Flux<User> findAllById(final Collection<String> ids, final Set<String> fields);
+
+    // Lê apenas o campo version, sem trazer o documento inteiro
+    Mono<Long> findVersionById(String id);
+
+    Flux<User> findAll(final Set<String> fields);
+
+    Flux<User> findPage(final String afterId, final int limit, final Set<String> fields);
+
+    // Busca paginada com limit já aplicado; cada modo usa o próprio índice (nunca varre a coleção).
+    // Projeta name e email: são as chaves do keyset
+    Flux<User> search(final UserSearch search);
+
+    // Plano de execução da mesma consulta do search, para conferir o uso de índice
+    Mono<Map<String, Object>> explainSearch(final UserSearch search);
+
+    // Todos os e-mails cadastrados, para carregar o filtro de e-mails
+    Flux<String> findAllEmails();
+
+    // Dos e-mails recebidos, os que já pertencem a algum usuário
+    Flux<String> findExistingEmails(final Collection<String> emails);
+
+    // excludingId ignora o próprio usuário em uma troca de e-mail
+    Mono<Boolean> existsByEmail(final String email, final String excludingId);
+
+    // Aplica em uma única operação atômica os campos não nulos de 'changes' e devolve o documento novo, sem password.
+    // Com expectedVersion, só altera se a versão casar; vazio quando nada casou.
+    Mono<User> updateFields(final String id, final User changes, final Long expectedVersion);
+
+    Mono<User> findAndRemove(String id);
+
+    // Um bloco de deletes/updates em um único bulkWrite; as falhas vêm indexadas pela posição na lista.
+    // Com ordered, nada depois da primeira falha é aplicado
+    Mono<Map<Integer, WriteFailure>> deleteAllById(final List<String> ids, final boolean ordered);
+
+    // Cada 'changes' traz o id do usuário e apenas os campos a alterar
+    Mono<Map<Integer, WriteFailure>> updateAllFields(final List<User> changes, final boolean ordered);
+
+    // Stream de alterações da coleção. Sem token começa no momento da inscrição; com o token de um evento
+    // anterior, retoma logo depois dele (InvalidResumeTokenException se não puder mais ser retomado)
+    Flux<UserChange> watch(final String resumeToken);
+
+    // Documentos anteriores ao @Version não têm o campo; sem ele o save tentaria um insert
+    Mono<Long> initializeMissingVersions();
 
-        return mongoTemplate.findAndRemove(query.addCriteria(where), User.class);
-    }
 }
@@ -0,0 +1,15 @@
+package com.vinnilmg.webfluxcourse.repository;
+
+// Uma página de GET /users/search. Nos modos por prefixo a continuação é keyset (afterKey = e-mail ou nome e
+// afterId do último item); no texto, que ordena por relevância, é skip, limitado pelo serviço
+public record UserSearch(
+        Mode mode,
+        String term,
+        String afterKey,
+        String afterId,
+        int skip,
+        int limit
+) {
+
+    public enum Mode { EMAIL, NAME, TEXT }
+}
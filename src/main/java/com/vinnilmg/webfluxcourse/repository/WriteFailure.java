@@ -0,0 +1,13 @@
+package com.vinnilmg.webfluxcourse.repository;
+
+// Falha de um documento numa escrita em lote: 'code' é o código de erro do Mongo (o do BulkWriteError),
+// 'message' o texto do servidor, só para exibição; decisões usam o código, nunca a mensagem
+public record WriteFailure(int code, String message) {
+
+    // E11000: violação de índice único, seja o _id ou o e-mail
+    public static final int DUPLICATE_KEY = 11000;
+
+    public boolean isDuplicateKey() {
+        return code == DUPLICATE_KEY;
+    }
+}
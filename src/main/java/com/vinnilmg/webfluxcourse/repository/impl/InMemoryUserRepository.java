@@ -0,0 +1,360 @@
+package com.vinnilmg.webfluxcourse.repository.impl;
+
+import com.vinnilmg.webfluxcourse.config.InMemoryRepositoryProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.UserChange;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import com.vinnilmg.webfluxcourse.repository.UserSearch;
+import com.vinnilmg.webfluxcourse.repository.WriteFailure;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidResumeTokenException;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Substituto do Mongo para testes de carga e benchmarks: mantém a ordenação por id,
+// o índice único de e-mail, um change stream retomável e uma latência configurável por operação
+@Profile("loadtest")
+@Repository
+public class InMemoryUserRepository implements UserRepository {
+
+    private final ConcurrentNavigableMap<String, User> users = new ConcurrentSkipListMap<>();
+    private final Map<String, String> emails = new ConcurrentHashMap<>();
+
+    private final InMemoryRepositoryProperties properties;
+
+    // Histórico limitado dos eventos, reentregue a cada inscrição e filtrado pela sequência do token
+    private final Sinks.Many<SequencedChange> changes;
+    private long sequence;
+
+    public InMemoryUserRepository(final InMemoryRepositoryProperties properties) {
+        this.properties = properties;
+        this.changes = Sinks.many().replay().limit(properties.getChangeHistory());
+    }
+
+    @Override
+    public Mono<User> save(final User user) {
+        return withLatency(Mono.fromCallable(() -> store(user)));
+    }
+
+    @Override
+    public Mono<Map<Integer, WriteFailure>> insertMany(final List<User> batch) {
+        return withLatency(Mono.fromCallable(() -> {
+            final Map<Integer, WriteFailure> failures = new HashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    insert(batch.get(i));
+                } catch (DuplicateKeyException e) {
+                    failures.put(i, new WriteFailure(WriteFailure.DUPLICATE_KEY, e.getMessage()));
+                }
+            }
+            return failures;
+        }));
+    }
+
+    @Override
+    public Mono<User> findById(final String id, final Set<String> fields) {
+        return withLatency(Mono.fromCallable(() -> project(users.get(id), fields)));
+    }
+
+    @Override
+    public Flux<User> findAllById(final Collection<String> ids, final Set<String> fields) {
+        return withLatency(Flux.fromIterable(ids)
+                .mapNotNull(users::get)
+                .map(user -> project(user, fields)));
+    }
+
+    @Override
+    public Mono<Long> findVersionById(final String id) {
+        return withLatency(Mono.fromCallable(() -> {
+            final var user = users.get(id);
+            return user == null ? null : user.getVersion();
+        }));
+    }
+
+    @Override
+    public Flux<User> findAll(final Set<String> fields) {
+        return withLatency(Flux.fromIterable(users.values()).map(user -> project(user, fields)));
+    }
+
+    @Override
+    public Flux<User> findPage(final String afterId, final int limit, final Set<String> fields) {
+        final var range = afterId == null ? users : users.tailMap(afterId, false);
+        return withLatency(Flux.fromIterable(range.values()).take(limit).map(user -> project(user, fields)));
+    }
+
+    // Varre o mapa: aqui não há índices. Mesmas regras do Mongo: prefixo sem diferenciar maiúsculas (e acentos,
+    // no nome), ordenado pela chave e pelo id; texto por palavras inteiras, ordenado por relevância
+    @Override
+    public Flux<User> search(final UserSearch search) {
+        return withLatency(Flux.defer(() -> {
+            if (search.mode() == UserSearch.Mode.TEXT) {
+                final var terms = words(search.term());
+                return Flux.fromStream(users.values().stream()
+                        .filter(user -> textScore(user, terms) > 0)
+                        .sorted(Comparator.comparingInt((User user) -> textScore(user, terms)).reversed()
+                                .thenComparing(User::getId)));
+            }
+
+            final boolean email = search.mode() == UserSearch.Mode.EMAIL;
+            final Function<User, String> key = email ? User::getEmail : User::getName;
+            final var collator = Collator.getInstance(Locale.ENGLISH);
+            collator.setStrength(email ? Collator.SECONDARY : Collator.PRIMARY);
+            final Comparator<User> order = Comparator.comparing(key, collator).thenComparing(User::getId);
+            final var prefix = normalize(search.term(), !email);
+
+            return Flux.fromStream(users.values().stream()
+                    .filter(user -> key.apply(user) != null && normalize(key.apply(user), !email).startsWith(prefix))
+                    .filter(user -> search.afterKey() == null || order.compare(user, User.builder()
+                            .id(search.afterId()).name(search.afterKey()).email(search.afterKey()).build()) > 0)
+                    .sorted(order));
+        }).skip(search.skip()).take(search.limit()).map(user -> project(user, Set.of("name", "email"))));
+    }
+
+    @Override
+    public Mono<Map<String, Object>> explainSearch(final UserSearch search) {
+        return Mono.just(Map.of("indexes", List.of(), "collectionScan", true, "engine", "in-memory"));
+    }
+
+    @Override
+    public Flux<String> findAllEmails() {
+        return withLatency(Flux.fromIterable(emails.keySet()));
+    }
+
+    @Override
+    public Flux<String> findExistingEmails(final Collection<String> candidates) {
+        return withLatency(Flux.fromIterable(candidates).filter(emails::containsKey));
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(final String email, final String excludingId) {
+        return withLatency(Mono.fromCallable(() -> {
+            final var owner = emails.get(email);
+            return owner != null && !owner.equals(excludingId);
+        }));
+    }
+
+    @Override
+    public Mono<User> updateFields(final String id, final User changes, final Long expectedVersion) {
+        return withLatency(Mono.fromCallable(() -> {
+            final var updated = apply(id, changes, expectedVersion);
+            return updated == null ? null : project(updated, Set.of("name", "email"));
+        }));
+    }
+
+    @Override
+    public Mono<User> findAndRemove(final String id) {
+        return withLatency(Mono.fromCallable(() -> remove(id)));
+    }
+
+    @Override
+    public Mono<Map<Integer, WriteFailure>> deleteAllById(final List<String> ids, final boolean ordered) {
+        return withLatency(Mono.fromCallable(() -> {
+            ids.forEach(this::remove);
+            return Map.of();
+        }));
+    }
+
+    @Override
+    public Mono<Map<Integer, WriteFailure>> updateAllFields(final List<User> changes, final boolean ordered) {
+        return withLatency(Mono.fromCallable(() -> {
+            final Map<Integer, WriteFailure> failures = new HashMap<>();
+            for (int i = 0; i < changes.size(); i++) {
+                try {
+                    apply(changes.get(i).getId(), changes.get(i), null);
+                } catch (DuplicateKeyException e) {
+                    failures.put(i, new WriteFailure(WriteFailure.DUPLICATE_KEY, e.getMessage()));
+                    if (ordered) {
+                        break;
+                    }
+                }
+            }
+            return failures;
+        }));
+    }
+
+    @Override
+    public Flux<UserChange> watch(final String resumeToken) {
+        return Flux.defer(() -> {
+            final long after = resumeAfter(resumeToken);
+            return changes.asFlux()
+                    .filter(change -> change.sequence() > after)
+                    .map(SequencedChange::change);
+        });
+    }
+
+    @Override
+    public Mono<Long> initializeMissingVersions() {
+        return Mono.just(0L);
+    }
+
+    private synchronized User apply(final String id, final User changes, final Long expectedVersion) {
+        final var current = users.get(id);
+        if (current == null || (expectedVersion != null && !expectedVersion.equals(current.getVersion()))) {
+            return null;
+        }
+
+        final var merged = copy(current);
+        if (changes.getName() != null) {
+            merged.setName(changes.getName());
+        }
+        if (changes.getEmail() != null) {
+            merged.setEmail(changes.getEmail());
+        }
+        if (changes.getPassword() != null) {
+            merged.setPassword(changes.getPassword());
+        }
+        return store(merged);
+    }
+
+    private synchronized User remove(final String id) {
+        final var removed = users.remove(id);
+        if (removed != null) {
+            emails.remove(removed.getEmail(), id);
+            publish(UserChange.Type.DELETE, id, null);
+        }
+        return removed;
+    }
+
+    private synchronized long resumeAfter(final String resumeToken) {
+        if (resumeToken == null) {
+            return sequence;
+        }
+        try {
+            final long after = Long.parseLong(resumeToken);
+            if (after < sequence - properties.getChangeHistory() || after > sequence) {
+                throw new InvalidResumeTokenException("Last-Event-ID can no longer be resumed: " + resumeToken);
+            }
+            return after;
+        } catch (NumberFormatException e) {
+            throw new InvalidResumeTokenException("Invalid Last-Event-ID: " + resumeToken);
+        }
+    }
+
+    // Chamado só dentro dos métodos synchronized, então a sequência e a emissão ficam na mesma ordem
+    private void publish(final UserChange.Type type, final String id, final User user) {
+        final long next = ++sequence;
+        final var projected = project(user, Set.of("name", "email"));
+        changes.tryEmitNext(new SequencedChange(next, new UserChange(Long.toString(next), type, id, projected)));
+    }
+
+    private record SequencedChange(long sequence, UserChange change) { }
+
+    // O atraso é um timer, não um sleep: nenhuma thread do event loop fica presa
+    private <T> Mono<T> withLatency(final Mono<T> operation) {
+        final var latency = properties.getLatency();
+        return latency.isZero() ? operation : operation.delaySubscription(latency);
+    }
+
+    private <T> Flux<T> withLatency(final Flux<T> operation) {
+        final var latency = properties.getLatency();
+        return latency.isZero() ? operation : operation.delaySubscription(latency);
+    }
+
+    // Como o insertMany do Mongo: um _id que já existe é E11000 no índice _id_, nunca sobrescreve o documento
+    private synchronized User insert(final User user) {
+        if (user.getId() != null && users.containsKey(user.getId())) {
+            throw new DuplicateKeyException("E11000 duplicate key error collection: user index: _id_ dup key: { _id: ObjectId('%s') }"
+                    .formatted(user.getId()));
+        }
+        return store(user);
+    }
+
+    private synchronized User store(final User user) {
+        if (user.getId() == null) {
+            user.setId(new ObjectId().toHexString());
+        }
+        final var owner = emails.get(user.getEmail());
+        if (owner != null && !owner.equals(user.getId())) {
+            throw new DuplicateKeyException("E11000 duplicate key error collection: user index: email dup key: { email: \"%s\" }"
+                    .formatted(user.getEmail()));
+        }
+
+        // Mesma semântica do @Version no Mongo: versão nova começa em 0 e cada save incrementa
+        final var current = users.get(user.getId());
+        if (current != null && !current.getVersion().equals(user.getVersion())) {
+            throw new OptimisticLockingFailureException("Version mismatch for user " + user.getId());
+        }
+        user.setVersion(current == null ? 0L : current.getVersion() + 1);
+
+        final var previous = users.put(user.getId(), copy(user));
+        if (previous != null && !previous.getEmail().equals(user.getEmail())) {
+            emails.remove(previous.getEmail(), user.getId());
+        }
+        emails.put(user.getEmail(), user.getId());
+        publish(current == null ? UserChange.Type.INSERT : UserChange.Type.UPDATE, user.getId(), user);
+        return user;
+    }
+
+    // Mesma projeção das consultas no Mongo: id e version sempre, password nunca
+    private User project(final User user, final Set<String> fields) {
+        if (user == null) {
+            return null;
+        }
+        return User.builder()
+                .id(user.getId())
+                .name(fields.contains("name") ? user.getName() : null)
+                .email(fields.contains("email") ? user.getEmail() : null)
+                .version(user.getVersion())
+                .build();
+    }
+
+    private static int textScore(final User user, final Set<String> terms) {
+        int score = 0;
+        for (final String word : words(user.getName())) {
+            score += terms.contains(word) ? 3 : 0;
+        }
+        for (final String word : words(user.getEmail())) {
+            score += terms.contains(word) ? 1 : 0;
+        }
+        return score;
+    }
+
+    private static Set<String> words(final String value) {
+        if (value == null) {
+            return Set.of();
+        }
+        return Arrays.stream(normalize(value, true).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    private static String normalize(final String value, final boolean ignoreAccents) {
+        final var lower = value.toLowerCase(Locale.ROOT);
+        return ignoreAccents ? Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}", "") : lower;
+    }
+
+    // Devolve cópias para que alterações feitas no serviço não vazem para o "banco"
+    private User copy(final User user) {
+        if (user == null) {
+            return null;
+        }
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .version(user.getVersion())
+                .build();
+    }
+}
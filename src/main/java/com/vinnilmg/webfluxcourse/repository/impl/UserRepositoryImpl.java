@@ -0,0 +1,483 @@
+package com.vinnilmg.webfluxcourse.repository.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoSocketReadTimeoutException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.ReadPreference;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.vinnilmg.webfluxcourse.config.MongoClientProperties;
+import com.vinnilmg.webfluxcourse.config.UserStreamingProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.UserChange;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import com.vinnilmg.webfluxcourse.repository.UserSearch;
+import com.vinnilmg.webfluxcourse.repository.WriteFailure;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidResumeTokenException;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toMap;
+
+@RequiredArgsConstructor
+@Profile("!loadtest")
+@Repository
+public class UserRepositoryImpl implements UserRepository {
+
+    // _data do resume token do Mongo, em hexadecimal
+    private static final Pattern RESUME_TOKEN = Pattern.compile("[0-9A-Fa-f]+");
+    // InvalidResumeToken, ChangeStreamHistoryLost e ChangeStreamFatalError
+    private static final Set<Integer> NOT_RESUMABLE = Set.of(260, 280, 286);
+
+    private static final char MAX_COLLATION_CHAR = '\uffff';
+    // Mesmas collations dos índices users_email_search e users_name_search (User)
+    private static final Collation EMAIL_COLLATION = Collation.of("en").strength(2);
+    private static final Collation NAME_COLLATION = Collation.of("en").strength(1);
+
+    // findOneAndUpdate/findOneAndDelete vão direto ao driver; o mesmo tradutor do template gera DuplicateKeyException
+    private static final MongoExceptionTranslator EXCEPTION_TRANSLATOR = new MongoExceptionTranslator();
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final UserStreamingProperties streamingProperties;
+    private final MongoClientProperties mongoProperties;
+
+    @Override
+    public Mono<User> save(final User user) {
+        return unavailable(mongoTemplate.save(user));
+    }
+
+    // insertMany não ordenado: um e-mail duplicado falha apenas o próprio documento
+    @Override
+    public Mono<Map<Integer, WriteFailure>> insertMany(final List<User> users) {
+        final List<Document> documents = users.stream().map(this::toDocument).toList();
+        final var options = new InsertManyOptions().ordered(false);
+
+        return unavailable(writeErrors(collection()
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, options)))));
+    }
+
+    @Override
+    public Mono<User> findById(String id, Set<String> fields) {
+        Query query = project(new Query(Criteria.where("id").is(id)), fields);
+
+        return unavailable(mongoTemplate.findOne(withMaxTime(query), User.class));
+    }
+
+    @Override
+    public Flux<User> findAllById(final Collection<String> ids, final Set<String> fields) {
+        Query query = project(new Query(Criteria.where("id").in(ids)), fields);
+
+        return unavailable(mongoTemplate.find(withMaxTime(query), User.class));
+    }
+
+    @Override
+    public Mono<Long> findVersionById(String id) {
+        Query query = new Query(Criteria.where("id").is(id));
+        query.fields().include("version");
+
+        // Documento sem versão (anterior ao @Version) é tratado como versão 0
+        return unavailable(mongoTemplate.findOne(withMaxTime(query), User.class)
+                .map(user -> user.getVersion() == null ? 0L : user.getVersion()));
+    }
+
+    // O batchSize do cursor acompanha a demanda: um consumidor lento segura a leitura no Mongo.
+    // Direto no driver porque o template só aplica read preference por consulta como primaryPreferred
+    @Override
+    public Flux<User> findAll(final Set<String> fields) {
+        final int prefetch = streamingProperties.getPrefetch();
+        final var readPreference = ReadPreference.valueOf(mongoProperties.getFindAllReadPreference());
+        final Document projection = new Document("version", 1);
+        fields.forEach(field -> projection.append("id".equals(field) ? "_id" : field, 1));
+
+        return unavailable(collection()
+                .flatMapMany(collection -> collection.withReadPreference(readPreference)
+                        .find()
+                        .projection(projection)
+                        .batchSize(prefetch))
+                .limitRate(prefetch)
+                .map(this::toUser));
+    }
+
+    // Keyset pagination: uma única consulta por faixa de _id. A projeção cabe no índice users_listing e o
+    // planner prefere o plano coberto (sem FETCH) sem precisar de hint
+    @Override
+    public Flux<User> findPage(final String afterId, final int limit, final Set<String> fields) {
+        Query query = project(new Query(), fields)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(limit);
+
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+
+        return unavailable(mongoTemplate.find(withMaxTime(query), User.class));
+    }
+
+    @Override
+    public Flux<User> search(final UserSearch search) {
+        return unavailable(mongoTemplate.find(withMaxTime(searchQuery(search)), User.class));
+    }
+
+    // executionStats executa a consulta (limitada como a real) e traz chaves e documentos examinados
+    @Override
+    public Mono<Map<String, Object>> explainSearch(final UserSearch search) {
+        final Query query = searchQuery(search);
+        final Document find = new Document("find", mongoTemplate.getCollectionName(User.class))
+                .append("filter", query.getQueryObject())
+                .append("projection", query.getFieldsObject())
+                .append("sort", query.getSortObject())
+                .append("skip", query.getSkip())
+                .append("limit", query.getLimit());
+        query.getCollation().ifPresent(collation -> find.append("collation", collation.toDocument()));
+
+        final Document explain = new Document("explain", find)
+                .append("verbosity", "executionStats")
+                .append("maxTimeMS", mongoProperties.getMaxTime().toMillis());
+
+        return unavailable(mongoTemplate.executeCommand(explain).map(this::summarizeExplain));
+    }
+
+    // Ordenar por email faz o planner usar o índice único; projetando só o email, a leitura não toca nos documentos
+    @Override
+    public Flux<String> findAllEmails() {
+        final int prefetch = streamingProperties.getPrefetch();
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "email"))
+                .cursorBatchSize(prefetch);
+        query.fields().include("email").exclude("id");
+
+        return mongoTemplate.find(query, User.class)
+                .limitRate(prefetch)
+                .mapNotNull(User::getEmail);
+    }
+
+    @Override
+    public Flux<String> findExistingEmails(final Collection<String> emails) {
+        Query query = new Query(Criteria.where("email").in(emails));
+        query.fields().include("email").exclude("id");
+
+        return unavailable(mongoTemplate.find(withMaxTime(query), User.class)
+                .map(User::getEmail));
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(final String email, final String excludingId) {
+        Query query = new Query(Criteria.where("email").is(email));
+        if (excludingId != null) {
+            query.addCriteria(Criteria.where("id").ne(excludingId));
+        }
+
+        return unavailable(mongoTemplate.exists(withMaxTime(query), User.class));
+    }
+
+    // findAndModify com $set apenas dos campos presentes: uma ida ao banco, sem reescrever o documento inteiro.
+    // Direto no driver porque o findAndModify do template ignora o maxTimeMS da Query
+    @Override
+    public Mono<User> updateFields(final String id, final User changes, final Long expectedVersion) {
+        Document filter = new Document("_id", toObjectId(id));
+        if (expectedVersion != null) {
+            filter.append("version", expectedVersion);
+        }
+
+        Document fields = changedFields(changes);
+
+        if (fields.isEmpty()) {
+            Query query = new Query(Criteria.where("id").is(id));
+            query.fields().exclude("password");
+            if (expectedVersion != null) {
+                query.addCriteria(Criteria.where("version").is(expectedVersion));
+            }
+            return unavailable(mongoTemplate.findOne(withMaxTime(query), User.class));
+        }
+
+        Document update = new Document("$set", fields).append("$inc", new Document("version", 1L));
+        final var options = new FindOneAndUpdateOptions()
+                .projection(new Document("password", 0))
+                .returnDocument(ReturnDocument.AFTER)
+                .maxTime(mongoProperties.getMaxTime().toMillis(), MILLISECONDS);
+
+        return unavailable(collection()
+                .flatMap(collection -> Mono.from(collection.findOneAndUpdate(filter, update, options)))
+                .onErrorMap(RuntimeException.class, this::translate)
+                .map(this::toUser));
+    }
+
+    @Override
+    public Mono<User> findAndRemove(String id) {
+        final var options = new FindOneAndDeleteOptions()
+                .maxTime(mongoProperties.getMaxTime().toMillis(), MILLISECONDS);
+
+        return unavailable(collection()
+                .flatMap(collection -> Mono.from(collection.findOneAndDelete(Filters.eq("_id", toObjectId(id)), options)))
+                .onErrorMap(RuntimeException.class, this::translate)
+                .map(this::toUser));
+    }
+
+    @Override
+    public Mono<Map<Integer, WriteFailure>> deleteAllById(final List<String> ids, final boolean ordered) {
+        final List<WriteModel<Document>> writes = ids.stream()
+                .<WriteModel<Document>>map(id -> new DeleteOneModel<>(Filters.eq("_id", toObjectId(id))))
+                .toList();
+
+        return bulkWrite(writes, ordered);
+    }
+
+    // Mesmo update do updateFields ($set dos campos presentes e version + 1), sem devolver os documentos
+    @Override
+    public Mono<Map<Integer, WriteFailure>> updateAllFields(final List<User> changes, final boolean ordered) {
+        final List<WriteModel<Document>> writes = changes.stream()
+                .<WriteModel<Document>>map(user -> {
+                    Document update = new Document("$inc", new Document("version", 1L));
+                    Document fields = changedFields(user);
+                    if (!fields.isEmpty()) {
+                        update.append("$set", fields);
+                    }
+                    return new UpdateOneModel<>(Filters.eq("_id", toObjectId(user.getId())), update);
+                })
+                .toList();
+
+        return bulkWrite(writes, ordered);
+    }
+
+    // Exige replica set (o Atlas já é um). O $project tira a senha no servidor, antes de o evento trafegar;
+    // updateLookup traz o documento atual nos updates parciais ($set/$inc)
+    @Override
+    public Flux<UserChange> watch(final String resumeToken) {
+        if (resumeToken != null && !RESUME_TOKEN.matcher(resumeToken).matches()) {
+            return Flux.error(new InvalidResumeTokenException("Invalid Last-Event-ID: " + resumeToken));
+        }
+
+        final var options = ChangeStreamOptions.builder()
+                .filter(
+                        new Document("$match", new Document("operationType",
+                                new Document("$in", List.of("insert", "update", "replace", "delete")))),
+                        new Document("$project", new Document("fullDocument.password", 0))
+                )
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+        if (resumeToken != null) {
+            options.resumeAfter(new BsonDocument("_data", new BsonString(resumeToken)));
+        }
+
+        return mongoTemplate.changeStream(mongoTemplate.getCollectionName(User.class), options.build(), User.class)
+                .map(this::toChange)
+                .onErrorMap(
+                        e -> e instanceof MongoCommandException command && NOT_RESUMABLE.contains(command.getErrorCode()),
+                        e -> new InvalidResumeTokenException("Last-Event-ID can no longer be resumed: " + resumeToken)
+                );
+    }
+
+    @Override
+    public Mono<Long> initializeMissingVersions() {
+        Query query = new Query(Criteria.where("version").exists(false));
+
+        return mongoTemplate.updateMulti(query, new Update().set("version", 0L), User.class)
+                .map(result -> result.getModifiedCount());
+    }
+
+    private Mono<Map<Integer, WriteFailure>> bulkWrite(final List<WriteModel<Document>> writes, final boolean ordered) {
+        final var options = new BulkWriteOptions().ordered(ordered);
+
+        return unavailable(writeErrors(collection()
+                .flatMap(collection -> Mono.from(collection.bulkWrite(writes, options)))));
+    }
+
+    private Mono<MongoCollection<Document>> collection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class));
+    }
+
+    // maxTimeMS: o servidor interrompe a consulta no prazo em vez de segurar a conexão do pool
+    private Query withMaxTime(final Query query) {
+        return query.maxTime(mongoProperties.getMaxTime());
+    }
+
+    // Sem conexão livre no pool dentro do max-wait, sem servidor selecionável, maxTimeMS ou socket estourados:
+    // a requisição falha rápido com 503 (Retry-After) em vez de esperar. O template embrulha a exceção do driver
+    private <T> Mono<T> unavailable(final Mono<T> operation) {
+        return operation.onErrorMap(UserRepositoryImpl::isTimeout, UserRepositoryImpl::toUnavailable);
+    }
+
+    private <T> Flux<T> unavailable(final Flux<T> operation) {
+        return operation.onErrorMap(UserRepositoryImpl::isTimeout, UserRepositoryImpl::toUnavailable);
+    }
+
+    private static boolean isTimeout(final Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoTimeoutException
+                    || cause instanceof MongoExecutionTimeoutException
+                    || cause instanceof MongoSocketReadTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable toUnavailable(final Throwable error) {
+        return new ServiceUnavailableException("Database unavailable, try again later.");
+    }
+
+    private Throwable translate(final RuntimeException error) {
+        final DataAccessException translated = EXCEPTION_TRANSLATOR.translateExceptionIfPossible(error);
+        return translated != null ? translated : error;
+    }
+
+    private User toUser(final Document document) {
+        return mongoTemplate.getConverter().read(User.class, document);
+    }
+
+    // Erros de documento viram o mapa posição -> código e mensagem do BulkWriteError; erro de write concern continua sendo erro da operação
+    private Mono<Map<Integer, WriteFailure>> writeErrors(final Mono<?> write) {
+        return write.map(result -> Map.<Integer, WriteFailure>of())
+                .onErrorResume(
+                        e -> e instanceof MongoBulkWriteException bulk && bulk.getWriteConcernError() == null,
+                        e -> Mono.just(((MongoBulkWriteException) e).getWriteErrors().stream()
+                                .collect(toMap(BulkWriteError::getIndex, error -> new WriteFailure(error.getCode(), error.getMessage()))))
+                );
+    }
+
+    // O conversor já omite propriedades nulas, igual ao IGNORE do UserMapper
+    private Document changedFields(final User changes) {
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(changes, fields);
+        fields.keySet().removeAll(List.of("_id", "_class", "version"));
+        return fields;
+    }
+
+    private UserChange toChange(final ChangeStreamEvent<User> event) {
+        final var type = switch (event.getOperationType()) {
+            case INSERT -> UserChange.Type.INSERT;
+            case DELETE -> UserChange.Type.DELETE;
+            default -> UserChange.Type.UPDATE;
+        };
+        final var token = event.getResumeToken().asDocument().getString("_data").getValue();
+        final var user = type == UserChange.Type.DELETE ? null : event.getBody();
+
+        return new UserChange(token, type, fromObjectId(event.getRaw().getDocumentKey().get("_id")), user);
+    }
+
+    private String fromObjectId(final BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    // Mesma regra do mapeamento do Spring Data: id String com formato de ObjectId é gravado como ObjectId
+    private Object toObjectId(final String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    // Prefixo vira faixa [termo, termo + U+FFFF) sob a collation do índice: diferente de um $regex, a faixa
+    // respeita a collation e usa o índice com limites exatos. U+FFFF tem o maior peso na collation do ICU
+    private Query searchQuery(final UserSearch search) {
+        final Query query;
+        if (search.mode() == UserSearch.Mode.TEXT) {
+            query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(search.term())).sortByScore();
+            query.with(Sort.by(Sort.Direction.ASC, "_id"));
+        } else {
+            final var field = search.mode() == UserSearch.Mode.EMAIL ? "email" : "name";
+            final var criteria = Criteria.where(field).gte(search.term()).lt(search.term() + MAX_COLLATION_CHAR);
+            if (search.afterKey() != null) {
+                criteria.orOperator(
+                        Criteria.where(field).gt(search.afterKey()),
+                        Criteria.where(field).is(search.afterKey()).and("_id").gt(toObjectId(search.afterId()))
+                );
+            }
+            query = new Query(criteria)
+                    .with(Sort.by(Sort.Direction.ASC, field, "_id"))
+                    .collation(search.mode() == UserSearch.Mode.EMAIL ? EMAIL_COLLATION : NAME_COLLATION);
+        }
+
+        query.fields().include("name", "email", "version");
+        return query.skip(search.skip()).limit(search.limit());
+    }
+
+    private Map<String, Object> summarizeExplain(final Document explain) {
+        final var planner = explain.get("queryPlanner", Document.class);
+        final var stats = explain.get("executionStats", Document.class);
+        final Set<String> indexes = new LinkedHashSet<>();
+        final Set<String> stages = new LinkedHashSet<>();
+        collectPlan(planner.get("winningPlan"), indexes, stages);
+
+        final Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("indexes", indexes);
+        summary.put("collectionScan", stages.contains("COLLSCAN"));
+        summary.put("nReturned", stats.get("nReturned"));
+        summary.put("totalKeysExamined", stats.get("totalKeysExamined"));
+        summary.put("totalDocsExamined", stats.get("totalDocsExamined"));
+        summary.put("executionTimeMillis", stats.get("executionTimeMillis"));
+        summary.put("winningPlan", planner.get("winningPlan"));
+        return summary;
+    }
+
+    // Percorre o plano (inputStage/inputStages, e queryPlan no formato do SBE) juntando estágios e índices
+    private void collectPlan(final Object node, final Set<String> indexes, final Set<String> stages) {
+        if (node instanceof Document stage) {
+            if (stage.get("stage") instanceof String name) {
+                stages.add(name);
+            }
+            if (stage.get("indexName") instanceof String index) {
+                indexes.add(index);
+            }
+            stage.values().forEach(value -> collectPlan(value, indexes, stages));
+        } else if (node instanceof List<?> children) {
+            children.forEach(child -> collectPlan(child, indexes, stages));
+        }
+    }
+
+    private Query project(final Query query, final Set<String> fields) {
+        query.fields().include("version").include(fields.toArray(String[]::new));
+        return query;
+    }
+
+    private Document toDocument(final User user) {
+        if (user.getId() == null) {
+            user.setId(new ObjectId().toHexString());
+        }
+        // insertMany não passa pelo save do template, então a versão inicial é definida aqui
+        if (user.getVersion() == null) {
+            user.setVersion(0L);
+        }
+        Document document = new Document();
+        mongoTemplate.getConverter().write(user, document);
+        return document;
+    }
+}
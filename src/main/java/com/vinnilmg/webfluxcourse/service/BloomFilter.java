@@ -0,0 +1,59 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter de strings com bits atômicos: put e mightContain podem rodar em paralelo sem lock.
+// As k posições vêm de dois hashes de 64 bits (g_i = h1 + i * h2).
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+
+    BloomFilter(final long expectedInsertions, final double falsePositiveProbability) {
+        final long optimalBits = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        final int words = (int) Math.max(1, (optimalBits + 63) / 64);
+
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.hashFunctions = (int) Math.max(1, Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    void put(final String value) {
+        final long h1 = hash(value);
+        final long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            final long index = Math.floorMod(h1 + i * h2, bitSize);
+            bits.getAndAccumulate((int) (index >>> 6), 1L << index, (word, mask) -> word | mask);
+        }
+    }
+
+    boolean mightContain(final String value) {
+        final long h1 = hash(value);
+        final long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashFunctions; i++) {
+            final long index = Math.floorMod(h1 + i * h2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a de 64 bits sobre os chars, com o finalizador do SplitMix64 para espalhar os bits
+    private static long hash(final String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
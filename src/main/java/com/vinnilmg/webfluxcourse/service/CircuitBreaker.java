@@ -0,0 +1,127 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.UserRepositoryResilienceProperties;
+
+// Circuito por contagem: guarda o resultado das últimas window-size chamadas e abre quando a taxa de falhas
+// passa do limite. Aberto, recusa tudo por open-duration; depois deixa passar half-open-calls chamadas de teste:
+// todas com sucesso fecham o circuito, qualquer falha abre de novo. Fechado, tryAcquire não pega lock
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // Janela circular: true é falha
+    private final boolean[] window;
+    private int position;
+    private int recorded;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    CircuitBreaker(final UserRepositoryResilienceProperties.CircuitBreaker properties) {
+        this.window = new boolean[properties.getWindowSize()];
+        this.minimumCalls = properties.getMinimumCalls();
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = properties.getHalfOpenCalls();
+    }
+
+    boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    return false;
+                }
+                halfOpenPermits--;
+            }
+            return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                open();
+            }
+        }
+    }
+
+    // Chamada cancelada (cliente desistiu, hedge perdeu) não diz nada sobre o banco: só devolve a vaga de teste
+    synchronized void onCancel() {
+        if (state == State.HALF_OPEN && halfOpenPermits + halfOpenSuccesses < halfOpenCalls) {
+            halfOpenPermits++;
+        }
+    }
+
+    State state() {
+        return state;
+    }
+
+    // Segundos até o circuito aceitar chamadas de teste, para o Retry-After; no mínimo 1
+    synchronized long retryAfterSeconds() {
+        if (state != State.OPEN) {
+            return 1;
+        }
+        final long remaining = openNanos - (System.nanoTime() - openedAt);
+        return Math.max(1, (remaining + 999_999_999) / 1_000_000_000);
+    }
+
+    private void record(final boolean failure) {
+        if (recorded == window.length) {
+            if (window[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[position] = failure;
+        if (failure) {
+            failures++;
+        }
+        position = (position + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    // A janela recomeça vazia: as falhas de antes da abertura não contam mais
+    private void close() {
+        state = State.CLOSED;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
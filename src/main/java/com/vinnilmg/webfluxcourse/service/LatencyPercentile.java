@@ -0,0 +1,47 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Percentil das últimas 'window' latências, numa janela circular sem lock. O valor é recalculado
+// (cópia + sort da janela) a cada 1/8 da janela de amostras novas, não a cada leitura
+class LatencyPercentile {
+
+    private final double percentile;
+    private final int minSamples;
+    private final int refreshEvery;
+    private final AtomicLongArray window;
+    private final AtomicLong recorded = new AtomicLong();
+
+    // -1 enquanto não há amostras suficientes
+    private volatile long valueNanos = -1;
+
+    LatencyPercentile(final double percentile, final int window, final int minSamples) {
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, window);
+        this.refreshEvery = Math.max(1, window / 8);
+        this.window = new AtomicLongArray(window);
+    }
+
+    void record(final long latencyNanos) {
+        final long count = recorded.getAndIncrement();
+        window.set((int) (count % window.length()), latencyNanos);
+        if (count + 1 >= minSamples && (count + 1) % refreshEvery == 0) {
+            refresh(Math.min(count + 1, window.length()));
+        }
+    }
+
+    long valueNanos() {
+        return valueNanos;
+    }
+
+    private void refresh(final long samples) {
+        final long[] sorted = new long[(int) samples];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = window.get(i);
+        }
+        Arrays.sort(sorted);
+        valueNanos = sorted[(int) Math.min(sorted.length - 1, (long) Math.ceil(percentile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,56 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.PasswordHashingProperties;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+// bcrypt custa dezenas de ms de CPU por chamada: roda num pool próprio e limitado, nunca no event loop do Netty.
+// Com a fila cheia, falha na hora em vez de acumular requisições esperando.
+@Component
+public class PasswordHasher implements DisposableBean {
+
+    private final PasswordEncoder encoder;
+    private final Scheduler scheduler;
+    private final int concurrency;
+
+    public PasswordHasher(final PasswordHashingProperties properties) {
+        this.encoder = new BCryptPasswordEncoder(properties.getStrength());
+        this.scheduler = Schedulers.newBoundedElastic(properties.getThreads(), properties.getQueueCapacity(), "password-hash");
+        this.concurrency = properties.getThreads();
+    }
+
+    public Mono<String> hash(final String rawPassword) {
+        return offload(() -> encoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(final String rawPassword, final String encodedPassword) {
+        return offload(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Quantos hashes um único fluxo (ex.: um lote) deve disparar ao mesmo tempo sem disputar a fila com os demais
+    public int concurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private <T> Mono<T> offload(final Callable<T> task) {
+        return Mono.fromCallable(task)
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new ServiceUnavailableException("Password hashing capacity exceeded, try again later."));
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.UserLoaderProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toSet;
+
+// findById em lote, no estilo DataLoader: ids pedidos dentro da janela (ou até encher o lote) viram uma única
+// consulta {_id: {$in: [...]}} e cada Mono recebe o seu usuário. Id ausente completa vazio.
+@Component
+public class UserBatchLoader {
+
+    private final UserRepository repository;
+    private final UserLoaderProperties properties;
+    private final DistributionSummary batchSizes;
+
+    private final Object lock = new Object();
+    private List<PendingLoad> pending = new ArrayList<>();
+    private Disposable windowTimer;
+
+    public UserBatchLoader(final UserRepository repository, final UserLoaderProperties properties,
+                           final MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.batchSizes = DistributionSummary.builder("users.loader.batch.size")
+                .description("Distinct ids per $in query")
+                .register(meterRegistry);
+    }
+
+    // Sempre com a projeção padrão: é o que o UserCache guarda
+    public Mono<User> load(final String id) {
+        if (!properties.isEnabled()) {
+            return repository.findById(id, UserFields.DEFAULT);
+        }
+        return Mono.create(sink -> enqueue(new PendingLoad(id, sink)));
+    }
+
+    private void enqueue(final PendingLoad load) {
+        List<PendingLoad> full = null;
+        synchronized (lock) {
+            pending.add(load);
+            if (pending.size() >= properties.getMaxBatchSize()) {
+                full = drain();
+            } else if (pending.size() == 1) {
+                windowTimer = Schedulers.parallel()
+                        .schedule(this::flushWindow, properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+    }
+
+    private void flushWindow() {
+        final List<PendingLoad> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    // Chamado com o lock
+    private List<PendingLoad> drain() {
+        if (windowTimer != null) {
+            windowTimer.dispose();
+            windowTimer = null;
+        }
+        final var batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void dispatch(final List<PendingLoad> batch) {
+        final Set<String> ids = batch.stream().map(PendingLoad::id).collect(toSet());
+        batchSizes.record(ids.size());
+
+        repository.findAllById(ids, UserFields.DEFAULT)
+                .collectMap(User::getId)
+                .subscribe(
+                        users -> batch.forEach(load -> load.sink().success(users.get(load.id()))),
+                        error -> batch.forEach(load -> load.sink().error(error))
+                );
+    }
+
+    private record PendingLoad(String id, MonoSink<User> sink) { }
+}
@@ -0,0 +1,63 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vinnilmg.webfluxcourse.config.UserCacheProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+// Cache read-through de usuários por id. Guarda o future da consulta, então buscas
+// simultâneas pelo mesmo id compartilham uma única ida ao Mongo.
+@Component
+public class UserCache {
+
+    private final AsyncCache<String, User> cache;
+
+    public UserCache(final UserCacheProperties properties, final MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            this.cache = null;
+            return;
+        }
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Mono<User> get(final String id, final Function<String, Mono<User>> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        // Mono vazio completa o future com null e o Caffeine descarta a entrada. O future é compartilhado por todos
+        // que aguardam o mesmo id: o cancelamento de um deles (cliente desconectado, timeout) não pode cancelá-lo
+        return Mono.fromFuture(() -> cache.get(id, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    public Mono<User> getIfPresent(final String id) {
+        if (cache == null) {
+            return Mono.empty();
+        }
+        return Mono.justOrEmpty(cache.getIfPresent(id)).flatMap(future -> Mono.fromFuture(future, true));
+    }
+
+    public void invalidate(final String id) {
+        if (cache != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+}
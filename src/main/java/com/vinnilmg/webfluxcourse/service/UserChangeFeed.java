@@ -0,0 +1,76 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.UserChangesProperties;
+import com.vinnilmg.webfluxcourse.repository.UserChange;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+// Um único change stream por instância, compartilhado entre a invalidação do cache local e os clientes SSE
+// sem Last-Event-ID. Uma alteração feita por outro nó derruba a entrada daqui sem depender do TTL.
+@Slf4j
+@Component
+public class UserChangeFeed implements DisposableBean {
+
+    private final UserRepository repository;
+    private final UserCache cache;
+    private final UserEmailFilter emailFilter;
+    private final UserChangesProperties properties;
+    private final Flux<UserChange> shared;
+
+    private Disposable invalidation;
+
+    public UserChangeFeed(final UserRepository repository,
+                          final UserCache cache,
+                          final UserEmailFilter emailFilter,
+                          final UserChangesProperties properties) {
+        this.repository = repository;
+        this.cache = cache;
+        this.emailFilter = emailFilter;
+        this.properties = properties;
+        this.shared = Flux.defer(() -> repository.watch(null)).publish().refCount();
+    }
+
+    // Enquanto o stream esteve fora, eventos podem ter se perdido: o cache inteiro é descartado antes de reabrir
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        invalidation = shared
+                .doOnNext(this::apply)
+                .doOnError(e -> {
+                    log.warn("User change stream failed, clearing the cache and reopening: {}", e.getMessage());
+                    cache.invalidateAll();
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(properties.getMaxRetryBackoff()))
+                .subscribe();
+    }
+
+    // Sem token, pega carona no stream compartilhado; com token, abre um stream próprio a partir dele.
+    // Cliente que não acompanha estoura o buffer e cai, para retomar depois pelo último id recebido
+    public Flux<UserChange> changes(final String resumeToken) {
+        final var source = resumeToken == null ? shared : repository.watch(resumeToken);
+        return source.onBackpressureBuffer(properties.getClientBuffer());
+    }
+
+    void apply(final UserChange change) {
+        cache.invalidate(change.id());
+        if (change.user() != null && change.user().getEmail() != null) {
+            emailFilter.add(change.user().getEmail());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (invalidation != null) {
+            invalidation.dispose();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.service.exception.InvalidCursorException;
+import org.bson.types.ObjectId;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Token de continuação opaco: o cliente só devolve o valor recebido em 'next'
+final class UserCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private UserCursor() { }
+
+    static String encode(final String lastId) {
+        return ENCODER.encodeToString(lastId.getBytes(UTF_8));
+    }
+
+    // Keyset da busca por prefixo: id e chave de ordenação (e-mail ou nome) do último item
+    static String encode(final String lastId, final String key) {
+        return ENCODER.encodeToString((lastId + ":" + key).getBytes(UTF_8));
+    }
+
+    // Posição na busca textual, que ordena por relevância e não tem chave para keyset
+    static String encodeOffset(final int offset) {
+        return ENCODER.encodeToString(("+" + offset).getBytes(UTF_8));
+    }
+
+    // [id, chave]
+    static String[] decodeKeyset(final String token) {
+        final var value = decodeRaw(token);
+        final var separator = value.indexOf(':');
+        if (separator < 0 || !ObjectId.isValid(value.substring(0, separator))) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+        return new String[] { value.substring(0, separator), value.substring(separator + 1) };
+    }
+
+    static int decodeOffset(final String token) {
+        final var value = decodeRaw(token);
+        try {
+            final int offset = value.startsWith("+") ? Integer.parseInt(value.substring(1)) : -1;
+            if (offset < 0) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+    private static String decodeRaw(final String token) {
+        try {
+            return new String(DECODER.decode(token), UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+    static String decode(final String token) {
+        try {
+            final var id = new String(DECODER.decode(token), UTF_8);
+            if (!ObjectId.isValid(id)) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+}
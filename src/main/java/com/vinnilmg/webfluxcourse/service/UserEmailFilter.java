@@ -0,0 +1,89 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.EmailFilterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Conjunto aproximado dos e-mails cadastrados. "Ausente" é definitivo e dispensa a consulta ao Mongo;
+// "talvez presente" exige a checagem no índice. O índice único continua sendo a garantia final.
+@Component
+public class UserEmailFilter {
+
+    private static final String METRIC_NAME = "users.email.filter";
+
+    private final EmailFilterProperties properties;
+    private final AtomicLong removals = new AtomicLong();
+    private final Counter absent;
+    private final Counter maybePresent;
+
+    // Nulo até a primeira carga terminar; enquanto isso, tudo é "talvez presente"
+    private volatile BloomFilter active;
+    private volatile BloomFilter building;
+
+    public UserEmailFilter(final EmailFilterProperties properties, final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.absent = Counter.builder(METRIC_NAME).tag("result", "absent").register(meterRegistry);
+        this.maybePresent = Counter.builder(METRIC_NAME).tag("result", "maybe_present").register(meterRegistry);
+    }
+
+    public boolean mightContain(final String email) {
+        final var filter = active;
+        if (filter != null && !filter.mightContain(normalize(email))) {
+            absent.increment();
+            return false;
+        }
+        maybePresent.increment();
+        return true;
+    }
+
+    public void add(final String email) {
+        if (email == null) {
+            return;
+        }
+        final var normalized = normalize(email);
+        // Durante a reconstrução, o filtro novo também recebe os cadastros que o cursor pode não ter visto.
+        // building é lido antes de active: a troca faz active = next e depois building = null, então uma troca entre
+        // as duas leituras ainda deixa o e-mail no filtro novo, nunca só no descartado
+        final var next = building;
+        if (next != null) {
+            next.put(normalized);
+        }
+        final var filter = active;
+        if (filter != null && filter != next) {
+            filter.put(normalized);
+        }
+    }
+
+    // Bits não podem ser apagados: o e-mail removido vira falso positivo até a próxima reconstrução
+    public void recordRemoval() {
+        removals.incrementAndGet();
+    }
+
+    public boolean isRebuildDue() {
+        return active == null || removals.get() >= properties.getRebuildAfterRemovals();
+    }
+
+    // Monta um filtro novo a partir dos e-mails recebidos e só troca quando a carga termina
+    public Mono<Long> rebuild(final Flux<String> emails) {
+        return Mono.defer(() -> {
+            final var next = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveProbability());
+            building = next;
+            removals.set(0);
+
+            return emails.doOnNext(email -> next.put(normalize(email)))
+                    .count()
+                    .doOnSuccess(count -> active = next)
+                    .doFinally(signal -> building = null);
+        });
+    }
+
+    private static String normalize(final String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,50 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.EmailFilterProperties;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// Carrega o UserEmailFilter lendo todos os e-mails depois da subida, sem segurá-la. Uma carga que falhou
+// e um filtro com remoções demais são refeitos na próxima verificação periódica.
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class UserEmailFilterLoader implements DisposableBean {
+
+    private final UserRepository repository;
+    private final UserEmailFilter filter;
+    private final EmailFilterProperties properties;
+
+    private Disposable refresh;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh = Flux.interval(Duration.ZERO, properties.getRebuildCheckInterval())
+                .onBackpressureDrop()
+                .filter(tick -> filter.isRebuildDue())
+                .concatMap(tick -> filter.rebuild(repository.findAllEmails())
+                        .doOnNext(count -> log.info("Loaded {} e-mails into the e-mail filter", count))
+                        .onErrorResume(e -> {
+                            log.warn("Could not load the e-mail filter: {}", e.getMessage());
+                            return Mono.empty();
+                        }), 0)
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (refresh != null) {
+            refresh.dispose();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidFieldsException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+// Sparse fieldset do parâmetro 'fields'. id e version sempre acompanham a projeção (cursor e ETag dependem deles)
+// e password nunca faz parte dela
+public final class UserFields {
+
+    public static final Set<String> DEFAULT = Set.of("name", "email");
+    public static final List<String> COLUMNS = List.of("id", "name", "email");
+
+    private UserFields() { }
+
+    // Ex.: "name,email"; ausente ou vazio devolve todos os campos públicos
+    public static Set<String> parse(final String fields) {
+        if (fields == null || fields.isBlank()) {
+            return DEFAULT;
+        }
+
+        final Set<String> selected = new LinkedHashSet<>();
+        final Set<String> invalid = new LinkedHashSet<>();
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty() && !field.equals("id"))
+                .forEach(field -> (DEFAULT.contains(field) ? selected : invalid).add(field));
+
+        if (!invalid.isEmpty()) {
+            throw new InvalidFieldsException(format("Invalid fields: %s. Allowed: id, name, email", String.join(", ", invalid)));
+        }
+        return Set.copyOf(selected);
+    }
+
+    // Colunas da exportação, na ordem pedida (aqui o id é opcional); ausente ou vazio exporta todas
+    public static List<String> columns(final String fields) {
+        if (fields == null || fields.isBlank()) {
+            return COLUMNS;
+        }
+
+        final Set<String> selected = new LinkedHashSet<>();
+        final Set<String> invalid = new LinkedHashSet<>();
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .forEach(field -> (COLUMNS.contains(field) ? selected : invalid).add(field));
+
+        if (!invalid.isEmpty()) {
+            throw new InvalidFieldsException(format("Invalid fields: %s. Allowed: id, name, email", String.join(", ", invalid)));
+        }
+        return selected.isEmpty() ? COLUMNS : List.copyOf(selected);
+    }
+
+    // Recorta um usuário já carregado (ex.: do cache) para o fieldset pedido
+    static User retain(final User user, final Set<String> fields) {
+        if (fields.containsAll(DEFAULT)) {
+            return user;
+        }
+        return User.builder()
+                .id(user.getId())
+                .name(fields.contains("name") ? user.getName() : null)
+                .email(fields.contains("email") ? user.getEmail() : null)
+                .version(user.getVersion())
+                .build();
+    }
+
+}
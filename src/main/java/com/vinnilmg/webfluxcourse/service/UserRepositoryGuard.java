@@ -0,0 +1,274 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.UserRepositoryResilienceProperties;
+import com.vinnilmg.webfluxcourse.service.exception.RepositoryUnavailableException;
+import com.vinnilmg.webfluxcourse.service.exception.RepositoryUnavailableException.Reason;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Envolve as chamadas do UserService ao UserRepository: prazo por operação (timeout do Reactor, sem bloquear),
+// circuit breaker compartilhado e bulkheads separados para leitura e escrita. Banco lento ou fora do ar vira 503
+// imediato (RepositoryUnavailableException) em vez de requisições acumulando no event loop até o timeout do driver.
+// Só timeouts e falhas de acesso ao banco contam para o circuito; 404, e-mail duplicado e versão errada são
+// respostas normais de um banco saudável
+@Component
+public class UserRepositoryGuard {
+
+    private static final String HEDGED_OPERATION = "findById";
+
+    private enum Kind { READ, WRITE }
+
+    private final UserRepositoryResilienceProperties properties;
+    private final MeterRegistry registry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead reads;
+    private final Bulkhead writes;
+    private final LatencyPercentile findByIdP95;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public UserRepositoryGuard(final UserRepositoryResilienceProperties properties, final MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker());
+        this.reads = new Bulkhead(properties.getBulkhead().getMaxConcurrentReads());
+        this.writes = new Bulkhead(properties.getBulkhead().getMaxConcurrentWrites());
+        this.findByIdP95 = new LatencyPercentile(0.95, properties.getHedge().getWindow(), properties.getHedge().getMinSamples());
+
+        Gauge.builder("users.repository.circuit.state", circuitBreaker, circuit -> circuit.state().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .register(registry);
+        Gauge.builder("users.repository.bulkhead.in_flight", reads, Bulkhead::inFlight)
+                .tag("kind", "read")
+                .register(registry);
+        Gauge.builder("users.repository.bulkhead.in_flight", writes, Bulkhead::inFlight)
+                .tag("kind", "write")
+                .register(registry);
+        Gauge.builder("users.repository.hedge.p95", findByIdP95, p95 -> p95.valueNanos() < 0 ? Double.NaN : p95.valueNanos() / 1e9)
+                .baseUnit("seconds")
+                .register(registry);
+        this.hedgesSent = Counter.builder("users.repository.hedges").tag("outcome", "sent").register(registry);
+        this.hedgesWon = Counter.builder("users.repository.hedges").tag("outcome", "won").register(registry);
+    }
+
+    public <T> Mono<T> read(final String operation, final Mono<T> call) {
+        return guard(operation, Kind.READ, call, false);
+    }
+
+    // Leitura limitada (página, busca, $in): o prazo vale para o resultado inteiro
+    public <T> Flux<T> readMany(final String operation, final Flux<T> call) {
+        return guard(operation, Kind.READ, call, false);
+    }
+
+    // Stream da coleção inteira (findAll): o prazo e a vaga do bulkhead valem só até o primeiro item; depois o ritmo
+    // é do cliente, e exportações lentas não podem ocupar as vagas dos GETs pontuais
+    public <T> Flux<T> stream(final String operation, final Flux<T> call) {
+        return guard(operation, Kind.READ, call, true);
+    }
+
+    public <T> Mono<T> write(final String operation, final Mono<T> call) {
+        return guard(operation, Kind.WRITE, call, false);
+    }
+
+    // findById com hedge: sem resposta até o p95 recente, uma segunda tentativa corre junto e vale o primeiro
+    // sinal. A segunda só sai com o circuito fechado e vaga no bulkhead, para não dobrar a carga num banco lento
+    public <T> Mono<T> hedgedRead(final Supplier<Mono<T>> call) {
+        if (!properties.isEnabled() || !properties.getHedge().isEnabled()) {
+            return read(HEDGED_OPERATION, Mono.defer(call));
+        }
+        return Mono.defer(() -> {
+            final Mono<T> primary = guard(HEDGED_OPERATION, Kind.READ, Mono.defer(call), true);
+            final long p95 = findByIdP95.valueNanos();
+            if (p95 < 0) {
+                return primary;
+            }
+
+            final var delay = Duration.ofNanos(Math.max(properties.getHedge().getMinDelay().toNanos(), p95));
+            final Mono<T> hedge = Mono.delay(delay).then(Mono.defer(() -> {
+                final var permit = circuitBreaker.state() == CircuitBreaker.State.CLOSED ? tryAcquire(reads, true) : null;
+                if (permit == null) {
+                    return Mono.never();
+                }
+                hedgesSent.increment();
+                return attempt(HEDGED_OPERATION, Kind.READ, Mono.defer(call), permit)
+                        .doOnSuccess(value -> hedgesWon.increment());
+            }));
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    private <T> Mono<T> guard(final String operation, final Kind kind, final Mono<T> call, final boolean sampled) {
+        if (!properties.isEnabled()) {
+            return call;
+        }
+        return Mono.defer(() -> attempt(operation, kind, call, acquire(operation, kind, sampled)));
+    }
+
+    private <T> Mono<T> attempt(final String operation, final Kind kind, final Mono<T> call, final Permit permit) {
+        return call.timeout(timeout(operation, kind))
+                .onErrorMap(TimeoutException.class, e -> timedOut(operation))
+                .doOnSuccess(value -> permit.complete(null))
+                .doOnError(permit::complete)
+                .doOnCancel(permit::cancel);
+    }
+
+    private <T> Flux<T> guard(final String operation, final Kind kind, final Flux<T> call, final boolean firstItemOnly) {
+        if (!properties.isEnabled()) {
+            return call;
+        }
+        final var timeout = timeout(operation, kind);
+        return Flux.defer(() -> {
+            final var permit = acquire(operation, kind, false);
+            final long deadline = System.nanoTime() + timeout.toNanos();
+            return call.timeout(Mono.delay(timeout), item -> firstItemOnly
+                            ? Mono.never()
+                            : Mono.delay(Duration.ofNanos(Math.max(0, deadline - System.nanoTime()))))
+                    .onErrorMap(TimeoutException.class, e -> timedOut(operation))
+                    .doOnNext(item -> {
+                        if (firstItemOnly) {
+                            permit.complete(null);
+                        }
+                    })
+                    .doOnComplete(() -> permit.complete(null))
+                    .doOnError(permit::complete)
+                    .doOnCancel(permit::cancel);
+        });
+    }
+
+    // Bulkhead antes do circuito: assim uma recusa do bulkhead não gasta vaga de teste do half-open
+    private Permit acquire(final String operation, final Kind kind, final boolean sampled) {
+        final var bulkhead = kind == Kind.READ ? reads : writes;
+        if (!bulkhead.tryAcquire()) {
+            throw rejected(Reason.BULKHEAD_FULL, operation, 1);
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            throw rejected(Reason.CIRCUIT_OPEN, operation, circuitBreaker.retryAfterSeconds());
+        }
+        return new Permit(bulkhead, sampled);
+    }
+
+    // Mesmo que acquire, mas sem recusa: null quando não há vaga (o hedge simplesmente não sai)
+    private Permit tryAcquire(final Bulkhead bulkhead, final boolean sampled) {
+        if (!bulkhead.tryAcquire()) {
+            return null;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            return null;
+        }
+        return new Permit(bulkhead, sampled);
+    }
+
+    private RepositoryUnavailableException timedOut(final String operation) {
+        return rejected(Reason.TIMEOUT, operation, 1);
+    }
+
+    private RepositoryUnavailableException rejected(final Reason reason, final String operation, final long retryAfterSeconds) {
+        Counter.builder("users.repository.rejected")
+                .tag("operation", operation)
+                .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                .register(registry)
+                .increment();
+        return new RepositoryUnavailableException(reason, operation, retryAfterSeconds);
+    }
+
+    private Duration timeout(final String operation, final Kind kind) {
+        final var timeout = properties.getTimeouts().get(operation);
+        if (timeout != null) {
+            return timeout;
+        }
+        return kind == Kind.READ ? properties.getReadTimeout() : properties.getWriteTimeout();
+    }
+
+    // ServiceUnavailableException inclui o que o UserRepositoryImpl traduz de timeouts do driver e pool esgotado
+    private static boolean isFailure(final Throwable error) {
+        return error instanceof ServiceUnavailableException
+                || error instanceof DataAccessResourceFailureException
+                || error instanceof TransientDataAccessException;
+    }
+
+    // Vaga de uma chamada: devolvida uma única vez, no primeiro entre término, erro e cancelamento
+    private final class Permit extends AtomicBoolean {
+
+        private final Bulkhead bulkhead;
+        private final boolean sampled;
+        private final long start = System.nanoTime();
+
+        private Permit(final Bulkhead bulkhead, final boolean sampled) {
+            this.bulkhead = bulkhead;
+            this.sampled = sampled;
+        }
+
+        void complete(final Throwable error) {
+            if (!compareAndSet(false, true)) {
+                return;
+            }
+            bulkhead.release();
+            if (error != null && isFailure(error)) {
+                circuitBreaker.onFailure();
+                return;
+            }
+            circuitBreaker.onSuccess();
+            if (sampled) {
+                findByIdP95.record(System.nanoTime() - start);
+            }
+        }
+
+        // Um primário cancelado porque o hedge venceu é justamente a amostra lenta: entra com o tempo até o
+        // cancelamento (limite inferior do real), senão o p95 só veria as rápidas e o atraso do hedge cairia sem parar
+        void cancel() {
+            if (compareAndSet(false, true)) {
+                bulkhead.release();
+                circuitBreaker.onCancel();
+                if (sampled) {
+                    findByIdP95.record(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    private static final class Bulkhead {
+
+        private final int maxConcurrent;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Bulkhead(final int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                final int current = inFlight.get();
+                if (current >= maxConcurrent) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+
+        int inFlight() {
+            return inFlight.get();
+        }
+    }
+}
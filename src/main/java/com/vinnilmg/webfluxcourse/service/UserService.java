@@ -1,16 +1,59 @@
 package com.vinnilmg.webfluxcourse.service;
 
+import com.vinnilmg.webfluxcourse.config.UserBatchProperties;
+import com.vinnilmg.webfluxcourse.config.UserPaginationProperties;
+import com.vinnilmg.webfluxcourse.config.UserSearchProperties;
 import com.vinnilmg.webfluxcourse.entity.User;
 import com.vinnilmg.webfluxcourse.mapper.UserMapper;
+import com.vinnilmg.webfluxcourse.model.request.BulkDeleteRequest;
+import com.vinnilmg.webfluxcourse.model.request.BulkPatchRequest;
 import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.BatchItemResponse;
+import com.vinnilmg.webfluxcourse.model.response.PageResponse;
+import com.vinnilmg.webfluxcourse.repository.UserChange;
 import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import com.vinnilmg.webfluxcourse.repository.UserSearch;
+import com.vinnilmg.webfluxcourse.repository.WriteFailure;
+import com.vinnilmg.webfluxcourse.service.exception.DuplicateEmailException;
+import com.vinnilmg.webfluxcourse.service.exception.DuplicateKeyMessages;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidCursorException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidIdsException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidSearchException;
 import com.vinnilmg.webfluxcourse.service.exception.ObjectNotFoundException;
+import com.vinnilmg.webfluxcourse.service.exception.PreconditionFailedException;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
 import static java.lang.String.format;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.partitioningBy;
+import static java.util.stream.Collectors.toSet;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @RequiredArgsConstructor
 @Service
@@ -18,37 +61,468 @@ public class UserService {
 
     private final UserRepository repository;
     private final UserMapper mapper;
+    private final UserPaginationProperties paginationProperties;
+    private final UserBatchProperties batchProperties;
+    private final Validator validator;
+    private final UserCache cache;
+    private final UserServiceMetrics metrics;
+    private final PasswordHasher passwordHasher;
+    private final UserEmailFilter emailFilter;
+    private final UserBatchLoader batchLoader;
+    private final UserChangeFeed changeFeed;
+    private final UserSearchProperties searchProperties;
+    private final UserWriteBehind writeBehind;
+    private final UserRepositoryGuard guard;
 
+    // E-mail duplicado é recusado antes do bcrypt e da escrita. Em modo write-behind a escrita é no log local
+    // (UserWriteBehind) e o usuário chega ao Mongo depois
     public Mono<User> save(final UserRequest request) {
-        return repository.save(mapper.toEntity(request));
+        return metrics.timed("save", Mono.fromCallable(() -> mapper.toEntity(request))
+                .flatMap(user -> checkEmailAvailable(user.getEmail(), null).thenReturn(user))
+                .flatMap(this::hashPassword)
+                .flatMap(user -> writeBehind.isEnabled() ? writeBehind.append(user) : guard.write("save", repository.save(user)))
+                .doOnSuccess(user -> emailFilter.add(user.getEmail())));
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind.isEnabled();
+    }
+
+    // Linhas inválidas são respondidas na hora; as válidas seguem em blocos para o insertMany
+    public Flux<BatchItemResponse> saveAll(final Flux<UserRequest> requests) {
+        return metrics.timed("saveAll", requests.index((index, request) -> toBatchRow(index, request))
+                .publish(rows -> Flux.merge(
+                        rows.filter(row -> row.error() != null)
+                                .map(row -> new BatchItemResponse(row.index(), null, BAD_REQUEST.value(), row.error())),
+                        rows.filter(row -> row.error() == null)
+                                .buffer(batchProperties.getChunkSize())
+                                .concatMap(this::insertChunk)
+                )));
     }
 
-    public Mono<User> findById(final String id) {
-        return handleNotFound(repository.findById(id), id);
+    // O cache guarda a projeção padrão; um fieldset menor é recortado dela sem nova consulta.
+    // Faltas no cache passam pelo UserBatchLoader e se juntam às de outras requisições no mesmo $in
+    public Mono<User> findById(final String id, final Set<String> fields) {
+        return metrics.timed("findById", handleNotFound(load(id), id)
+                .map(user -> UserFields.retain(user, fields)));
     }
 
-    public Flux<User> findAll() {
-        return repository.findAll();
+    // Multi-get na ordem pedida; ids inexistentes ficam de fora
+    public Flux<User> findAllById(final List<String> ids, final Set<String> fields) {
+        final int maxIds = paginationProperties.getMaxLimit();
+        return metrics.timed("findAllById", Flux.defer(() -> {
+            if (ids.size() > maxIds) {
+                return Flux.error(new InvalidIdsException(format("Too many ids: %d. Maximum: %d", ids.size(), maxIds)));
+            }
+            return Flux.fromIterable(ids)
+                    .distinct()
+                    .flatMapSequential(this::load)
+                    .map(user -> UserFields.retain(user, fields));
+        }));
+    }
+
+    // Versão atual do usuário; usa o cache quando a entrada já existe
+    public Mono<Long> findVersion(final String id) {
+        return metrics.timed("findVersion", handleNotFound(
+                cache.getIfPresent(id)
+                        .mapNotNull(User::getVersion)
+                        .switchIfEmpty(Mono.defer(() -> guard.read("findVersionById", repository.findVersionById(id)))),
+                id));
+    }
+
+    public Flux<User> findAll(final Set<String> fields) {
+        return metrics.timed("findAll", guard.stream("findAll", repository.findAll(fields)));
+    }
+
+    // Stream sem fim: fica fora do metrics.timed, que mede operações com início e fim
+    public Flux<UserChange> changes(final String lastEventId) {
+        return changeFeed.changes(lastEventId);
+    }
+
+    public Mono<PageResponse<User>> findPage(final Integer limit, final String cursor, final Set<String> fields) {
+        final int pageSize = paginationProperties.resolveLimit(limit);
+
+        // Busca um item a mais apenas para saber se existe próxima página
+        return metrics.timed("findPage", Mono.fromCallable(() -> Optional.ofNullable(cursor).map(UserCursor::decode))
+                .flatMapMany(afterId -> guard.readMany("findPage", repository.findPage(afterId.orElse(null), pageSize + 1, fields)))
+                .collectList()
+                .map(users -> {
+                    if (users.size() <= pageSize) {
+                        return new PageResponse<>(users, null);
+                    }
+                    final var content = users.subList(0, pageSize);
+                    return new PageResponse<>(content, UserCursor.encode(content.get(pageSize - 1).getId()));
+                }));
+    }
+
+    // Mesma paginação do findPage: um item a mais indica se existe próxima página
+    public Mono<PageResponse<User>> search(final String mode, final String term, final Integer limit, final String cursor) {
+        final int pageSize = paginationProperties.resolveLimit(limit);
+
+        return metrics.timed("search", Mono.fromCallable(() -> toSearch(mode, term, pageSize + 1, cursor))
+                .flatMap(search -> guard.readMany("search", repository.search(search))
+                        .collectList()
+                        .map(users -> toSearchPage(search, users, pageSize))));
+    }
+
+    // Plano da mesma consulta que search faria com esses parâmetros
+    public Mono<Map<String, Object>> explainSearch(final String mode, final String term, final Integer limit, final String cursor) {
+        final int pageSize = paginationProperties.resolveLimit(limit);
+
+        return Mono.fromCallable(() -> toSearch(mode, term, pageSize + 1, cursor))
+                .flatMap(search -> guard.read("explainSearch", repository.explainSearch(search)));
     }
 
     public Mono<User> update(final String id, final UserRequest request) {
-        return findById(id)
-                .map(entity -> mapper.toEntity(request, entity))
-                .flatMap(repository::save);
+        return update(id, request, null);
+    }
+
+    // expectedVersion vem do If-Match e vira critério do próprio findAndModify
+    public Mono<User> update(final String id, final UserRequest request, final Long expectedVersion) {
+        return metrics.timed("update", Mono.fromCallable(() -> mapper.toEntity(request))
+                .flatMap(changes -> checkEmailAvailable(changes.getEmail(), id).thenReturn(changes))
+                .flatMap(this::hashPassword)
+                .flatMap(changes -> guard.write("updateFields", repository.updateFields(id, changes, expectedVersion))
+                        .doOnNext(user -> {
+                            if (changes.getEmail() != null) {
+                                emailFilter.add(user.getEmail());
+                                emailFilter.recordRemoval();
+                            }
+                        }))
+                .switchIfEmpty(Mono.defer(() -> unmatchedUpdate(id, expectedVersion)))
+                .doOnSuccess(user -> cache.invalidate(id)));
     }
 
     public Mono<User> delete(final String id) {
-        return handleNotFound(repository.findAndRemove(id), id);
+        return metrics.timed("delete", handleNotFound(guard.write("findAndRemove", repository.findAndRemove(id)), id)
+                .doOnSuccess(user -> {
+                    cache.invalidate(id);
+                    emailFilter.recordRemoval();
+                }));
+    }
+
+    // Só a ida ao banco passa pelo guard (e pelo hedge): acerto no cache não ocupa vaga do bulkhead
+    private Mono<User> load(final String id) {
+        return cache.get(id, missing -> guard.hedgedRead(() -> batchLoader.load(missing)));
+    }
+
+    // Só consulta o índice quando o filtro não consegue afirmar que o e-mail é novo
+    private Mono<Void> checkEmailAvailable(final String email, final String excludingId) {
+        if (email == null || !emailFilter.mightContain(email)) {
+            return Mono.empty();
+        }
+        return guard.read("existsByEmail", repository.existsByEmail(email, excludingId))
+                .flatMap(exists -> exists ? Mono.error(new DuplicateEmailException(email)) : Mono.empty());
+    }
+
+    // Remoção em massa em blocos de bulkWrite, com um resultado por item na ordem recebida.
+    // ordered=true para no primeiro item que falhar; os seguintes não são aplicados nem respondidos
+    public Flux<BatchItemResponse> deleteAll(final Flux<BulkDeleteRequest> requests, final boolean ordered) {
+        final var halted = new AtomicBoolean();
+        return metrics.timed("deleteAll", requests.index((index, request) -> toBulkRow(index, request.id(), null, false))
+                .buffer(batchProperties.getChunkSize())
+                .concatMap(chunk -> Flux.defer(() -> halted.get() ? Flux.empty() : applyBulk(
+                        "deleteAll", chunk, ordered, halted,
+                        rows -> guard.write("deleteAllById", repository.deleteAllById(rows.stream().map(BulkRow::id).toList(), ordered)),
+                        row -> {
+                            cache.invalidate(row.id());
+                            emailFilter.recordRemoval();
+                        })
+                        .onErrorResume(ServiceUnavailableException.class, e -> unavailableChunk(chunk, ordered, halted, e)))));
+    }
+
+    // Mesmas regras do PATCH de um usuário (só os campos presentes, senha com hash), aplicadas em blocos
+    public Flux<BatchItemResponse> updateAll(final Flux<BulkPatchRequest> requests, final boolean ordered) {
+        final var halted = new AtomicBoolean();
+        return metrics.timed("updateAll", requests.index((index, request) -> toBulkRow(index, request.id(), request.changes(), true))
+                .buffer(batchProperties.getChunkSize())
+                .concatMap(chunk -> Flux.defer(() -> halted.get() ? Flux.empty() : Flux.fromIterable(chunk)
+                        .filter(row -> row.changes() != null)
+                        .flatMap(row -> hashPassword(row.changes()), passwordHasher.concurrency())
+                        .thenMany(Flux.defer(() -> applyBulk(
+                                "updateAll", chunk, ordered, halted,
+                                rows -> guard.write("updateAllFields", repository.updateAllFields(rows.stream().map(BulkRow::changes).toList(), ordered)),
+                                row -> {
+                                    cache.invalidate(row.id());
+                                    if (row.changes().getEmail() != null) {
+                                        emailFilter.add(row.changes().getEmail());
+                                        emailFilter.recordRemoval();
+                                    }
+                                })))
+                        .onErrorResume(ServiceUnavailableException.class, e -> unavailableChunk(chunk, ordered, halted, e)))));
+    }
+
+    // Bloco recusado (hash saturado, banco lento ou circuito aberto): cada linha responde 503 e o NDJSON continua.
+    // Em modo ordenado os blocos seguintes não são aplicados nem respondidos
+    private Flux<BatchItemResponse> unavailableChunk(final List<BulkRow> chunk,
+                                                     final boolean ordered,
+                                                     final AtomicBoolean halted,
+                                                     final ServiceUnavailableException e) {
+        halted.set(ordered);
+        return Flux.fromIterable(chunk)
+                .map(row -> new BatchItemResponse(row.index(), row.id(), SERVICE_UNAVAILABLE.value(), e.getMessage()));
+    }
+
+    // Nada casou com {_id, version}: só no caso de erro paga a consulta extra para separar 404 de 412
+    private Mono<User> unmatchedUpdate(final String id, final Long expectedVersion) {
+        if (expectedVersion == null) {
+            return handleNotFound(Mono.empty(), id);
+        }
+        return handleNotFound(guard.read("findVersionById", repository.findVersionById(id)), id)
+                .flatMap(current -> Mono.error(new PreconditionFailedException(
+                        format("Version mismatch. Id: %s, expected: %d, current: %d", id, expectedVersion, current)
+                )));
+    }
+
+    private BatchRow toBatchRow(final long index, final UserRequest request) {
+        final var violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            metrics.recordError("saveAll", UserServiceMetrics.OUTCOME_VALIDATION);
+            return new BatchRow(index, null, violations.stream()
+                    .sorted(comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(this::formatViolation)
+                    .collect(joining("; ")));
+        }
+        return new BatchRow(index, mapper.toEntity(request), null);
+    }
+
+    private String formatViolation(final ConstraintViolation<UserRequest> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    // E-mails já cadastrados são respondidos sem hash nem escrita; o restante segue para o insertMany
+    private Flux<BatchItemResponse> insertChunk(final List<BatchRow> chunk) {
+        return existingEmails(chunk)
+                .flatMapMany(existing -> {
+                    final Map<Boolean, List<BatchRow>> rows = chunk.stream()
+                            .collect(partitioningBy(row -> existing.contains(row.user().getEmail())));
+                    return Flux.concat(
+                            Flux.fromIterable(rows.get(true))
+                                    .map(row -> toBatchItem(row,
+                                            new WriteFailure(WriteFailure.DUPLICATE_KEY, DuplicateEmailException.messageFor(row.user().getEmail())))),
+                            insertRows(rows.get(false)));
+                });
+    }
+
+    // Uma única consulta $in para os e-mails do bloco que o filtro não descartou
+    private Mono<Set<String>> existingEmails(final List<BatchRow> chunk) {
+        final List<String> candidates = chunk.stream()
+                .map(row -> row.user().getEmail())
+                .filter(Objects::nonNull)
+                .filter(emailFilter::mightContain)
+                .toList();
+
+        if (candidates.isEmpty()) {
+            return Mono.just(Collections.emptySet());
+        }
+        return guard.readMany("findExistingEmails", repository.findExistingEmails(candidates)).collect(toSet());
+    }
+
+    // O bloco só é inserido depois de todas as senhas do bloco terem hash; sem capacidade, o bloco inteiro volta 503
+    private Flux<BatchItemResponse> insertRows(final List<BatchRow> chunk) {
+        if (chunk.isEmpty()) {
+            return Flux.empty();
+        }
+        final List<User> users = chunk.stream().map(BatchRow::user).toList();
+
+        return Flux.fromIterable(users)
+                .flatMap(this::hashPassword, passwordHasher.concurrency())
+                .then(Mono.defer(() -> guard.write("insertMany", repository.insertMany(users))))
+                .flatMapIterable(failures -> IntStream.range(0, chunk.size())
+                        .mapToObj(position -> toBatchItem(chunk.get(position), failures.get(position)))
+                        .toList())
+                .onErrorResume(ServiceUnavailableException.class, e -> Flux.fromIterable(chunk)
+                        .map(row -> new BatchItemResponse(row.index(), null, SERVICE_UNAVAILABLE.value(), e.getMessage())));
+    }
+
+    private Mono<User> hashPassword(final User user) {
+        if (user.getPassword() == null) {
+            return Mono.just(user);
+        }
+        return passwordHasher.hash(user.getPassword())
+                .map(hash -> {
+                    user.setPassword(hash);
+                    return user;
+                });
+    }
+
+    // Só chave duplicada é erro do cliente; qualquer outra falha do documento (validação do schema, documento grande
+    // demais) é 500 com a mensagem do banco, como no toBulkItem
+    private BatchItemResponse toBatchItem(final BatchRow row, final WriteFailure failure) {
+        if (failure != null && failure.isDuplicateKey()) {
+            metrics.recordError("saveAll", UserServiceMetrics.OUTCOME_DUPLICATE_KEY);
+            return new BatchItemResponse(row.index(), null, BAD_REQUEST.value(), DuplicateKeyMessages.resolve(failure.message()));
+        }
+        if (failure != null) {
+            metrics.recordError("saveAll", UserServiceMetrics.OUTCOME_ERROR);
+            return new BatchItemResponse(row.index(), null, INTERNAL_SERVER_ERROR.value(), failure.message());
+        }
+        emailFilter.add(row.user().getEmail());
+        return new BatchItemResponse(row.index(), row.user().getId(), CREATED.value(), null);
+    }
+
+    private record BatchRow(long index, User user, String error) { }
+
+    private UserSearch toSearch(final String mode, final String term, final int limit, final String cursor) {
+        final var searchMode = Arrays.stream(UserSearch.Mode.values())
+                .filter(value -> value.name().equalsIgnoreCase(mode))
+                .findFirst()
+                .orElseThrow(() -> new InvalidSearchException("mode: must be one of email, name, text"));
+
+        if (term == null || term.isBlank()) {
+            throw new InvalidSearchException("q: must not be blank");
+        }
+        final var trimmed = term.trim();
+        if (trimmed.length() > searchProperties.getMaxTermLength()) {
+            throw new InvalidSearchException("q: size must be at most " + searchProperties.getMaxTermLength());
+        }
+
+        if (cursor == null) {
+            return new UserSearch(searchMode, trimmed, null, null, 0, limit);
+        }
+        if (searchMode == UserSearch.Mode.TEXT) {
+            final int offset = UserCursor.decodeOffset(cursor);
+            if (offset >= searchProperties.getMaxTextResults()) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return new UserSearch(searchMode, trimmed, null, null, offset, limit);
+        }
+        final var after = UserCursor.decodeKeyset(cursor);
+        return new UserSearch(searchMode, trimmed, after[1], after[0], 0, limit);
+    }
+
+    private PageResponse<User> toSearchPage(final UserSearch search, final List<User> users, final int pageSize) {
+        if (users.size() <= pageSize) {
+            return new PageResponse<>(users, null);
+        }
+
+        final var content = users.subList(0, pageSize);
+        final var last = content.get(pageSize - 1);
+        final var next = switch (search.mode()) {
+            case EMAIL -> UserCursor.encode(last.getId(), last.getEmail());
+            case NAME -> UserCursor.encode(last.getId(), last.getName());
+            // Além de max-text-results não há próxima página: skip cresceria sem limite
+            case TEXT -> search.skip() + pageSize < searchProperties.getMaxTextResults()
+                    ? UserCursor.encodeOffset(search.skip() + pageSize)
+                    : null;
+        };
+        return new PageResponse<>(content, next);
+    }
+
+    private BulkRow toBulkRow(final long index, final String id, final UserRequest request, final boolean patch) {
+        final List<String> errors = new ArrayList<>();
+        if (id == null || id.isBlank()) {
+            errors.add("id: must not be null or empty");
+        }
+        if (patch && request == null) {
+            errors.add("changes: must not be null");
+        }
+
+        if (request != null) {
+            // PATCH parcial: campos ausentes (null) não são obrigatórios, só os enviados são validados
+            validator.validate(request).stream()
+                    .filter(violation -> violation.getInvalidValue() != null)
+                    .sorted(comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(this::formatViolation)
+                    .forEach(errors::add);
+        }
+
+        if (!errors.isEmpty()) {
+            return new BulkRow(index, id, null, String.join("; ", errors));
+        }
+        if (request == null) {
+            return new BulkRow(index, id, null, null);
+        }
+        final var changes = mapper.toEntity(request);
+        changes.setId(id);
+        return new BulkRow(index, id, changes, null);
+    }
+
+    // Confere quais ids existem (404 não conta como falha), grava os demais em um bulkWrite e monta o
+    // resultado na ordem do bloco. Em modo ordenado nada depois da primeira linha inválida vai para o banco
+    private Flux<BatchItemResponse> applyBulk(final String operation,
+                                              final List<BulkRow> chunk,
+                                              final boolean ordered,
+                                              final AtomicBoolean halted,
+                                              final Function<List<BulkRow>, Mono<Map<Integer, WriteFailure>>> writer,
+                                              final Consumer<BulkRow> onApplied) {
+        final int firstInvalid = ordered
+                ? IntStream.range(0, chunk.size()).filter(i -> chunk.get(i).error() != null).findFirst().orElse(chunk.size())
+                : chunk.size();
+        final List<BulkRow> valid = chunk.subList(0, firstInvalid).stream()
+                .filter(row -> row.error() == null)
+                .toList();
+
+        return existingIds(valid)
+                .flatMapMany(existing -> {
+                    final List<BulkRow> writes = valid.stream()
+                            .filter(row -> existing.contains(row.id()) && row.hasWrite())
+                            .toList();
+                    final Mono<Map<Integer, WriteFailure>> written = writes.isEmpty() ? Mono.just(Map.of()) : writer.apply(writes);
+
+                    return written.flatMapIterable(failures -> {
+                        final Map<Long, WriteFailure> failed = new HashMap<>();
+                        failures.forEach((position, failure) -> failed.put(writes.get(position).index(), failure));
+
+                        final List<BatchItemResponse> items = new ArrayList<>();
+                        for (final BulkRow row : chunk) {
+                            final var item = toBulkItem(operation, row, existing, failed.get(row.index()), onApplied);
+                            items.add(item);
+                            if (ordered && item.status() != OK.value() && item.status() != NOT_FOUND.value()) {
+                                halted.set(true);
+                                break;
+                            }
+                        }
+                        return items;
+                    });
+                });
+    }
+
+    private Mono<Set<String>> existingIds(final List<BulkRow> rows) {
+        if (rows.isEmpty()) {
+            return Mono.just(Collections.emptySet());
+        }
+        return guard.readMany("findAllById", repository.findAllById(rows.stream().map(BulkRow::id).toList(), Set.of()))
+                .map(User::getId)
+                .collect(toSet());
+    }
+
+    private BatchItemResponse toBulkItem(final String operation, final BulkRow row, final Set<String> existing,
+                                         final WriteFailure failure, final Consumer<BulkRow> onApplied) {
+        if (row.error() != null) {
+            metrics.recordError(operation, UserServiceMetrics.OUTCOME_VALIDATION);
+            return new BatchItemResponse(row.index(), row.id(), BAD_REQUEST.value(), row.error());
+        }
+        if (!existing.contains(row.id())) {
+            return new BatchItemResponse(row.index(), row.id(), NOT_FOUND.value(),
+                    ObjectNotFoundException.messageFor(row.id(), User.class));
+        }
+        if (failure != null && failure.isDuplicateKey()) {
+            metrics.recordError(operation, UserServiceMetrics.OUTCOME_DUPLICATE_KEY);
+            return new BatchItemResponse(row.index(), row.id(), BAD_REQUEST.value(), DuplicateKeyMessages.resolve(failure.message()));
+        }
+        if (failure != null) {
+            metrics.recordError(operation, UserServiceMetrics.OUTCOME_ERROR);
+            return new BatchItemResponse(row.index(), row.id(), INTERNAL_SERVER_ERROR.value(), failure.message());
+        }
+        onApplied.accept(row);
+        return new BatchItemResponse(row.index(), row.id(), OK.value(), null);
+    }
+
+    // changes nulo é um delete; changes sem nenhum campo é um PATCH vazio, que não precisa ir ao banco
+    private record BulkRow(long index, String id, User changes, String error) {
+        boolean hasWrite() {
+            return changes == null
+                    || changes.getName() != null
+                    || changes.getEmail() != null
+                    || changes.getPassword() != null;
+        }
     }
 
     // Método genérico que retorna uma exception para o objeto User caso o 'mono' esteja vazio
+    // Mono.error com supplier: a exceção só é criada quando o usuário não existe, não a cada leitura
     private <T> Mono<T> handleNotFound(Mono<T> mono, String id) {
-        return mono.switchIfEmpty(
-                Mono.error(
-                        new ObjectNotFoundException(
-                                format("Object not found. Id: %s, Type: %s", id, User.class.getSimpleName())
-                        )
-                ));
+        return mono.switchIfEmpty(Mono.error(() -> new ObjectNotFoundException(id, User.class)));
     }
 
 }
@@ -0,0 +1,110 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.service.exception.InvalidCursorException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidFieldsException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidIdsException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidSearchException;
+import com.vinnilmg.webfluxcourse.service.exception.ObjectNotFoundException;
+import com.vinnilmg.webfluxcourse.service.exception.PreconditionFailedException;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Latência (users.service) e erros (users.service.errors) por operação do UserService,
+// com a tag 'outcome' separando not_found, duplicate_key e validation dos demais erros
+@RequiredArgsConstructor
+@Component
+public class UserServiceMetrics {
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_NOT_FOUND = "not_found";
+    public static final String OUTCOME_DUPLICATE_KEY = "duplicate_key";
+    public static final String OUTCOME_VALIDATION = "validation";
+    private static final String OUTCOME_CONFLICT = "conflict";
+    private static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_ERROR = "error";
+    private static final String OUTCOME_CANCELLED = "cancelled";
+
+    private static final String TIMER_NAME = "users.service";
+    private static final String ERRORS_NAME = "users.service.errors";
+
+    private final MeterRegistry registry;
+
+    public <T> Mono<T> timed(final String operation, final Mono<T> source) {
+        return Mono.defer(() -> {
+            final var sample = Timer.start(registry);
+            return source
+                    .doOnSuccess(value -> stop(sample, operation, OUTCOME_SUCCESS))
+                    .doOnError(e -> {
+                        stop(sample, operation, outcome(e));
+                        recordError(operation, e);
+                    })
+                    .doOnCancel(() -> stop(sample, operation, OUTCOME_CANCELLED));
+        });
+    }
+
+    public <T> Flux<T> timed(final String operation, final Flux<T> source) {
+        return Flux.defer(() -> {
+            final var sample = Timer.start(registry);
+            return source
+                    .doOnComplete(() -> stop(sample, operation, OUTCOME_SUCCESS))
+                    .doOnError(e -> {
+                        stop(sample, operation, outcome(e));
+                        recordError(operation, e);
+                    })
+                    .doOnCancel(() -> stop(sample, operation, OUTCOME_CANCELLED));
+        });
+    }
+
+    public void recordError(final String operation, final Throwable error) {
+        recordError(operation, outcome(error));
+    }
+
+    public void recordError(final String operation, final String outcome) {
+        Counter.builder(ERRORS_NAME)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    public static String outcome(final Throwable error) {
+        if (error instanceof ObjectNotFoundException) {
+            return OUTCOME_NOT_FOUND;
+        }
+        if (error instanceof DuplicateKeyException) {
+            return OUTCOME_DUPLICATE_KEY;
+        }
+        if (error instanceof WebExchangeBindException
+                || error instanceof ValidationException
+                || error instanceof InvalidCursorException
+                || error instanceof InvalidFieldsException
+                || error instanceof InvalidIdsException
+                || error instanceof InvalidSearchException) {
+            return OUTCOME_VALIDATION;
+        }
+        if (error instanceof PreconditionFailedException || error instanceof OptimisticLockingFailureException) {
+            return OUTCOME_CONFLICT;
+        }
+        if (error instanceof ServiceUnavailableException) {
+            return OUTCOME_REJECTED;
+        }
+        return OUTCOME_ERROR;
+    }
+
+    private void stop(final Timer.Sample sample, final String operation, final String outcome) {
+        sample.stop(Timer.builder(TIMER_NAME)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+}
@@ -0,0 +1,26 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Preenche version = 0 nos usuários gravados antes do @Version, sem segurar a subida da aplicação
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class UserVersionInitializer {
+
+    private final UserRepository repository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeVersions() {
+        repository.initializeMissingVersions()
+                .subscribe(
+                        count -> log.info("Initialized version on {} users", count),
+                        e -> log.warn("Could not initialize user versions: {}", e.getMessage())
+                );
+    }
+}
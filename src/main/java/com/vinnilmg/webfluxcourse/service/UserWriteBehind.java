@@ -0,0 +1,209 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.UserWriteBehindProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import com.vinnilmg.webfluxcourse.repository.WriteFailure;
+import com.vinnilmg.webfluxcourse.service.exception.DuplicateEmailException;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import com.vinnilmg.webfluxcourse.service.wal.WriteAheadLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Modo write-behind do POST /users (users.write-behind.enabled): o cadastro validado, com a senha já em hash,
+// vai para o WriteAheadLog local e a requisição termina ali, com o id gerado aqui. Um único flusher esvazia o log no
+// Mongo em lotes de insertMany; o checkpoint só avança depois do lote gravado, então uma queda no meio reenvia o lote
+// na subida e a reconciliação abaixo descarta o que já tinha entrado.
+@Slf4j
+@Component
+public class UserWriteBehind implements DisposableBean {
+
+    private final UserRepository repository;
+    private final UserWriteBehindProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final WriteAheadLog wal;
+
+    // E-mails no log que ainda não chegaram ao Mongo: o existsByEmail não os enxerga
+    private final Set<String> pendingEmails = ConcurrentHashMap.newKeySet();
+
+    private Disposable flusher;
+
+    public UserWriteBehind(final UserRepository repository,
+                           final UserWriteBehindProperties properties,
+                           final MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.wal = properties.isEnabled() ? openLog() : null;
+    }
+
+    public boolean isEnabled() {
+        return wal != null;
+    }
+
+    // Grava o usuário no log com id e versão inicial definidos aqui. Log cheio vira 503: o flusher não está
+    // acompanhando e aceitar mais só aumentaria a perda numa falha do disco
+    public Mono<User> append(final User user) {
+        return Mono.fromCallable(() -> {
+                    if (!pendingEmails.add(user.getEmail())) {
+                        throw new DuplicateEmailException(user.getEmail());
+                    }
+                    user.setId(new ObjectId().toHexString());
+                    user.setVersion(0L);
+                    try {
+                        if (!wal.append(encode(user))) {
+                            throw new ServiceUnavailableException("Write-behind log is full, try again later.");
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        pendingEmails.remove(user.getEmail());
+                        throw e;
+                    }
+                    return user;
+                })
+                // msync do trecho gravado: fora do event loop
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (wal == null) {
+            return;
+        }
+        flusher = Flux.interval(properties.getFlushInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> drain(), 0)
+                .subscribe();
+    }
+
+    // Lotes cheios seguem direto para o próximo; um lote que falhou é relido da mesma posição e reenviado
+    Mono<Void> drain() {
+        return Mono.defer(this::flushBatch)
+                .subscribeOn(Schedulers.boundedElastic())
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getFlushInterval())
+                        .maxBackoff(properties.getMaxRetryBackoff())
+                        .doBeforeRetry(signal -> log.warn("Could not flush buffered users, retrying: {}",
+                                signal.failure().getMessage())))
+                .repeat()
+                .takeUntil(flushed -> flushed < properties.getBatchSize())
+                .then();
+    }
+
+    private Mono<Integer> flushBatch() {
+        final var batch = wal.read(properties.getBatchSize());
+        if (batch.records().isEmpty()) {
+            return Mono.just(0);
+        }
+        final List<User> users = batch.records().stream().map(this::decode).toList();
+
+        return repository.insertMany(users)
+                .flatMapMany(failures -> Flux.fromIterable(failures.entrySet()))
+                .concatMap(failure -> reconcile(users.get(failure.getKey()), failure.getValue()))
+                .then(Mono.fromCallable(() -> {
+                    wal.commit(batch);
+                    users.forEach(user -> pendingEmails.remove(user.getEmail()));
+                    meterRegistry.counter("users.write_behind.flushed").increment(users.size());
+                    return users.size();
+                }));
+    }
+
+    // Chave duplicada com o próprio id no banco: o documento entrou numa tentativa anterior (o _id repetido ou o
+    // e-mail que já é dele). Sem o id no banco, o e-mail tem outro dono e o cadastro é descartado (o cliente recebeu
+    // 202, mas o GET pelo id responde 404). O driver não expõe o keyPattern do erro, por isso a consulta pelo id
+    private Mono<Void> reconcile(final User user, final WriteFailure failure) {
+        if (!failure.isDuplicateKey()) {
+            drop(user, "rejected", failure);
+            return Mono.empty();
+        }
+        return repository.findById(user.getId(), Set.of("id"))
+                .hasElement()
+                .doOnNext(applied -> {
+                    if (!applied) {
+                        drop(user, "duplicate_email", failure);
+                    }
+                })
+                .then();
+    }
+
+    private void drop(final User user, final String reason, final WriteFailure failure) {
+        meterRegistry.counter("users.write_behind.dropped", "reason", reason).increment();
+        log.warn("Dropped buffered user {} ({}): {} {}", user.getId(), reason, failure.code(), failure.message());
+    }
+
+    @Override
+    public void destroy() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+    }
+
+    // Reabre o log e recarrega os e-mails ainda pendentes, que o flusher vai gravar a partir do checkpoint
+    private WriteAheadLog openLog() {
+        try {
+            final var opened = WriteAheadLog.open(
+                    Path.of(properties.getDirectory()),
+                    Math.toIntExact(properties.getSegmentSize().toBytes()),
+                    properties.getMaxSegments(),
+                    properties.isFsync());
+            for (var batch = opened.read(properties.getBatchSize());
+                 !batch.records().isEmpty();
+                 batch = opened.read(batch.next(), properties.getBatchSize())) {
+                batch.records().forEach(record -> pendingEmails.add(decode(record).getEmail()));
+            }
+            if (opened.pending() > 0) {
+                log.info("Replaying {} buffered users from {}", opened.pending(), properties.getDirectory());
+            }
+            Gauge.builder("users.write_behind.pending", opened, WriteAheadLog::pending).register(meterRegistry);
+            Gauge.builder("users.write_behind.segments", opened, WriteAheadLog::segments).register(meterRegistry);
+            return opened;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the write-behind log at " + properties.getDirectory(), e);
+        }
+    }
+
+    private byte[] encode(final User user) throws IOException {
+        final var bytes = new ByteArrayOutputStream(128);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeUTF(user.getId());
+            out.writeUTF(user.getName());
+            out.writeUTF(user.getEmail());
+            out.writeUTF(user.getPassword());
+        }
+        return bytes.toByteArray();
+    }
+
+    private User decode(final byte[] record) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(record))) {
+            return User.builder()
+                    .id(in.readUTF())
+                    .name(in.readUTF())
+                    .email(in.readUTF())
+                    .password(in.readUTF())
+                    .version(0L)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+import org.springframework.dao.DuplicateKeyException;
+
+// E-mail já cadastrado detectado antes da escrita; a mensagem segue o formato do erro E11000 do Mongo.
+// Sem stack trace, como os demais erros esperados (ver StacklessException)
+public class DuplicateEmailException extends DuplicateKeyException {
+    public DuplicateEmailException(String email) {
+        super(messageFor(email));
+    }
+
+    public static String messageFor(String email) {
+        return "email dup key: { email: \"" + email + "\" }";
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,13 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+public final class DuplicateKeyMessages {
+
+    private DuplicateKeyMessages() { }
+
+    public static String resolve(String message) {
+        if (message != null && message.contains("email dup key")) {
+            return "E-mail already exists.";
+        }
+        return "Dup key exception.";
+    }
+}
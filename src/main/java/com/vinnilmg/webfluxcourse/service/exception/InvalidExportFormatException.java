@@ -0,0 +1,7 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+public class InvalidExportFormatException extends StacklessException {
+    public InvalidExportFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+public class InvalidFieldsException extends StacklessException {
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
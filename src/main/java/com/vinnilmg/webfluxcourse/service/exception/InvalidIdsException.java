@@ -0,0 +1,7 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+public class InvalidIdsException extends StacklessException {
+    public InvalidIdsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+public class InvalidResumeTokenException extends StacklessException {
+    public InvalidResumeTokenException(String message) {
+        super(message);
+    }
+}
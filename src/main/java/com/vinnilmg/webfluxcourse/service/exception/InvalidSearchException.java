@@ -0,0 +1,7 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+public class InvalidSearchException extends StacklessException {
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+}
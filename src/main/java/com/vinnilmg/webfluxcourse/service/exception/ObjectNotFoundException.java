@@ -1,7 +1,16 @@
 package com.vinnilmg.webfluxcourse.service.exception;
 
-public class ObjectNotFoundException extends RuntimeException {
+public class ObjectNotFoundException extends StacklessException {
     public ObjectNotFoundException(String message) {
         super(message);
     }
+
+    public ObjectNotFoundException(String id, Class<?> type) {
+        super(messageFor(id, type));
+    }
+
+    // Concatenação simples em vez de String.format, que interpreta o padrão a cada chamada
+    public static String messageFor(String id, Class<?> type) {
+        return "Object not found. Id: " + id + ", Type: " + type.getSimpleName();
+    }
 }
@@ -0,0 +1,27 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+import lombok.Getter;
+
+// Chamada ao repositório recusada ou abandonada pelo UserRepositoryGuard; reason diz qual proteção atuou
+@Getter
+public class RepositoryUnavailableException extends ServiceUnavailableException {
+
+    public enum Reason { TIMEOUT, CIRCUIT_OPEN, BULKHEAD_FULL }
+
+    private final Reason reason;
+    private final String operation;
+
+    public RepositoryUnavailableException(final Reason reason, final String operation, final long retryAfterSeconds) {
+        super(messageFor(reason, operation), retryAfterSeconds);
+        this.reason = reason;
+        this.operation = operation;
+    }
+
+    private static String messageFor(final Reason reason, final String operation) {
+        return switch (reason) {
+            case TIMEOUT -> "Database timed out on " + operation + ", try again later.";
+            case CIRCUIT_OPEN -> "Database unavailable, try again later.";
+            case BULKHEAD_FULL -> "Too many concurrent database calls, try again later.";
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+public class ServiceUnavailableException extends StacklessException {
+
+    // Vira o Retry-After da resposta 503
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message) {
+        this(message, 1);
+    }
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
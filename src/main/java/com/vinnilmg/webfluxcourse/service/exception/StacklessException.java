@@ -0,0 +1,9 @@
+package com.vinnilmg.webfluxcourse.service.exception;
+
+// Base dos erros esperados de negócio (404, 400, 412, 503): viram resposta HTTP e nunca são logados com stack,
+// então não capturá-lo tira a parte mais cara de lançar a exceção em pipelines reativos profundos
+public abstract class StacklessException extends RuntimeException {
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,107 @@
+package com.vinnilmg.webfluxcourse.service.wal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// Arquivo de tamanho fixo mapeado em memória, só com appends: [tamanho][crc32c][payload]...
+// O restante do arquivo fica zerado; um registro cortado no meio por uma queda falha no CRC e marca o fim
+final class WalSegment {
+
+    static final int HEADER = 8;
+
+    private final long sequence;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+
+    // Publicado depois do registro escrito: quem lê até aqui enxerga os bytes completos
+    private volatile int writePosition;
+
+    private WalSegment(final long sequence, final Path path, final MappedByteBuffer buffer, final int writePosition) {
+        this.sequence = sequence;
+        this.path = path;
+        this.buffer = buffer;
+        this.writePosition = writePosition;
+    }
+
+    static WalSegment create(final Path path, final long sequence, final int size) throws IOException {
+        return new WalSegment(sequence, path, map(path, size), 0);
+    }
+
+    // Reabre um segmento existente e acha o fim dos registros válidos
+    static WalSegment open(final Path path, final long sequence, final int size) throws IOException {
+        final var buffer = map(path, Math.max(size, Math.toIntExact(Files.size(path))));
+        int offset = 0;
+        while (isValid(buffer, offset)) {
+            offset += HEADER + buffer.getInt(offset);
+        }
+        return new WalSegment(sequence, path, buffer, offset);
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    boolean hasRoom(final int payloadLength) {
+        return writePosition + HEADER + payloadLength <= buffer.capacity();
+    }
+
+    // Chamado sob o lock do WriteAheadLog: um escritor por vez
+    void append(final byte[] payload, final boolean fsync) {
+        final int offset = writePosition;
+        buffer.put(offset + HEADER, payload);
+        buffer.putInt(offset + 4, crc(payload));
+        buffer.putInt(offset, payload.length);
+        if (fsync) {
+            buffer.force(offset, HEADER + payload.length);
+        }
+        writePosition = offset + HEADER + payload.length;
+    }
+
+    byte[] read(final int offset) {
+        final var payload = new byte[buffer.getInt(offset)];
+        buffer.get(offset + HEADER, payload);
+        return payload;
+    }
+
+    // O mapeamento é liberado pelo GC; o arquivo já pode ser apagado
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private static boolean isValid(final MappedByteBuffer buffer, final int offset) {
+        if (offset + HEADER > buffer.capacity()) {
+            return false;
+        }
+        final int length = buffer.getInt(offset);
+        if (length <= 0 || length > buffer.capacity() - offset - HEADER) {
+            return false;
+        }
+        final var payload = new byte[length];
+        buffer.get(offset + HEADER, payload);
+        return buffer.getInt(offset + 4) == crc(payload);
+    }
+
+    private static int crc(final byte[] payload) {
+        final var crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static MappedByteBuffer map(final Path path, final int size) throws IOException {
+        try (var channel = FileChannel.open(path, CREATE, READ, WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
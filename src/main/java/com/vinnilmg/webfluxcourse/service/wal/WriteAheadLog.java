@@ -0,0 +1,224 @@
+package com.vinnilmg.webfluxcourse.service.wal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// Log local, limitado e durável: segmentos segment-<sequência>.wal de tamanho fixo e um arquivo checkpoint com a
+// posição até onde os registros já foram consumidos. Segmentos inteiramente consumidos são apagados; ao reabrir,
+// a leitura recomeça do checkpoint. Um escritor por vez (append) e um único leitor (read/commit).
+public class WriteAheadLog {
+
+    private static final Pattern SEGMENT = Pattern.compile("segment-(\\d+)\\.wal");
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int RECOVERY_BATCH = 1024;
+
+    public record Position(long segment, int offset) { }
+
+    // Registros lidos e a posição logo depois do último, a ser confirmada com commit
+    public record Batch(List<byte[]> records, Position next) { }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean fsync;
+    private final Deque<WalSegment> segments = new ArrayDeque<>();
+    private final AtomicLong pending = new AtomicLong();
+
+    private volatile Position committed;
+
+    private WriteAheadLog(final Path directory, final int segmentSize, final int maxSegments, final boolean fsync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.fsync = fsync;
+    }
+
+    public static WriteAheadLog open(final Path directory,
+                                     final int segmentSize,
+                                     final int maxSegments,
+                                     final boolean fsync) throws IOException {
+        Files.createDirectories(directory);
+        final var log = new WriteAheadLog(directory, segmentSize, maxSegments, fsync);
+        log.recover();
+        return log;
+    }
+
+    // false quando o registro não cabe no segmento atual e todos os maxSegments estão ocupados
+    public synchronized boolean append(final byte[] record) throws IOException {
+        if (WalSegment.HEADER + record.length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + record.length + " bytes does not fit in a segment");
+        }
+        var tail = segments.getLast();
+        if (!tail.hasRoom(record.length)) {
+            if (segments.size() >= maxSegments && !releaseConsumedHead()) {
+                return false;
+            }
+            tail = WalSegment.create(segmentPath(tail.sequence() + 1), tail.sequence() + 1, segmentSize);
+            segments.addLast(tail);
+            if (fsync) {
+                syncDirectory();
+            }
+        }
+        tail.append(record, fsync);
+        pending.incrementAndGet();
+        return true;
+    }
+
+    // Até max registros a partir do último commit. Sem commit, a próxima leitura devolve os mesmos registros
+    public Batch read(final int max) {
+        return read(committed, max);
+    }
+
+    public Batch read(final Position from, final int max) {
+        final List<WalSegment> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments);
+        }
+
+        final List<byte[]> records = new ArrayList<>();
+        long sequence = from.segment();
+        int offset = from.offset();
+        for (final WalSegment segment : snapshot) {
+            if (records.size() >= max) {
+                break;
+            }
+            if (segment.sequence() < sequence) {
+                continue;
+            }
+            if (segment.sequence() > sequence) {
+                sequence = segment.sequence();
+                offset = 0;
+            }
+            final int end = segment.writePosition();
+            while (records.size() < max && offset < end) {
+                final var record = segment.read(offset);
+                records.add(record);
+                offset += WalSegment.HEADER + record.length;
+            }
+        }
+        return new Batch(records, new Position(sequence, offset));
+    }
+
+    // Grava o checkpoint (arquivo temporário + rename atômico) e apaga os segmentos anteriores à posição
+    public void commit(final Batch batch) throws IOException {
+        final var next = batch.next();
+        final var temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (var channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(12).putLong(next.segment()).putInt(next.offset()).flip());
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT), ATOMIC_MOVE, REPLACE_EXISTING);
+        syncDirectory();
+        committed = next;
+        pending.addAndGet(-batch.records().size());
+
+        final List<WalSegment> consumed = new ArrayList<>();
+        synchronized (this) {
+            while (segments.size() > 1 && segments.getFirst().sequence() < next.segment()) {
+                consumed.add(segments.removeFirst());
+            }
+        }
+        for (final WalSegment segment : consumed) {
+            segment.delete();
+        }
+    }
+
+    public Position committed() {
+        return committed;
+    }
+
+    // Registros gravados e ainda não confirmados
+    public long pending() {
+        return pending.get();
+    }
+
+    public synchronized int segments() {
+        return segments.size();
+    }
+
+    // O commit mantém o segmento da posição confirmada; consumido até o fim, ele já pode dar lugar a um novo
+    private boolean releaseConsumedHead() throws IOException {
+        final var head = segments.getFirst();
+        final var position = committed;
+        if (position.segment() != head.sequence() || position.offset() < head.writePosition()) {
+            return false;
+        }
+        segments.removeFirst();
+        head.delete();
+        return true;
+    }
+
+    private void recover() throws IOException {
+        committed = readCheckpoint();
+
+        final List<Long> sequences;
+        try (Stream<Path> files = Files.list(directory)) {
+            sequences = files
+                    .map(file -> SEGMENT.matcher(file.getFileName().toString()))
+                    .filter(matcher -> matcher.matches())
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+
+        for (final long sequence : sequences) {
+            if (sequence < committed.segment()) {
+                Files.deleteIfExists(segmentPath(sequence));
+            } else {
+                segments.addLast(WalSegment.open(segmentPath(sequence), sequence, segmentSize));
+            }
+        }
+        // Log vazio (ou segmentos removidos à mão): recomeça no início de um segmento novo
+        if (segments.isEmpty()) {
+            committed = new Position(committed.segment(), 0);
+            segments.addLast(WalSegment.create(segmentPath(committed.segment()), committed.segment(), segmentSize));
+            if (fsync) {
+                syncDirectory();
+            }
+        }
+
+        long unconsumed = 0;
+        for (var batch = read(RECOVERY_BATCH); !batch.records().isEmpty(); batch = read(batch.next(), RECOVERY_BATCH)) {
+            unconsumed += batch.records().size();
+        }
+        pending.set(unconsumed);
+    }
+
+    private Position readCheckpoint() throws IOException {
+        final var file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return new Position(0, 0);
+        }
+        final var checkpoint = ByteBuffer.wrap(Files.readAllBytes(file));
+        return new Position(checkpoint.getLong(), checkpoint.getInt());
+    }
+
+    // Criar ou renomear um arquivo altera o diretório: sem o fsync dele, uma queda pode perder o segmento novo
+    // (e os registros já confirmados nele) ou o rename do checkpoint, mesmo com o conteúdo do arquivo em disco
+    private void syncDirectory() throws IOException {
+        try (var channel = FileChannel.open(directory, READ)) {
+            channel.force(true);
+        }
+    }
+
+    private Path segmentPath(final long sequence) {
+        return directory.resolve("segment-%020d.wal".formatted(sequence));
+    }
+}
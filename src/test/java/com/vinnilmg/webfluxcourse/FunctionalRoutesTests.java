@@ -0,0 +1,200 @@
+package com.vinnilmg.webfluxcourse;
+
+import com.vinnilmg.webfluxcourse.controller.functional.UserHandler;
+import com.vinnilmg.webfluxcourse.controller.impl.UserControllerImpl;
+import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = { "users.in-memory.latency=0ms", "users.web.mode=functional" })
+@AutoConfigureWebTestClient
+@ActiveProfiles("loadtest")
+class FunctionalRoutesTests {
+
+    private static final String ENDPOINT_USERS = "/users";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private CompletionRecorder completions;
+
+    @Test
+    @DisplayName("Test functional mode replaces the controller with the router")
+    void testFunctionalModeIsActive() {
+        assertThat(context.getBeansOfType(UserHandler.class)).hasSize(1);
+        assertThat(context.getBeansOfType(UserControllerImpl.class)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test functional routes keep the controller responses")
+    void testCrudOnFunctionalRoutes() {
+        webTestClient.post()
+                .uri(ENDPOINT_USERS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Joaozinho", "joao@mail.com", "password123"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        final var id = webTestClient.get()
+                .uri(ENDPOINT_USERS)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UserResponse.class)
+                .getResponseBody()
+                .blockFirst()
+                .id();
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("?limit=10"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].id").isEqualTo(id);
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/").concat(id).concat("?fields=email"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("joao@mail.com")
+                .jsonPath("$.name").doesNotExist();
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("?ids=").concat(id).concat(",000000000000000000000000"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1);
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.patch()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Joao", null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Joao");
+
+        webTestClient.patch()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Joana", null, null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/export?format=csv&fields=id,email"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .isEqualTo("id,email\r\n" + id + ",joao@mail.com\r\n");
+
+        webTestClient.delete()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.path").isEqualTo(ENDPOINT_USERS.concat("/").concat(id))
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").isEqualTo("Object not found. Id: " + id + ", Type: User");
+    }
+
+    @Test
+    @DisplayName("Test functional errors complete the filter chain with their status")
+    void testErrorsAreResolvedBeforeTheFilterChainCompletes() {
+        final var id = "000000000000000000000000";
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        // Sem passar pelo WebExceptionHandler: o access log e o RateLimitFilter veem ON_COMPLETE com o 404
+        assertThat(completions.signals).contains(SignalType.ON_COMPLETE + " 404");
+    }
+
+    @Test
+    @DisplayName("Test functional save validates the body like @Valid")
+    void testSaveWithValidationError() {
+        webTestClient.post()
+                .uri(ENDPOINT_USERS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest(" Joao", "joao@mail.com", "password123"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.path").isEqualTo(ENDPOINT_USERS)
+                .jsonPath("$.error").isEqualTo("Validation Error")
+                .jsonPath("$.errors[0].fieldName").isEqualTo("name")
+                .jsonPath("$.errors[0].message").isEqualTo("field cannot have blank spaces at the end or the begin");
+    }
+
+    @Test
+    @DisplayName("Test functional routes map query errors to 400")
+    void testInvalidFields() {
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("?fields=password"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400);
+    }
+
+    // Registra como a cadeia de filtros terminou e com qual status
+    @TestConfiguration
+    static class CompletionRecorder implements WebFilter {
+
+        private final Queue<String> signals = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+            return chain.filter(exchange).doFinally(signal -> {
+                final var status = exchange.getResponse().getStatusCode();
+                signals.add(signal + " " + (status == null ? null : status.value()));
+            });
+        }
+    }
+}
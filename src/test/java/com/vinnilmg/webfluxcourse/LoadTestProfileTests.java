@@ -0,0 +1,282 @@
+package com.vinnilmg.webfluxcourse;
+
+import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.PageResponse;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import com.vinnilmg.webfluxcourse.repository.impl.InMemoryUserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "users.in-memory.latency=0ms")
+@AutoConfigureWebTestClient
+@AutoConfigureObservability
+@ActiveProfiles("loadtest")
+class LoadTestProfileTests {
+
+    private static final String ENDPOINT_USERS = "/users";
+    private static final ParameterizedTypeReference<ServerSentEvent<UserResponse>> CHANGE_EVENT =
+            new ParameterizedTypeReference<>() { };
+    private static final ParameterizedTypeReference<PageResponse<UserResponse>> PAGE =
+            new ParameterizedTypeReference<>() { };
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Test
+    @DisplayName("Test loadtest profile runs the API on the in-memory repository")
+    void testCrudOnInMemoryRepository() {
+        assertThat(repository).isInstanceOf(InMemoryUserRepository.class);
+
+        webTestClient.post()
+                .uri(ENDPOINT_USERS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Mariazinha", "maria@mail.com", "password123"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        final var id = webTestClient.get()
+                .uri(ENDPOINT_USERS)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UserResponse.class)
+                .getResponseBody()
+                .blockFirst()
+                .id();
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/").concat(id).concat("?fields=email"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$.email").isEqualTo("maria@mail.com")
+                .jsonPath("$.name").doesNotExist()
+                .jsonPath("$.password").doesNotExist();
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("?ids=").concat(id).concat(",000000000000000000000000"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(id);
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.patch()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Maria", null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Maria")
+                .jsonPath("$.email").isEqualTo("maria@mail.com");
+
+        // Segundo PATCH com a versão antiga perde a corrida
+        webTestClient.patch()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Mariana", null, null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        webTestClient.post()
+                .uri(ENDPOINT_USERS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Outra Maria", "maria@mail.com", "password123"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("E-mail already exists.");
+
+        webTestClient.delete()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Test search by e-mail prefix, name prefix and text with keyset pagination")
+    void testSearch() {
+        for (final var name : List.of("Zéfiro Alves", "zefiro Brito", "Zenon Costa")) {
+            webTestClient.post()
+                    .uri(ENDPOINT_USERS)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new UserRequest(name, name.toLowerCase().replace(' ', '.') + "@search.com", "password123"))
+                    .exchange()
+                    .expectStatus().isCreated();
+        }
+
+        // Nome sem diferenciar maiúsculas nem acentos, uma página por vez
+        final var next = webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/search?mode=name&q=ZEF&limit=1"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PAGE)
+                .returnResult()
+                .getResponseBody();
+        assertThat(next.content()).extracting(UserResponse::name).containsExactly("Zéfiro Alves");
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/search?mode=name&q=ZEF&limit=1&after=").concat(next.next()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].name").isEqualTo("zefiro Brito")
+                .jsonPath("$.next").doesNotExist();
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/search?mode=email&q=ZENON."))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].email").isEqualTo("zenon.costa@search.com");
+
+        final var text = webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/search?mode=text&q=brito costa"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PAGE)
+                .returnResult()
+                .getResponseBody();
+        assertThat(text.content()).extracting(UserResponse::name).containsExactlyInAnyOrder("zefiro Brito", "Zenon Costa");
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/search?mode=regex&q=z"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("mode: must be one of email, name, text");
+
+        // Sem users.search.explain o endpoint de depuração não existe
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/search/explain?mode=name&q=z"))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        // Remove os usuários para não interferir nos outros testes que leem a coleção inteira
+        text.content().forEach(user -> webTestClient.delete().uri(ENDPOINT_USERS.concat("/").concat(user.id())).exchange());
+        webTestClient.delete().uri(ENDPOINT_USERS.concat("/").concat(next.content().get(0).id())).exchange();
+    }
+
+    @Test
+    @DisplayName("Test service metrics are exposed in Prometheus format")
+    void testPrometheusEndpoint() {
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/unknown-id"))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> assertThat(body)
+                        .contains("users_service_seconds_count{operation=\"findById\",outcome=\"not_found\",}")
+                        .contains("users_service_seconds_bucket")
+                        .contains("http_server_requests_seconds_count"));
+    }
+
+    @Test
+    @DisplayName("Test changes endpoint pushes writes and resumes from Last-Event-ID")
+    void testChangesStreamAndResume() {
+        final var insert = new AtomicReference<ServerSentEvent<UserResponse>>();
+
+        StepVerifier.create(changes(null))
+                .then(() -> webTestClient.post()
+                        .uri(ENDPOINT_USERS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new UserRequest("Joaozinho", "joao.changes@mail.com", "password123"))
+                        .exchange()
+                        .expectStatus().isCreated())
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo("insert");
+                    assertThat(event.data().email()).isEqualTo("joao.changes@mail.com");
+                    insert.set(event);
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        final var id = insert.get().data().id();
+        webTestClient.patch()
+                .uri(ENDPOINT_USERS.concat("/").concat(id))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserRequest("Joao", null, null))
+                .exchange()
+                .expectStatus().isOk();
+
+        // Reconectando com o id do último evento recebido, o PATCH feito enquanto estava desconectado é entregue
+        StepVerifier.create(changes(insert.get().id()))
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo("update");
+                    assertThat(event.data().id()).isEqualTo(id);
+                    assertThat(event.data().name()).isEqualTo("Joao");
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/changes"))
+                .header("Last-Event-ID", "not-a-token")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    // Só os eventos de alteração, sem os comentários de keep-alive
+    private Flux<ServerSentEvent<UserResponse>> changes(final String lastEventId) {
+        return webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/changes"))
+                .headers(headers -> {
+                    if (lastEventId != null) {
+                        headers.set("Last-Event-ID", lastEventId);
+                    }
+                })
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CHANGE_EVENT)
+                .getResponseBody()
+                .filter(event -> event.event() != null);
+    }
+}
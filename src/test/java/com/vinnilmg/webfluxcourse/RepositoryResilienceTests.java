@@ -0,0 +1,84 @@
+package com.vinnilmg.webfluxcourse;
+
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.FaultInjectingUserRepository;
+import com.vinnilmg.webfluxcourse.repository.impl.InMemoryUserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// API inteira sobre o FaultInjectingUserRepository: banco lento ou fora do ar tem que virar 503 rápido
+@SpringBootTest(properties = {
+        "users.in-memory.latency=0ms",
+        "users.cache.enabled=false",
+        "users.repository.timeouts.findById=200ms",
+        "users.repository.circuit-breaker.window-size=4",
+        "users.repository.circuit-breaker.minimum-calls=4",
+        "users.repository.circuit-breaker.open-duration=30s"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles("loadtest")
+class RepositoryResilienceTests {
+
+    private static final String ENDPOINT_USERS = "/users";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private FaultInjectingUserRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        repository.reset();
+    }
+
+    @Test
+    @DisplayName("Test a hanging database answers 503 at the operation timeout and then fast once the circuit opens")
+    void testSlowDatabaseFailsFastWith503() {
+        final var id = repository.save(User.builder().name("Vini").email("vini@resilience.com").build()).block().getId();
+        repository.hangNext(4);
+
+        IntStream.range(0, 4).forEach(i -> webTestClient.get()
+                .uri(ENDPOINT_USERS + "/" + id)
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Database timed out on findById, try again later."));
+
+        final int calls = repository.calls();
+        webTestClient.mutate().responseTimeout(Duration.ofMillis(100)).build().get()
+                .uri(ENDPOINT_USERS + "/" + id)
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().value(HttpHeaders.RETRY_AFTER, retryAfter -> assertThat(Long.parseLong(retryAfter)).isGreaterThan(1))
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Database unavailable, try again later.");
+        assertThat(repository.calls()).isEqualTo(calls);
+    }
+
+    @TestConfiguration
+    static class FaultInjection {
+
+        @Bean
+        @Primary
+        FaultInjectingUserRepository faultInjectingUserRepository(final InMemoryUserRepository delegate) {
+            return new FaultInjectingUserRepository(delegate);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.vinnilmg.webfluxcourse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Servidor de verdade: a compressão é do Reactor Netty (server.compression)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "users.in-memory.latency=0ms")
+@ActiveProfiles("loadtest")
+class ResponseCompressionTests {
+
+    private static final String ENDPOINT_USERS = "/users";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        if (repository.findPage(null, 1, Set.of("id")).hasElements().block()) {
+            return;
+        }
+        repository.insertMany(IntStream.range(0, 50)
+                .mapToObj(i -> User.builder()
+                        .name("Usuário " + i)
+                        .email("usuario" + i + "@compression.com")
+                        .password("hash")
+                        .build())
+                .toList()).block();
+    }
+
+    @Test
+    @DisplayName("Test large JSON responses are gzipped when the client accepts it")
+    void testCompressesLargeJsonResponses() throws IOException, InterruptedException {
+        final var response = get("?limit=100", "gzip");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            final var json = gzip.readAllBytes();
+            assertThat(objectMapper.readTree(json).get("content")).hasSize(50);
+            assertThat(response.body().length).isLessThan(json.length / 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Test small responses and clients without Accept-Encoding stay uncompressed")
+    void testSkipsSmallResponsesAndIdentityClients() throws IOException, InterruptedException {
+        final var small = get("?limit=1", "gzip");
+        assertThat(small.statusCode()).isEqualTo(200);
+        assertThat(small.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+
+        final var identity = get("?limit=100", "identity");
+        assertThat(identity.statusCode()).isEqualTo(200);
+        assertThat(identity.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        assertThat(objectMapper.readTree(identity.body()).get("content")).hasSize(50);
+    }
+
+    // O conector do WebTestClient descomprime sozinho e some com o Content-Encoding: aqui vai um cliente cru
+    private HttpResponse<byte[]> get(final String query, final String acceptEncoding) throws IOException, InterruptedException {
+        final var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + ENDPOINT_USERS + query))
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,81 @@
+package com.vinnilmg.webfluxcourse.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MongoClientConfigTest {
+
+    private final MongoClientProperties properties = new MongoClientProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MongoClientConfig config = new MongoClientConfig(properties, meterRegistry);
+
+    @Test
+    void testOverridesConnectionStringSettings() {
+        properties.setMaxPoolSize(20);
+        properties.setMaxWait(Duration.ofMillis(250));
+        properties.setReadPreference("nearest");
+        properties.setCompressors(List.of("zstd", "zlib"));
+        final var builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://localhost/?maxPoolSize=500&waitQueueTimeoutMS=120000"));
+
+        config.customize(builder);
+        final var settings = builder.build();
+
+        assertThat(settings.getConnectionPoolSettings().getMaxSize()).isEqualTo(20);
+        assertThat(settings.getConnectionPoolSettings().getMinSize()).isEqualTo(10);
+        assertThat(settings.getConnectionPoolSettings().getMaxWaitTime(MILLISECONDS)).isEqualTo(250);
+        assertThat(settings.getSocketSettings().getConnectTimeout(MILLISECONDS)).isEqualTo(2000);
+        assertThat(settings.getSocketSettings().getReadTimeout(MILLISECONDS)).isEqualTo(10000);
+        assertThat(settings.getClusterSettings().getServerSelectionTimeout(MILLISECONDS)).isEqualTo(5000);
+        assertThat(settings.getCompressorList()).extracting(MongoCompressor::getName).containsExactly("zstd", "zlib");
+        assertThat(settings.getReadPreference()).isEqualTo(ReadPreference.nearest());
+    }
+
+    @Test
+    void testKeepsReadPreferenceFromConnectionStringWhenNotConfigured() {
+        final var builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://localhost/?readPreference=secondary"));
+
+        config.customize(builder);
+
+        assertThat(builder.build().getReadPreference()).isEqualTo(ReadPreference.secondary());
+    }
+
+    @Test
+    void testCountsCheckOutFailuresByReason() {
+        final var builder = MongoClientSettings.builder();
+        config.customize(builder);
+        final var listener = builder.build().getConnectionPoolSettings().getConnectionPoolListeners().get(0);
+        final var serverId = new ServerId(new ClusterId(), new ServerAddress());
+
+        listener.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(serverId, ConnectionCheckOutFailedEvent.Reason.TIMEOUT));
+        listener.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(serverId, ConnectionCheckOutFailedEvent.Reason.TIMEOUT));
+
+        assertThat(meterRegistry.get("users.mongo.pool.checkout.failed").tag("reason", "timeout").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void testRejectsUnknownCompressor() {
+        properties.setCompressors(List.of("lz4"));
+
+        assertThatThrownBy(() -> config.customize(MongoClientSettings.builder()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown Mongo compressor: lz4");
+    }
+}
@@ -2,10 +2,21 @@ package com.vinnilmg.webfluxcourse.controller;
 
 import com.mongodb.reactivestreams.client.MongoClient;
 import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.filter.AccessLogFilter;
 import com.vinnilmg.webfluxcourse.mapper.UserMapper;
+import com.vinnilmg.webfluxcourse.model.request.BulkDeleteRequest;
+import com.vinnilmg.webfluxcourse.model.request.BulkPatchRequest;
 import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.BatchItemResponse;
+import com.vinnilmg.webfluxcourse.model.response.PageResponse;
 import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import com.vinnilmg.webfluxcourse.repository.UserChange;
+import com.vinnilmg.webfluxcourse.service.UserFields;
 import com.vinnilmg.webfluxcourse.service.UserService;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidCursorException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidResumeTokenException;
+import com.vinnilmg.webfluxcourse.service.exception.PreconditionFailedException;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,18 +24,43 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
@@ -62,6 +98,48 @@ class UserControllerImplTest {
         verify(service).save(any(UserRequest.class)); // Default: times == 1
     }
 
+    @Test
+    @DisplayName("Test endpoint save in write-behind mode then return accepted with the generated id")
+    void testSaveInWriteBehindMode() {
+        final var request = makeUserRequest("Mariazinha", "maria@mail.com", "password123");
+        final var user = User.builder().id("64b7f0c2a1b2c3d4e5f60718").name("Mariazinha").email("maria@mail.com").build();
+
+        when(service.isWriteBehind()).thenReturn(true);
+        when(service.save(any(UserRequest.class))).thenReturn(Mono.just(user));
+        when(mapper.toResponse(user)).thenReturn(new UserResponse(user.getId(), user.getName(), user.getEmail()));
+
+        webTestClient.post()
+                .uri(ENDPOINT_USERS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(request))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().valueEquals(HttpHeaders.LOCATION, ENDPOINT_USERS + "/64b7f0c2a1b2c3d4e5f60718")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("64b7f0c2a1b2c3d4e5f60718")
+                .jsonPath("$.email").isEqualTo("maria@mail.com");
+    }
+
+    @Test
+    @DisplayName("Test endpoint save when password hashing is saturated then return service unavailable")
+    void testSaveWhenHashingIsSaturated() {
+        final var request = makeUserRequest("Mariazinha", "maria@mail.com", "password123");
+
+        when(service.save(any(UserRequest.class)))
+                .thenReturn(Mono.error(new ServiceUnavailableException("Password hashing capacity exceeded, try again later.")));
+
+        webTestClient.post()
+                .uri(ENDPOINT_USERS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(request))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .jsonPath("$.message").isEqualTo("Password hashing capacity exceeded, try again later.");
+    }
+
     @Test
     @DisplayName("Test endpoint save with invalid name then return bad request")
     void testSaveWithInvalidNameBadRequest() {
@@ -122,16 +200,69 @@ class UserControllerImplTest {
                 .jsonPath("$.errors[0].message").isEqualTo("invalid e-mail");
     }
 
+    @Test
+    @DisplayName("Test batch save endpoint with a JSON array")
+    void testSaveAllWithJsonArray() {
+        final var requests = List.of(
+                makeUserRequest("Mariazinha", "maria@mail.com", "password123"),
+                makeUserRequest("Joaozinho", "joao@mail.com", "password123")
+        );
+
+        when(service.saveAll(any())).thenAnswer(invocation -> invocation.<Flux<UserRequest>>getArgument(0)
+                .index((index, request) -> new BatchItemResponse(index, "id-" + index, CREATED.value(), null)));
+
+        webTestClient.post()
+                .uri(ENDPOINT_USERS.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(requests))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$.[1].index").isEqualTo(1)
+                .jsonPath("$.[1].id").isEqualTo("id-1")
+                .jsonPath("$.[1].status").isEqualTo(CREATED.value());
+    }
+
+    @Test
+    @DisplayName("Test batch save endpoint with a NDJSON stream")
+    void testSaveAllWithNdjsonStream() {
+        final var body = """
+                {"name":"Mariazinha","email":"maria@mail.com","password":"password123"}
+                {"name":"Joaozinho","email":"maria@mail.com","password":"password123"}
+                """;
+
+        when(service.saveAll(any())).thenAnswer(invocation -> invocation.<Flux<UserRequest>>getArgument(0)
+                .index((index, request) -> index == 0
+                        ? new BatchItemResponse(index, "id-0", CREATED.value(), null)
+                        : new BatchItemResponse(index, null, BAD_REQUEST.value(), "E-mail already exists.")));
+
+        final var result = webTestClient.post()
+                .uri(ENDPOINT_USERS.concat("/batch"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BatchItemResponse.class);
+
+        StepVerifier.create(result.getResponseBody())
+                .expectNext(new BatchItemResponse(0L, "id-0", CREATED.value(), null))
+                .expectNext(new BatchItemResponse(1L, null, BAD_REQUEST.value(), "E-mail already exists."))
+                .expectComplete()
+                .verify();
+    }
+
     @Test
     @DisplayName("Test find by id endpoint with success")
     void testFindByIdWithSuccess() {
         final var id = "12345";
         final var name = "Vinicius";
         final var email = "vini@mail.com";
-        final var password = "password123";
-        final var response = new UserResponse(id, name, email, password);
+        final var response = new UserResponse(id, name, email);
 
-        when(service.findById(anyString())).thenReturn(Mono.just(User.builder().build()));
+        when(service.findById(anyString(), any())).thenReturn(Mono.just(User.builder().build()));
         when(mapper.toResponse(any(User.class))).thenReturn(response);
 
         webTestClient.get()
@@ -143,7 +274,67 @@ class UserControllerImplTest {
                 .jsonPath("$.id").isEqualTo(id)
                 .jsonPath("$.name").isEqualTo(name)
                 .jsonPath("$.email").isEqualTo(email)
-                .jsonPath("$.password").isEqualTo(password);
+                .jsonPath("$.password").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Test find by id endpoint returns the version as ETag")
+    void testFindByIdReturnsETag() {
+        when(service.findById(anyString(), any())).thenReturn(Mono.just(User.builder().version(7L).build()));
+        when(mapper.toResponse(any(User.class))).thenReturn(new UserResponse("1", "Vini", "vini@mail.com"));
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/1"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"7\"");
+    }
+
+    @Test
+    @DisplayName("Test find by id endpoint with matching If-None-Match then return not modified without fetching")
+    void testFindByIdNotModified() {
+        when(service.findVersion(anyString())).thenReturn(Mono.just(7L));
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/1"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"7\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"7\"")
+                .expectBody().isEmpty();
+
+        verify(service, never()).findById(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Test find by id endpoint with stale If-None-Match then return the full body")
+    void testFindByIdModified() {
+        when(service.findVersion(anyString())).thenReturn(Mono.just(8L));
+        when(service.findById(anyString(), any())).thenReturn(Mono.just(User.builder().version(8L).build()));
+        when(mapper.toResponse(any(User.class))).thenReturn(new UserResponse("1", "Vini", "vini@mail.com"));
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/1"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"7\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"8\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("Test correlation id is echoed back on the response")
+    void testCorrelationIdHeader() {
+        when(service.findById(anyString(), any())).thenReturn(Mono.just(User.builder().build()));
+        when(mapper.toResponse(any(User.class))).thenReturn(new UserResponse("1", "Vini", "vini@mail.com"));
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/1"))
+                .header(AccessLogFilter.CORRELATION_ID_HEADER, "my-correlation-id")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(AccessLogFilter.CORRELATION_ID_HEADER, "my-correlation-id");
     }
 
     @Test
@@ -152,10 +343,10 @@ class UserControllerImplTest {
         final var id = "12345";
         final var name = "Vinicius";
         final var email = "vini@mail.com";
-        final var password = "password123";
-        final var response = new UserResponse(id, name, email, password);
+        final var response = new UserResponse(id, name, email);
 
-        when(service.findAll()).thenReturn(Flux.just(User.builder().build()));
+        when(service.findPage(any(), any(), any()))
+                .thenReturn(Mono.just(new PageResponse<>(List.of(User.builder().build()), "next-token")));
         when(mapper.toResponse(any(User.class))).thenReturn(response);
 
         webTestClient.get()
@@ -164,10 +355,212 @@ class UserControllerImplTest {
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody()
-                .jsonPath("$.[0].id").isEqualTo(id)
-                .jsonPath("$.[0].name").isEqualTo(name)
-                .jsonPath("$.[0].email").isEqualTo(email)
-                .jsonPath("$.[0].password").isEqualTo(password);
+                .jsonPath("$.content[0].id").isEqualTo(id)
+                .jsonPath("$.content[0].name").isEqualTo(name)
+                .jsonPath("$.content[0].email").isEqualTo(email)
+                .jsonPath("$.content[0].password").doesNotExist()
+                .jsonPath("$.next").isEqualTo("next-token");
+    }
+
+    @Test
+    @DisplayName("Test find all endpoint passing limit and cursor")
+    void testFindAllWithLimitAndCursor() {
+        when(service.findPage(anyInt(), anyString(), any())).thenReturn(Mono.just(new PageResponse<>(List.of(), null)));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(ENDPOINT_USERS)
+                        .queryParam("limit", 10)
+                        .queryParam("after", "abc")
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content").isEmpty()
+                .jsonPath("$.next").doesNotExist();
+
+        verify(service).findPage(10, "abc", UserFields.DEFAULT);
+    }
+
+    @Test
+    @DisplayName("Test find by id endpoint with a sparse fieldset")
+    void testFindByIdWithFields() {
+        final var id = "12345";
+
+        when(service.findById(anyString(), any())).thenReturn(Mono.just(User.builder().build()));
+        when(mapper.toResponse(any(User.class))).thenReturn(new UserResponse(id, null, "vini@mail.com"));
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/").concat(id).concat("?fields=id, email"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$.email").isEqualTo("vini@mail.com")
+                .jsonPath("$.name").doesNotExist();
+
+        verify(service).findById(id, Set.of("email"));
+    }
+
+    @Test
+    @DisplayName("Test find all endpoint with an unknown field then return bad request")
+    void testFindAllWithInvalidFieldsBadRequest() {
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("?fields=name,password"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(BAD_REQUEST.value())
+                .jsonPath("$.message").isEqualTo("Invalid fields: password. Allowed: id, name, email");
+
+        verify(service, never()).findPage(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test find all endpoint with invalid cursor then return bad request")
+    void testFindAllWithInvalidCursorBadRequest() {
+        when(service.findPage(any(), anyString(), any())).thenReturn(Mono.error(new InvalidCursorException("Invalid cursor: abc")));
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("?after=abc"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(BAD_REQUEST.value())
+                .jsonPath("$.message").isEqualTo("Invalid cursor: abc");
+    }
+
+    @Test
+    @DisplayName("Test multi-get endpoint with a list of ids")
+    void testFindAllByIdWithSuccess() {
+        final var first = new UserResponse("1", "Vinicius", "vini@mail.com");
+        final var second = new UserResponse("2", "Maria", "maria@mail.com");
+
+        when(service.findAllById(anyList(), any())).thenReturn(Flux.just(User.builder().build(), User.builder().build()));
+        when(mapper.toResponse(any(User.class))).thenReturn(first, second);
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("?ids=1,2"))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo("1")
+                .jsonPath("$[1].id").isEqualTo("2");
+
+        verify(service).findAllById(List.of("1", "2"), UserFields.DEFAULT);
+        verify(service, never()).findPage(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test find all endpoint streaming as NDJSON")
+    void testStreamAsNdjson() {
+        final var first = new UserResponse("1", "Vinicius", "vini@mail.com");
+        final var second = new UserResponse("2", "Maria", "maria@mail.com");
+
+        when(service.findAll(any())).thenReturn(Flux.just(User.builder().build(), User.builder().build()));
+        when(mapper.toResponse(any(User.class))).thenReturn(first, second);
+
+        final var result = webTestClient.get()
+                .uri(ENDPOINT_USERS)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(UserResponse.class);
+
+        StepVerifier.create(result.getResponseBody())
+                .expectNext(first, second)
+                .expectComplete()
+                .verify();
+
+        verify(service).findAll(UserFields.DEFAULT);
+    }
+
+    @Test
+    @DisplayName("Test find all endpoint streaming as server-sent events")
+    void testStreamAsServerSentEvents() {
+        final var response = new UserResponse("1", "Vinicius", "vini@mail.com");
+
+        when(service.findAll(any())).thenReturn(Flux.just(User.builder().build()));
+        when(mapper.toResponse(any(User.class))).thenReturn(response);
+
+        final var result = webTestClient.get()
+                .uri(ENDPOINT_USERS)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(UserResponse.class);
+
+        StepVerifier.create(result.getResponseBody())
+                .expectNext(response)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Test export endpoint as CSV with projected columns in the requested order")
+    void testExportAsCsv() {
+        when(service.findAll(any())).thenReturn(Flux.just(
+                User.builder().id("1").email("vini@mail.com").build(),
+                User.builder().id("2").email("\"maria\",x@mail.com").build()
+        ));
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/export?format=csv&fields=email,id"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(new MediaType("text", "csv"))
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .expectBody(String.class)
+                .isEqualTo("email,id\r\nvini@mail.com,1\r\n\"\"\"maria\"\",x@mail.com\",2\r\n");
+
+        verify(service).findAll(Set.of("email"));
+        verify(mapper, never()).toResponse(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Test export endpoint as gzip-compressed NDJSON when the client accepts gzip")
+    void testExportAsGzipNdjson() throws IOException {
+        when(service.findAll(any())).thenReturn(Flux.just(
+                User.builder().id("1").name("Vinícius").email("vini@mail.com").build(),
+                User.builder().id("2").name("Maria").build()
+        ));
+
+        final var body = webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/export"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("{\"id\":\"1\",\"name\":\"Vinícius\",\"email\":\"vini@mail.com\"}\n{\"id\":\"2\",\"name\":\"Maria\"}\n",
+                    new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        verify(service).findAll(UserFields.DEFAULT);
+    }
+
+    @Test
+    @DisplayName("Test export endpoint with unknown format then return bad request")
+    void testExportWithInvalidFormatBadRequest() {
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/export?format=xml"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Invalid format: xml. Allowed: csv, ndjson");
+
+        verify(service, never()).findAll(any());
     }
 
     @Test
@@ -178,9 +571,9 @@ class UserControllerImplTest {
         final var email = "vini@mail.com";
         final var password = "12345";
         final var request = makeUserRequest(name, email, password);
-        final var response = new UserResponse(id, name, email, password);
+        final var response = new UserResponse(id, name, email);
 
-        when(service.update(anyString(), any(UserRequest.class))).thenReturn(Mono.just(User.builder().build()));
+        when(service.update(anyString(), any(UserRequest.class), any())).thenReturn(Mono.just(User.builder().build()));
         when(mapper.toResponse(any(User.class))).thenReturn(response);
 
         webTestClient.patch()
@@ -193,12 +586,112 @@ class UserControllerImplTest {
                 .jsonPath("$.id").isEqualTo(id)
                 .jsonPath("$.name").isEqualTo(name)
                 .jsonPath("$.email").isEqualTo(email)
-                .jsonPath("$.password").isEqualTo(password);
+                .jsonPath("$.password").doesNotExist();
 
-        verify(service).update(anyString(), any(UserRequest.class));
+        verify(service).update(anyString(), any(UserRequest.class), isNull());
         verify(mapper).toResponse(any(User.class));
     }
 
+    @Test
+    @DisplayName("Test update endpoint with If-Match passes the expected version and returns the new ETag")
+    void testUpdateWithIfMatch() {
+        final var request = makeUserRequest("Vini", null, null);
+
+        when(service.update(anyString(), any(UserRequest.class), any()))
+                .thenReturn(Mono.just(User.builder().version(4L).build()));
+        when(mapper.toResponse(any(User.class))).thenReturn(new UserResponse("999", "Vini", "vini@mail.com"));
+
+        webTestClient.patch()
+                .uri(ENDPOINT_USERS.concat("/999"))
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(request))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+
+        verify(service).update(eq("999"), any(UserRequest.class), eq(3L));
+    }
+
+    @Test
+    @DisplayName("Test update endpoint with stale If-Match then return precondition failed")
+    void testUpdateWithStaleIfMatchPreconditionFailed() {
+        when(service.update(anyString(), any(UserRequest.class), any()))
+                .thenReturn(Mono.error(new PreconditionFailedException("Version mismatch")));
+
+        webTestClient.patch()
+                .uri(ENDPOINT_USERS.concat("/999"))
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(makeUserRequest("Vini", null, null)))
+                .exchange()
+                .expectStatus().isEqualTo(PRECONDITION_FAILED)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(PRECONDITION_FAILED.value())
+                .jsonPath("$.message").isEqualTo("Version mismatch");
+    }
+
+    @Test
+    @DisplayName("Test update endpoint with weak If-Match then return precondition failed")
+    void testUpdateWithWeakIfMatchPreconditionFailed() {
+        webTestClient.patch()
+                .uri(ENDPOINT_USERS.concat("/999"))
+                .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(makeUserRequest("Vini", null, null)))
+                .exchange()
+                .expectStatus().isEqualTo(PRECONDITION_FAILED);
+
+        verify(service, never()).update(anyString(), any(UserRequest.class), any());
+    }
+
+    @Test
+    @DisplayName("Test changes endpoint streams server-sent events with resume tokens")
+    void testChangesStreamsEvents() {
+        final var user = User.builder().id("1").name("Vini").email("vini@mail.com").build();
+
+        when(service.changes("41")).thenReturn(Flux.just(
+                new UserChange("42", UserChange.Type.UPDATE, "1", user),
+                new UserChange("43", UserChange.Type.DELETE, "2", null)
+        ));
+        when(mapper.toResponse(user)).thenReturn(new UserResponse("1", "Vini", "vini@mail.com"));
+
+        final var result = webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/changes"))
+                .header("Last-Event-ID", "41")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<UserResponse>>() { });
+
+        StepVerifier.create(result.getResponseBody().filter(event -> event.event() != null))
+                .assertNext(event -> {
+                    assertEquals("42", event.id());
+                    assertEquals("update", event.event());
+                    assertEquals(new UserResponse("1", "Vini", "vini@mail.com"), event.data());
+                })
+                .assertNext(event -> {
+                    assertEquals("43", event.id());
+                    assertEquals("delete", event.event());
+                    assertEquals(new UserResponse("2", null, null), event.data());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Test changes endpoint with an expired Last-Event-ID then return bad request")
+    void testChangesWithExpiredResumeToken() {
+        when(service.changes("1")).thenReturn(Flux.error(new InvalidResumeTokenException("Last-Event-ID can no longer be resumed: 1")));
+
+        webTestClient.get()
+                .uri(ENDPOINT_USERS.concat("/changes"))
+                .header("Last-Event-ID", "1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     @DisplayName("Test delete endpoint with success")
     void testDeleteWithSuccess() {
@@ -214,6 +707,63 @@ class UserControllerImplTest {
         verify(service).delete(anyString());
     }
 
+    @Test
+    @DisplayName("Test bulk delete endpoint with a NDJSON stream")
+    void testDeleteAllWithNdjsonStream() {
+        final var body = """
+                {"id":"1"}
+                {"id":"2"}
+                """;
+
+        when(service.deleteAll(any(), anyBoolean())).thenAnswer(invocation -> invocation.<Flux<BulkDeleteRequest>>getArgument(0)
+                .index((index, request) -> index == 0
+                        ? new BatchItemResponse(index, request.id(), OK.value(), null)
+                        : new BatchItemResponse(index, request.id(), NOT_FOUND.value(), "Object not found. Id: 2, Type: User")));
+
+        final var result = webTestClient.method(HttpMethod.DELETE)
+                .uri(ENDPOINT_USERS.concat("?ordered=true"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BatchItemResponse.class);
+
+        StepVerifier.create(result.getResponseBody())
+                .expectNext(new BatchItemResponse(0L, "1", OK.value(), null))
+                .expectNext(new BatchItemResponse(1L, "2", NOT_FOUND.value(), "Object not found. Id: 2, Type: User"))
+                .expectComplete()
+                .verify();
+
+        verify(service).deleteAll(any(), eq(true));
+    }
+
+    @Test
+    @DisplayName("Test bulk patch endpoint with a JSON array")
+    void testUpdateAllWithJsonArray() {
+        final var requests = List.of(
+                new BulkPatchRequest("1", makeUserRequest("Vini", null, null)),
+                new BulkPatchRequest("2", makeUserRequest(null, "joao@mail.com", null))
+        );
+
+        when(service.updateAll(any(), anyBoolean())).thenAnswer(invocation -> invocation.<Flux<BulkPatchRequest>>getArgument(0)
+                .index((index, request) -> new BatchItemResponse(index, request.id(), OK.value(), null)));
+
+        webTestClient.patch()
+                .uri(ENDPOINT_USERS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(requests))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$.[1].id").isEqualTo("2")
+                .jsonPath("$.[1].status").isEqualTo(OK.value());
+
+        verify(service).updateAll(any(), eq(false));
+    }
+
     private static UserRequest makeUserRequest(final String nome, final String email, final String passw) {
         return new UserRequest(nome, email, passw);
     }
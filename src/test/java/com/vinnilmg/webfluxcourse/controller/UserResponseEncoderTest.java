@@ -0,0 +1,85 @@
+package com.vinnilmg.webfluxcourse.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vinnilmg.webfluxcourse.model.response.PageResponse;
+import com.vinnilmg.webfluxcourse.model.response.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserResponseEncoderTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final UserResponseEncoder encoder = new UserResponseEncoder();
+
+    private final UserResponse full = new UserResponse("63b5ac1e6f1d2a3b4c5d6e7f", "Vinícius \"Vini\"", "vini@mail.com");
+    private final UserResponse partial = new UserResponse("63b5ac1e6f1d2a3b4c5d6e80", null, "ana\\\n@mail.com");
+    private final UserResponse onlyEmail = new UserResponse(null, null, "bia@mail.com");
+
+    @Test
+    void testWritesUsersAndPagesLikeJackson() throws Exception {
+        final var page = new PageResponse<>(List.of(full, partial, onlyEmail), "cursor-1");
+        final var lastPage = new PageResponse<UserResponse>(List.of(), null);
+
+        assertThat(encodeValue(full)).isEqualTo(objectMapper.writeValueAsString(full));
+        assertThat(encodeValue(onlyEmail)).isEqualTo(objectMapper.writeValueAsString(onlyEmail));
+        assertThat(encodeValue(page)).isEqualTo(objectMapper.writeValueAsString(page));
+        assertThat(encodeValue(lastPage)).isEqualTo(objectMapper.writeValueAsString(lastPage));
+    }
+
+    @Test
+    void testWritesFluxAsJsonArrayOrNdjson() throws Exception {
+        final var users = List.of(full, partial, onlyEmail);
+
+        assertThat(encode(users, MediaType.APPLICATION_JSON)).isEqualTo(objectMapper.writeValueAsString(users));
+        assertThat(encode(List.of(), MediaType.APPLICATION_JSON)).isEqualTo("[]");
+        assertThat(encode(users, MediaType.APPLICATION_NDJSON)).isEqualTo(
+                objectMapper.writeValueAsString(full) + "\n"
+                        + objectMapper.writeValueAsString(partial) + "\n"
+                        + objectMapper.writeValueAsString(onlyEmail) + "\n");
+    }
+
+    @Test
+    void testOnlyHandlesUserResponsesAsJson() {
+        final var page = ResolvableType.forClassWithGenerics(PageResponse.class, UserResponse.class);
+        final var otherPage = ResolvableType.forClassWithGenerics(PageResponse.class, String.class);
+
+        assertThat(encoder.canEncode(ResolvableType.forClass(UserResponse.class), MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(encoder.canEncode(page, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(encoder.canEncode(otherPage, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(encoder.canEncode(ResolvableType.forClass(UserResponse.class), MediaType.TEXT_EVENT_STREAM)).isFalse();
+    }
+
+    private String encodeValue(final Object value) {
+        return text(encoder.encodeValue(value, DefaultDataBufferFactory.sharedInstance,
+                ResolvableType.forInstance(value), MediaType.APPLICATION_JSON, null));
+    }
+
+    private String encode(final List<UserResponse> users, final MimeType mimeType) {
+        return encoder.encode(Flux.fromIterable(users), DefaultDataBufferFactory.sharedInstance,
+                        ResolvableType.forClass(UserResponse.class), mimeType, null)
+                .map(this::text)
+                .collectList()
+                .map(parts -> String.join("", parts))
+                .block();
+    }
+
+    private String text(final DataBuffer buffer) {
+        try {
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
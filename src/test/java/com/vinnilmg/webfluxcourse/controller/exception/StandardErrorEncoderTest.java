@@ -0,0 +1,64 @@
+package com.vinnilmg.webfluxcourse.controller.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+class StandardErrorEncoderTest {
+
+    // Mesma configuração do ObjectMapper do Spring Boot (datas em ISO, não em timestamp numérico)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final StandardErrorEncoder encoder = new StandardErrorEncoder();
+
+    @Test
+    void testWritesSameJsonAsJackson() throws Exception {
+        final var error = new StandardError(LocalDateTime.of(2023, 1, 21, 9, 5, 7, 120_000_000),
+                "/users/123", NOT_FOUND.value(), NOT_FOUND.getReasonPhrase(), "Object not found. Id: 123, Type: User");
+
+        assertThat(encode(error)).isEqualTo(objectMapper.writeValueAsString(error));
+    }
+
+    @Test
+    void testEscapesAndNonStandardValuesLikeJackson() throws Exception {
+        final var error = new StandardError(LocalDateTime.of(2023, 12, 1, 23, 59, 0),
+                "/users/\"x\"\\y", 499, "Custom", "linha 1\nlinha 2\t\u0001 ação 😀");
+        final var empty = new StandardError(null, null, null, null, null);
+
+        assertThat(encode(error)).isEqualTo(objectMapper.writeValueAsString(error));
+        assertThat(encode(empty)).isEqualTo(objectMapper.writeValueAsString(empty));
+    }
+
+    @Test
+    void testWritesValidationErrorsLikeJackson() throws Exception {
+        final var error = new ValidationError(LocalDateTime.of(2023, 1, 21, 9, 5, 7, 123_456_789),
+                "/users", BAD_REQUEST.value(), "Validation Error", "Error on validation attributes");
+        error.addError("name", "field cannot have blank spaces at the end or the begin");
+        error.addError("email", "invalid e-mail");
+
+        assertThat(encode(error)).isEqualTo(objectMapper.writeValueAsString(error));
+    }
+
+    private String encode(final StandardError error) {
+        final var buffer = encoder.encodeValue(error, DefaultDataBufferFactory.sharedInstance,
+                ResolvableType.forInstance(error), MediaType.APPLICATION_JSON, null);
+        try {
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
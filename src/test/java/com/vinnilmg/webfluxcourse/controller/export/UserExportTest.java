@@ -0,0 +1,55 @@
+package com.vinnilmg.webfluxcourse.controller.export;
+
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidFieldsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserExportTest {
+
+    private static final int USERS = 20_000;
+
+    @Test
+    void testGzipStreamsLargeExportInValidChunks() throws IOException {
+        final var export = UserExport.of("csv", "id,name", "br;q=1.0, gzip;q=0.5");
+        final var users = Flux.range(0, USERS)
+                .map(i -> User.builder().id(String.valueOf(i)).name("User " + i).email("user" + i + "@mail.com").build());
+
+        final var chunks = export.body(users, DefaultDataBufferFactory.sharedInstance).collectList().block();
+        // O Deflater só emite quando acumula saída: bem menos buffers que linhas, mas mais de um
+        assertThat(chunks).hasSizeBetween(3, USERS / 10);
+
+        final var compressed = DataBufferUtils.join(Flux.fromIterable(chunks)).block();
+        final byte[] bytes = new byte[compressed.readableByteCount()];
+        compressed.read(bytes);
+
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            final var lines = new String(gzip.readAllBytes(), StandardCharsets.UTF_8).split("\r\n");
+            assertEquals(USERS + 1, lines.length);
+            assertEquals("id,name", lines[0]);
+            assertEquals("19999,User 19999", lines[USERS]);
+        }
+        assertEquals(Set.of("name"), export.projection());
+        assertEquals("gzip", export.headers().getFirst("Content-Encoding"));
+    }
+
+    @Test
+    void testGzipOnlyWhenAccepted() {
+        assertNull(UserExport.of("ndjson", null, "gzip;q=0").headers().getFirst("Content-Encoding"));
+        assertNull(UserExport.of("ndjson", null, "deflate").headers().getFirst("Content-Encoding"));
+        assertThrows(InvalidFieldsException.class, () -> UserExport.of("ndjson", "password", null));
+    }
+}
@@ -0,0 +1,100 @@
+package com.vinnilmg.webfluxcourse.filter;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.vinnilmg.webfluxcourse.config.AccessLogProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccessLogFilterTest {
+
+    private final AccessLogProperties properties = new AccessLogProperties();
+    private final AccessLogFilter filter = new AccessLogFilter(properties);
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("ACCESS_LOG");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+    }
+
+    @Test
+    void testLogsRequestWithCorrelationIdAndBytes() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/123")
+                .header(AccessLogFilter.CORRELATION_ID_HEADER, "abc-123"));
+
+        filter.filter(exchange, writing("{\"id\":\"123\"}", HttpStatus.OK)).block();
+
+        assertEquals("abc-123", exchange.getResponse().getHeaders().getFirst(AccessLogFilter.CORRELATION_ID_HEADER));
+        assertEquals(1, appender.list.size());
+        assertThat(appender.list.get(0).getFormattedMessage())
+                .contains("method=GET", "path=/users/123", "status=200", "bytes=12", "correlation_id=abc-123");
+    }
+
+    @Test
+    void testGeneratesCorrelationIdWhenMissing() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users"));
+
+        filter.filter(exchange, writing("[]", HttpStatus.OK)).block();
+
+        assertThat(exchange.getResponse().getHeaders().getFirst(AccessLogFilter.CORRELATION_ID_HEADER)).isNotBlank();
+    }
+
+    @Test
+    void testSamplesSuccessButAlwaysLogsErrors() {
+        properties.setSuccessSampleRate(0.0);
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/users")), writing("[]", HttpStatus.OK)).block();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/users/1")), writing("{}", HttpStatus.NOT_FOUND)).block();
+
+        assertEquals(1, appender.list.size());
+        assertThat(appender.list.get(0).getFormattedMessage()).contains("status=404");
+    }
+
+    @Test
+    void testErrorsLeavingTheChainAreLoggedWithTheirStatus() {
+        properties.setSuccessSampleRate(0.0);
+
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/users")),
+                        exchange -> Mono.error(new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE))))
+                .expectError(ResponseStatusException.class)
+                .verify();
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/users/1")),
+                        exchange -> Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertEquals(2, appender.list.size());
+        assertThat(appender.list.get(0).getFormattedMessage()).contains("path=/users", "status=415");
+        assertThat(appender.list.get(1).getFormattedMessage()).contains("path=/users/1", "status=500");
+    }
+
+    private static WebFilterChain writing(final String body, final HttpStatus status) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            var buffer = DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(UTF_8));
+            return exchange.getResponse().writeWith(Mono.just(buffer));
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package com.vinnilmg.webfluxcourse.filter;
+
+import com.vinnilmg.webfluxcourse.config.ConcurrencyLimitProperties;
+import com.vinnilmg.webfluxcourse.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimitFilterTest {
+
+    private static final WebFilterChain OK = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return Mono.empty();
+    };
+
+    private final RateLimitProperties rateLimitProperties = new RateLimitProperties();
+    private final ConcurrencyLimitProperties concurrencyProperties = new ConcurrencyLimitProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testRejectsClientOverBurstWithRetryAfter() {
+        rateLimitProperties.setRequestsPerSecond(0.5);
+        rateLimitProperties.setBurst(2);
+        final var filter = new RateLimitFilter(rateLimitProperties, concurrencyProperties, meterRegistry);
+
+        assertEquals(HttpStatus.OK, exchange(filter, "10.0.0.1", OK).getResponse().getStatusCode());
+        assertEquals(HttpStatus.OK, exchange(filter, "10.0.0.1", OK).getResponse().getStatusCode());
+
+        final var rejected = exchange(filter, "10.0.0.1", OK);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("2", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertThat(rejected.getResponse().getBodyAsString().block())
+                .contains("\"status\":429", "\"path\":\"/users/1\"", "\"message\":\"Too many requests\"");
+        assertEquals(1.0, meterRegistry.get("users.admission.rejected")
+                .tag("route", "GET /users/{id}").tag("reason", "rate_limit").counter().count());
+
+        // Outro cliente tem o próprio balde
+        assertEquals(HttpStatus.OK, exchange(filter, "10.0.0.2", OK).getResponse().getStatusCode());
+    }
+
+    @Test
+    void testClientIdHeaderIsOnlyTrustedFromConfiguredProxies() {
+        rateLimitProperties.setRequestsPerSecond(0.5);
+        rateLimitProperties.setBurst(1);
+        rateLimitProperties.setClientIdHeader("X-Real-IP");
+        rateLimitProperties.setTrustedProxies(List.of("10.0.0.100"));
+        final var filter = new RateLimitFilter(rateLimitProperties, concurrencyProperties, meterRegistry);
+
+        // Direto, trocar o header a cada requisição não gera um balde novo
+        assertEquals(HttpStatus.OK, exchange(filter, fromClient("10.0.0.1", "a"), OK).getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange(filter, fromClient("10.0.0.1", "b"), OK).getResponse().getStatusCode());
+
+        // Pelo proxy confiável, cada valor do header é um cliente
+        assertEquals(HttpStatus.OK, exchange(filter, fromClient("10.0.0.100", "a"), OK).getResponse().getStatusCode());
+        assertEquals(HttpStatus.OK, exchange(filter, fromClient("10.0.0.100", "b"), OK).getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange(filter, fromClient("10.0.0.100", "b"), OK).getResponse().getStatusCode());
+    }
+
+    @Test
+    void testRejectsOverConcurrencyLimitPerRoute() {
+        rateLimitProperties.setEnabled(false);
+        concurrencyProperties.setInitialLimit(1);
+        concurrencyProperties.setMinLimit(1);
+        final var filter = new RateLimitFilter(rateLimitProperties, concurrencyProperties, meterRegistry);
+        final Sinks.Empty<Void> pending = Sinks.empty();
+
+        final var first = MockServerWebExchange.from(MockServerHttpRequest.get("/users/1"));
+        filter.filter(first, exchange -> pending.asMono()).subscribe();
+
+        final var rejected = exchange(filter, "10.0.0.1", OK);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("users.concurrency.in_flight").tag("route", "GET /users/{id}").gauge().value());
+
+        // Outra rota tem o próprio limite; ao terminar, a vaga volta
+        final var otherRoute = MockServerWebExchange.from(MockServerHttpRequest.delete("/users/1"));
+        filter.filter(otherRoute, OK).block();
+        assertEquals(HttpStatus.OK, otherRoute.getResponse().getStatusCode());
+
+        pending.tryEmitEmpty();
+        assertEquals(HttpStatus.OK, exchange(filter, "10.0.0.1", OK).getResponse().getStatusCode());
+    }
+
+    @Test
+    void testIgnoresOtherPaths() {
+        rateLimitProperties.setRequestsPerSecond(0.5);
+        rateLimitProperties.setBurst(1);
+        final var filter = new RateLimitFilter(rateLimitProperties, concurrencyProperties, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            final var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+            filter.filter(exchange, exchange1 -> Mono.empty()).block();
+            assertNull(exchange.getResponse().getStatusCode());
+        }
+    }
+
+    @Test
+    void testLimitShrinksOnOverloadAndGrowsWhenFast() {
+        concurrencyProperties.setInitialLimit(10);
+        concurrencyProperties.setMinLimit(5);
+        concurrencyProperties.setLatencyThreshold(Duration.ofMillis(100));
+        concurrencyProperties.setBackoffRatio(0.5);
+        final var limit = new AdaptiveConcurrencyLimit(concurrencyProperties);
+
+        limit.tryAcquire();
+        limit.release(0, Duration.ofMillis(200).toNanos(), false);
+        assertEquals(5.0, limit.limit());
+
+        limit.tryAcquire();
+        limit.release(0, 0, true);
+        assertEquals(5.0, limit.limit(), "never below min-limit");
+
+        // Com o limite em uso, respostas rápidas aumentam ~1 por janela
+        for (int i = 0; i < 5; i++) {
+            limit.release(limit.tryAcquire() + 4, Duration.ofMillis(1).toNanos(), false);
+        }
+        assertThat(limit.limit()).isGreaterThan(5.9).isLessThan(6.1);
+        assertEquals(0, limit.inFlight());
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> fromClient(final String address, final String clientId) {
+        return MockServerHttpRequest.get("/users/1").remoteAddress(new InetSocketAddress(address, 40000)).header("X-Real-IP", clientId);
+    }
+
+    private static MockServerWebExchange exchange(final RateLimitFilter filter, final String address, final WebFilterChain chain) {
+        return exchange(filter, MockServerHttpRequest.get("/users/1").remoteAddress(new InetSocketAddress(address, 40000)), chain);
+    }
+
+    private static MockServerWebExchange exchange(final RateLimitFilter filter,
+                                                  final MockServerHttpRequest.BaseBuilder<?> request,
+                                                  final WebFilterChain chain) {
+        final var exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
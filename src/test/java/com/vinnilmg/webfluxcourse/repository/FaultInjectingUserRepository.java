@@ -0,0 +1,176 @@
+package com.vinnilmg.webfluxcourse.repository;
+
+import com.vinnilmg.webfluxcourse.entity.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Repositório de teste que repassa tudo para 'delegate' com falhas programáveis, simulando um banco lento ou fora do ar:
+// latência extra, erro em toda chamada ou nas próximas N, e chamadas que nunca respondem. watch não sofre falhas
+public class FaultInjectingUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger failNext = new AtomicInteger();
+    private final AtomicInteger hangNext = new AtomicInteger();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Supplier<? extends Throwable> failure;
+
+    public FaultInjectingUserRepository(final UserRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    // Atraso antes de cada chamada responder
+    public FaultInjectingUserRepository latency(final Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    // Toda chamada falha com o erro do supplier, até reset
+    public FaultInjectingUserRepository failAll(final Supplier<? extends Throwable> failure) {
+        this.failure = failure;
+        this.failNext.set(Integer.MAX_VALUE);
+        return this;
+    }
+
+    public FaultInjectingUserRepository failNext(final int count, final Supplier<? extends Throwable> failure) {
+        this.failure = failure;
+        this.failNext.set(count);
+        return this;
+    }
+
+    // As próximas 'count' chamadas nunca emitem nada, como uma conexão pendurada
+    public FaultInjectingUserRepository hangNext(final int count) {
+        this.hangNext.set(count);
+        return this;
+    }
+
+    public void reset() {
+        latency = Duration.ZERO;
+        failure = null;
+        failNext.set(0);
+        hangNext.set(0);
+    }
+
+    // Chamadas que chegaram ao repositório (com ou sem falha)
+    public int calls() {
+        return calls.get();
+    }
+
+    @Override
+    public Mono<User> save(final User user) {
+        return inject(() -> delegate.save(user));
+    }
+
+    @Override
+    public Mono<Map<Integer, WriteFailure>> insertMany(final List<User> users) {
+        return inject(() -> delegate.insertMany(users));
+    }
+
+    @Override
+    public Mono<User> findById(final String id, final Set<String> fields) {
+        return inject(() -> delegate.findById(id, fields));
+    }
+
+    @Override
+    public Flux<User> findAllById(final Collection<String> ids, final Set<String> fields) {
+        return injectMany(() -> delegate.findAllById(ids, fields));
+    }
+
+    @Override
+    public Mono<Long> findVersionById(final String id) {
+        return inject(() -> delegate.findVersionById(id));
+    }
+
+    @Override
+    public Flux<User> findAll(final Set<String> fields) {
+        return injectMany(() -> delegate.findAll(fields));
+    }
+
+    @Override
+    public Flux<User> findPage(final String afterId, final int limit, final Set<String> fields) {
+        return injectMany(() -> delegate.findPage(afterId, limit, fields));
+    }
+
+    @Override
+    public Flux<User> search(final UserSearch search) {
+        return injectMany(() -> delegate.search(search));
+    }
+
+    @Override
+    public Mono<Map<String, Object>> explainSearch(final UserSearch search) {
+        return inject(() -> delegate.explainSearch(search));
+    }
+
+    @Override
+    public Flux<String> findAllEmails() {
+        return injectMany(delegate::findAllEmails);
+    }
+
+    @Override
+    public Flux<String> findExistingEmails(final Collection<String> emails) {
+        return injectMany(() -> delegate.findExistingEmails(emails));
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(final String email, final String excludingId) {
+        return inject(() -> delegate.existsByEmail(email, excludingId));
+    }
+
+    @Override
+    public Mono<User> updateFields(final String id, final User changes, final Long expectedVersion) {
+        return inject(() -> delegate.updateFields(id, changes, expectedVersion));
+    }
+
+    @Override
+    public Mono<User> findAndRemove(final String id) {
+        return inject(() -> delegate.findAndRemove(id));
+    }
+
+    @Override
+    public Mono<Map<Integer, WriteFailure>> deleteAllById(final List<String> ids, final boolean ordered) {
+        return inject(() -> delegate.deleteAllById(ids, ordered));
+    }
+
+    @Override
+    public Mono<Map<Integer, WriteFailure>> updateAllFields(final List<User> changes, final boolean ordered) {
+        return inject(() -> delegate.updateAllFields(changes, ordered));
+    }
+
+    @Override
+    public Flux<UserChange> watch(final String resumeToken) {
+        return delegate.watch(resumeToken);
+    }
+
+    @Override
+    public Mono<Long> initializeMissingVersions() {
+        return inject(delegate::initializeMissingVersions);
+    }
+
+    // A falha é decidida na inscrição, como no driver: o mesmo Mono reinscrito é uma nova chamada
+    private <T> Mono<T> inject(final Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            if (hangNext.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                return Mono.never();
+            }
+            if (failNext.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                return Mono.error(failure.get());
+            }
+            final var latency = this.latency;
+            return latency.isZero() ? call.get() : Mono.delay(latency).then(Mono.defer(call));
+        });
+    }
+
+    private <T> Flux<T> injectMany(final Supplier<Flux<T>> call) {
+        return inject(() -> Mono.just(call)).flatMapMany(Supplier::get);
+    }
+}
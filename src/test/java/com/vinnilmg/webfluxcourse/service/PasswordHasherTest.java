@@ -0,0 +1,60 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.PasswordHashingProperties;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        hasher.destroy();
+    }
+
+    @Test
+    void testHashRunsOffTheCallerThreadAndMatches() {
+        hasher = new PasswordHasher(properties(4, 1, 8));
+        final var caller = Thread.currentThread().getName();
+
+        StepVerifier.create(hasher.hash("my-passw-test")
+                        .doOnNext(hash -> assertThat(Thread.currentThread().getName())
+                                .isNotEqualTo(caller)
+                                .startsWith("password-hash"))
+                        .flatMap(hash -> hasher.matches("my-passw-test", hash)))
+                .expectNext(true)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void testFailsFastWhenQueueIsFull() {
+        // Uma thread e um lugar na fila: do terceiro hash simultâneo em diante não há capacidade
+        hasher = new PasswordHasher(properties(12, 1, 1));
+
+        final var results = Flux.range(0, 4)
+                .flatMap(i -> hasher.hash("my-passw-test")
+                        .map(hash -> "ok")
+                        .onErrorResume(ServiceUnavailableException.class, e -> Mono.just("rejected")))
+                .collectList()
+                .block();
+
+        assertThat(results).contains("ok", "rejected");
+    }
+
+    private static PasswordHashingProperties properties(final int strength, final int threads, final int queueCapacity) {
+        final var properties = new PasswordHashingProperties();
+        properties.setStrength(strength);
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        return properties;
+    }
+
+}
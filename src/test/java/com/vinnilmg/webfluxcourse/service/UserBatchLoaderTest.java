@@ -0,0 +1,98 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.UserLoaderProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserBatchLoaderTest {
+
+    @Mock
+    private UserRepository repository;
+
+    private final UserLoaderProperties properties = new UserLoaderProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testConcurrentLoadsShareOneQuery() {
+        properties.setWindow(Duration.ofMillis(50));
+        final var loader = new UserBatchLoader(repository, properties, meterRegistry);
+
+        when(repository.findAllById(anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return Flux.fromIterable(ids)
+                    .filter(id -> !id.equals("missing"))
+                    .map(id -> User.builder().id(id).build());
+        });
+
+        StepVerifier.create(Flux.merge(loader.load("1"), loader.load("2"), loader.load("1"), loader.load("missing"))
+                        .map(User::getId)
+                        .collectList())
+                .assertNext(ids -> assertThat(ids).containsExactlyInAnyOrder("1", "2", "1"))
+                .expectComplete()
+                .verify();
+
+        verify(repository, times(1)).findAllById(argThat(ids -> ids.size() == 3), any());
+        assertThat(meterRegistry.get("users.loader.batch.size").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaitingForTheWindow() {
+        properties.setWindow(Duration.ofMinutes(1));
+        properties.setMaxBatchSize(2);
+        final var loader = new UserBatchLoader(repository, properties, meterRegistry);
+
+        when(repository.findAllById(anyCollection(), any()))
+                .thenReturn(Flux.just(User.builder().id("1").build(), User.builder().id("2").build()));
+
+        StepVerifier.create(Flux.merge(loader.load("1"), loader.load("2")).count())
+                .expectNext(2L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testErrorReachesEveryWaitingLoad() {
+        final var loader = new UserBatchLoader(repository, properties, meterRegistry);
+
+        when(repository.findAllById(anyCollection(), any())).thenReturn(Flux.error(new IllegalStateException("boom")));
+
+        StepVerifier.create(Flux.merge(
+                        loader.load("1").map(User::getId).onErrorResume(e -> Mono.just(e.getMessage())),
+                        loader.load("2").map(User::getId).onErrorResume(e -> Mono.just(e.getMessage()))))
+                .expectNext("boom", "boom")
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void testDisabledLoaderQueriesOneByOne() {
+        properties.setEnabled(false);
+        final var loader = new UserBatchLoader(repository, properties, meterRegistry);
+
+        when(repository.findById("1", UserFields.DEFAULT)).thenReturn(Mono.empty());
+
+        StepVerifier.create(loader.load("1")).expectComplete().verify();
+        verify(repository, never()).findAllById(anyCollection(), any());
+    }
+}
@@ -0,0 +1,58 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.UserCacheProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+    private final UserCache cache = new UserCache(new UserCacheProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void testCancelledWaiterDoesNotCancelTheSharedLoad() {
+        final Sinks.One<User> query = Sinks.one();
+        final var loads = new AtomicInteger();
+        final var cancelled = new AtomicInteger();
+        final var user = User.builder().id("1").build();
+
+        final var first = cache.get("1", id -> {
+            loads.incrementAndGet();
+            return query.asMono().doOnCancel(cancelled::incrementAndGet);
+        }).subscribe();
+        final var second = StepVerifier.create(cache.get("1", id -> Mono.error(new IllegalStateException("not coalesced"))))
+                .expectNext(user)
+                .expectComplete()
+                .verifyLater();
+
+        // Cliente desconectado ou timeout de um dos que aguardam
+        first.dispose();
+        query.tryEmitValue(user);
+
+        second.verify(Duration.ofSeconds(1));
+        assertThat(loads).hasValue(1);
+        assertThat(cancelled).hasValue(0);
+        StepVerifier.create(cache.getIfPresent("1")).expectNext(user).expectComplete().verify();
+    }
+
+    @Test
+    void testCancelledWaiterOnGetIfPresentDoesNotCancelTheSharedLoad() {
+        final Sinks.One<User> query = Sinks.one();
+        final var user = User.builder().id("1").build();
+        final var loading = cache.get("1", id -> query.asMono()).subscribe();
+
+        cache.getIfPresent("1").subscribe().dispose();
+        query.tryEmitValue(user);
+
+        StepVerifier.create(cache.getIfPresent("1")).expectNext(user).expectComplete().verify(Duration.ofSeconds(1));
+        loading.dispose();
+    }
+}
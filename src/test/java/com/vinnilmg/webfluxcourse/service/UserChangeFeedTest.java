@@ -0,0 +1,84 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.EmailFilterProperties;
+import com.vinnilmg.webfluxcourse.config.UserCacheProperties;
+import com.vinnilmg.webfluxcourse.config.UserChangesProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.UserChange;
+import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserChangeFeedTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserRepository repository = mock(UserRepository.class);
+    private final UserCache cache = new UserCache(new UserCacheProperties(), meterRegistry);
+    private final UserEmailFilter emailFilter = new UserEmailFilter(new EmailFilterProperties(), meterRegistry);
+    private final UserChangeFeed feed = new UserChangeFeed(repository, cache, emailFilter, new UserChangesProperties());
+
+    @AfterEach
+    void tearDown() {
+        feed.destroy();
+    }
+
+    @Test
+    void testChangesFromOtherNodesInvalidateCacheAndFeedEmailFilter() {
+        emailFilter.rebuild(Flux.empty()).block();
+        cacheUser("1");
+        cacheUser("2");
+        when(repository.watch(null)).thenReturn(Flux.just(
+                new UserChange("10", UserChange.Type.UPDATE, "1", User.builder().id("1").email("maria@mail.com").build()),
+                new UserChange("11", UserChange.Type.DELETE, "2", null)
+        ).concatWith(Flux.never()));
+
+        feed.start();
+
+        assertThat(cache.getIfPresent("1").blockOptional()).isEmpty();
+        assertThat(cache.getIfPresent("2").blockOptional()).isEmpty();
+        assertThat(emailFilter.mightContain("maria@mail.com")).isTrue();
+    }
+
+    @Test
+    void testClientsWithoutTokenShareTheNodeStream() {
+        when(repository.watch(null)).thenReturn(Flux.never());
+        when(repository.watch("5")).thenReturn(Flux.never());
+
+        feed.start();
+        final var first = feed.changes(null).subscribe();
+        final var second = feed.changes(null).subscribe();
+        final var resumed = feed.changes("5").subscribe();
+
+        verify(repository, times(1)).watch(null);
+        verify(repository).watch("5");
+        first.dispose();
+        second.dispose();
+        resumed.dispose();
+    }
+
+    @Test
+    void testFailedStreamClearsCacheAndReopens() {
+        cacheUser("1");
+        when(repository.watch(null)).thenReturn(Flux.error(new IllegalStateException("not a replica set")), Flux.never());
+
+        feed.start();
+
+        // Eventos perdidos enquanto o stream esteve fora não são mais recuperáveis: nada do cache sobrevive
+        assertThat(cache.getIfPresent("1").blockOptional()).isEmpty();
+        verify(repository, timeout(5_000).times(2)).watch(null);
+    }
+
+    private void cacheUser(final String id) {
+        cache.get(id, key -> Mono.just(User.builder().id(key).build())).block();
+    }
+}
@@ -0,0 +1,103 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.EmailFilterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserEmailFilterTest {
+
+    private static final int ROUNDS = 20_000;
+
+    private final EmailFilterProperties properties = new EmailFilterProperties();
+    private final UserEmailFilter filter = new UserEmailFilter(properties, new SimpleMeterRegistry());
+
+    @Test
+    void testNoFalseNegativesAndFewFalsePositives() {
+        properties.setExpectedInsertions(10_000);
+        filter.rebuild(Flux.range(0, 10_000).map(i -> "user" + i + "@mail.com")).block();
+
+        assertThat(IntStream.range(0, 10_000)).allMatch(i -> filter.mightContain("user" + i + "@mail.com"));
+
+        final long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("other" + i + "@mail.com"))
+                .count();
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void testMaybePresentUntilLoadedAndNormalizesEmails() {
+        assertThat(filter.mightContain("vini@mail.com")).isTrue();
+        assertThat(filter.isRebuildDue()).isTrue();
+
+        filter.rebuild(Flux.empty()).block();
+        assertThat(filter.mightContain("vini@mail.com")).isFalse();
+
+        filter.add(" Vini@Mail.com ");
+        assertThat(filter.mightContain("vini@mail.com")).isTrue();
+    }
+
+    @Test
+    void testRebuildDueAfterTooManyRemovals() {
+        properties.setRebuildAfterRemovals(2);
+        filter.rebuild(Flux.empty()).block();
+
+        filter.recordRemoval();
+        assertThat(filter.isRebuildDue()).isFalse();
+        filter.recordRemoval();
+        assertThat(filter.isRebuildDue()).isTrue();
+    }
+
+    @Test
+    void testEmailAddedWhileARebuildCompletesIsNotLost() throws Exception {
+        properties.setExpectedInsertions(1_000);
+        final var barrier = new CyclicBarrier(2);
+        final var lost = new AtomicInteger();
+        final var saved = new AtomicReference<String>();
+
+        // Cada rodada: uma reconstrução (lendo o "banco" no início) e um cadastro (gravado no banco antes do add)
+        // começam juntos; o atraso aleatório do cadastro percorre o intervalo da troca de filtros
+        final var rebuilder = CompletableFuture.runAsync(() -> {
+            for (int round = 0; round < ROUNDS; round++) {
+                await(barrier);
+                filter.rebuild(Flux.defer(() -> Mono.justOrEmpty(saved.get()).flux())).block();
+                await(barrier);
+            }
+        });
+        for (int round = 0; round < ROUNDS; round++) {
+            final var email = "user" + round + "@mail.com";
+            await(barrier);
+            for (int spin = ThreadLocalRandom.current().nextInt(2_000); spin > 0; spin--) {
+                Thread.onSpinWait();
+            }
+            saved.set(email);
+            filter.add(email);
+            await(barrier);
+            if (!filter.mightContain(email)) {
+                lost.incrementAndGet();
+            }
+        }
+        rebuilder.get(30, TimeUnit.SECONDS);
+
+        assertThat(lost).hasValue(0);
+    }
+
+    private static void await(final CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.InMemoryRepositoryProperties;
+import com.vinnilmg.webfluxcourse.config.UserRepositoryResilienceProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.FaultInjectingUserRepository;
+import com.vinnilmg.webfluxcourse.repository.impl.InMemoryUserRepository;
+import com.vinnilmg.webfluxcourse.service.exception.RepositoryUnavailableException;
+import com.vinnilmg.webfluxcourse.service.exception.RepositoryUnavailableException.Reason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRepositoryGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserRepositoryResilienceProperties properties = new UserRepositoryResilienceProperties();
+    private final FaultInjectingUserRepository repository =
+            new FaultInjectingUserRepository(new InMemoryUserRepository(new InMemoryRepositoryProperties()));
+
+    private String existingId;
+
+    @BeforeEach
+    void setUp() {
+        properties.setReadTimeout(Duration.ofMillis(100));
+        properties.getCircuitBreaker().setWindowSize(4);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMillis(300));
+        properties.getCircuitBreaker().setHalfOpenCalls(1);
+
+        existingId = repository.save(User.builder().name("Vini").email("vini@mail.com").build()).block().getId();
+    }
+
+    @Test
+    void testHangingCallTimesOutWithoutWaitingForTheDriver() {
+        final var guard = new UserRepositoryGuard(properties, meterRegistry);
+        repository.hangNext(1);
+
+        StepVerifier.create(guard.read("findById", repository.findById(existingId, UserFields.DEFAULT)))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOfSatisfying(RepositoryUnavailableException.class,
+                                unavailable -> assertThat(unavailable.getReason()).isEqualTo(Reason.TIMEOUT)))
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(meterRegistry.get("users.repository.rejected").tag("reason", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCircuitOpensOnFailuresAndClosesAfterASuccessfulTrial() throws InterruptedException {
+        final var guard = new UserRepositoryGuard(properties, meterRegistry);
+        repository.failAll(() -> new DataAccessResourceFailureException("connection refused"));
+
+        IntStream.range(0, 4).forEach(i -> StepVerifier
+                .create(guard.read("findById", repository.findById(existingId, UserFields.DEFAULT)))
+                .expectError(DataAccessResourceFailureException.class)
+                .verify());
+
+        // Aberto: recusa sem chegar no repositório
+        final int calls = repository.calls();
+        StepVerifier.create(guard.read("findById", repository.findById(existingId, UserFields.DEFAULT)))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOfSatisfying(RepositoryUnavailableException.class, unavailable -> {
+                            assertThat(unavailable.getReason()).isEqualTo(Reason.CIRCUIT_OPEN);
+                            assertThat(unavailable.getRetryAfterSeconds()).isEqualTo(1);
+                        }))
+                .verify();
+        assertThat(repository.calls()).isEqualTo(calls);
+        assertThat(meterRegistry.get("users.repository.circuit.state").gauge().value()).isEqualTo(1);
+
+        repository.reset();
+        Thread.sleep(350);
+
+        StepVerifier.create(guard.read("findById", repository.findById(existingId, UserFields.DEFAULT)).map(User::getId))
+                .expectNext(existingId)
+                .expectComplete()
+                .verify();
+        assertThat(meterRegistry.get("users.repository.circuit.state").gauge().value()).isZero();
+    }
+
+    @Test
+    void testBusinessErrorsDoNotOpenTheCircuit() {
+        final var guard = new UserRepositoryGuard(properties, meterRegistry);
+        repository.failAll(() -> new DuplicateKeyException("E11000 duplicate key error"));
+
+        IntStream.range(0, 8).forEach(i -> StepVerifier
+                .create(guard.write("save", repository.save(User.builder().build())))
+                .expectError(DuplicateKeyException.class)
+                .verify());
+
+        assertThat(meterRegistry.get("users.repository.circuit.state").gauge().value()).isZero();
+    }
+
+    @Test
+    void testReadsAndWritesHaveSeparateBulkheads() {
+        properties.getBulkhead().setMaxConcurrentReads(1);
+        properties.setReadTimeout(Duration.ofMinutes(1));
+        final var guard = new UserRepositoryGuard(properties, meterRegistry);
+
+        repository.hangNext(1);
+        final var stuck = guard.read("findById", repository.findById(existingId, UserFields.DEFAULT)).subscribe();
+
+        StepVerifier.create(guard.read("findById", repository.findById(existingId, UserFields.DEFAULT)))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOfSatisfying(RepositoryUnavailableException.class,
+                                unavailable -> assertThat(unavailable.getReason()).isEqualTo(Reason.BULKHEAD_FULL)))
+                .verify();
+        StepVerifier.create(guard.write("save", repository.save(User.builder().email("maria@mail.com").build())))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+
+        // Cancelar devolve a vaga
+        stuck.dispose();
+        StepVerifier.create(guard.read("findById", repository.findById(existingId, UserFields.DEFAULT)))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void testOpenStreamsReleaseTheReadBulkheadAfterTheFirstItem() {
+        properties.getBulkhead().setMaxConcurrentReads(2);
+        final var guard = new UserRepositoryGuard(properties, meterRegistry);
+        repository.save(User.builder().name("Maria").email("maria@mail.com").build()).block();
+
+        // Clientes lentos: pedem um item e param, com o stream ainda aberto
+        final var received = new AtomicInteger();
+        final List<BaseSubscriber<User>> streams = IntStream.range(0, 4)
+                .<BaseSubscriber<User>>mapToObj(i -> new BaseSubscriber<>() {
+                    @Override
+                    protected void hookOnSubscribe(final Subscription subscription) {
+                        request(1);
+                    }
+
+                    @Override
+                    protected void hookOnNext(final User user) {
+                        received.incrementAndGet();
+                    }
+                })
+                .toList();
+        streams.forEach(stream -> guard.stream("findAll", repository.findAll(UserFields.DEFAULT)).subscribe(stream));
+        assertThat(received).hasValue(4);
+
+        StepVerifier.create(guard.read("findById", repository.findById(existingId, UserFields.DEFAULT)).map(User::getId))
+                .expectNext(existingId)
+                .expectComplete()
+                .verify();
+        assertThat(meterRegistry.get("users.repository.bulkhead.in_flight").tag("kind", "read").gauge().value()).isZero();
+
+        streams.forEach(BaseSubscriber::dispose);
+    }
+
+    @Test
+    void testHedgedReadAnswersWhenTheFirstAttemptHangs() {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setWindow(8);
+        properties.getHedge().setMinSamples(8);
+        properties.getHedge().setMinDelay(Duration.ofMillis(20));
+        properties.setReadTimeout(Duration.ofSeconds(5));
+        final var guard = new UserRepositoryGuard(properties, meterRegistry);
+
+        IntStream.range(0, 8).forEach(i -> guard.hedgedRead(() -> repository.findById(existingId, UserFields.DEFAULT)).block());
+        assertThat(meterRegistry.get("users.repository.hedges").tag("outcome", "sent").counter().count()).isZero();
+
+        repository.hangNext(1);
+        StepVerifier.create(guard.hedgedRead(() -> repository.findById(existingId, UserFields.DEFAULT)).map(User::getId))
+                .expectNext(existingId)
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(meterRegistry.get("users.repository.hedges").tag("outcome", "won").counter().count()).isEqualTo(1);
+        // O primeiro, cancelado, devolveu a vaga
+        assertThat(meterRegistry.get("users.repository.bulkhead.in_flight").tag("kind", "read").gauge().value()).isZero();
+    }
+
+    @Test
+    void testCancelledPrimaryKeepsTheHedgeDelayFromDrifting() {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setWindow(8);
+        properties.getHedge().setMinSamples(8);
+        properties.getHedge().setMinDelay(Duration.ofMillis(50));
+        properties.setReadTimeout(Duration.ofSeconds(5));
+        final var guard = new UserRepositoryGuard(properties, meterRegistry);
+
+        IntStream.range(0, 8).forEach(i -> guard.hedgedRead(() -> repository.findById(existingId, UserFields.DEFAULT)).block());
+        assertThat(p95Seconds()).isLessThan(0.05);
+
+        // Cada hedge vence um primário pendurado: as duas tentativas entram na janela, a cancelada com ~50ms
+        IntStream.range(0, 4).forEach(i -> {
+            repository.hangNext(1);
+            guard.hedgedRead(() -> repository.findById(existingId, UserFields.DEFAULT)).block(Duration.ofSeconds(1));
+        });
+
+        assertThat(meterRegistry.get("users.repository.hedges").tag("outcome", "won").counter().count()).isEqualTo(4);
+        assertThat(p95Seconds()).isGreaterThanOrEqualTo(0.05);
+    }
+
+    @Test
+    void testDisabledGuardPassesCallsThrough() {
+        properties.setEnabled(false);
+        final var guard = new UserRepositoryGuard(properties, meterRegistry);
+        final Mono<User> call = repository.findById(existingId, UserFields.DEFAULT);
+
+        assertThat(guard.read("findById", call)).isSameAs(call);
+    }
+
+    private double p95Seconds() {
+        return meterRegistry.get("users.repository.hedge.p95").gauge().value();
+    }
+}
@@ -1,24 +1,59 @@
 package com.vinnilmg.webfluxcourse.service;
 
+import com.vinnilmg.webfluxcourse.config.EmailFilterProperties;
+import com.vinnilmg.webfluxcourse.config.PasswordHashingProperties;
+import com.vinnilmg.webfluxcourse.config.UserBatchProperties;
+import com.vinnilmg.webfluxcourse.config.UserCacheProperties;
+import com.vinnilmg.webfluxcourse.config.UserPaginationProperties;
+import com.vinnilmg.webfluxcourse.config.UserRepositoryResilienceProperties;
+import com.vinnilmg.webfluxcourse.config.UserSearchProperties;
 import com.vinnilmg.webfluxcourse.entity.User;
 import com.vinnilmg.webfluxcourse.mapper.UserMapper;
+import com.vinnilmg.webfluxcourse.model.request.BulkDeleteRequest;
+import com.vinnilmg.webfluxcourse.model.request.BulkPatchRequest;
 import com.vinnilmg.webfluxcourse.model.request.UserRequest;
+import com.vinnilmg.webfluxcourse.model.response.BatchItemResponse;
 import com.vinnilmg.webfluxcourse.repository.UserRepository;
+import com.vinnilmg.webfluxcourse.repository.UserSearch;
+import com.vinnilmg.webfluxcourse.repository.WriteFailure;
+import com.vinnilmg.webfluxcourse.service.exception.DuplicateKeyMessages;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidCursorException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidSearchException;
+import com.vinnilmg.webfluxcourse.service.exception.InvalidIdsException;
 import com.vinnilmg.webfluxcourse.service.exception.ObjectNotFoundException;
+import com.vinnilmg.webfluxcourse.service.exception.PreconditionFailedException;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.bcrypt.BCrypt;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
 
+import static java.util.Comparator.comparing;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,9 +65,54 @@ class UserServiceTest {
     @Mock
     private UserMapper mapper;
 
+    @Mock
+    private UserBatchLoader batchLoader;
+
+    @Mock
+    private UserChangeFeed changeFeed;
+
+    @Mock
+    private UserWriteBehind writeBehind;
+
+    @Spy
+    private UserPaginationProperties paginationProperties = new UserPaginationProperties();
+
+    @Spy
+    private UserBatchProperties batchProperties = new UserBatchProperties();
+
+    @Spy
+    private UserSearchProperties searchProperties = new UserSearchProperties();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private UserCache cache = new UserCache(new UserCacheProperties(), meterRegistry);
+
+    @Spy
+    private UserServiceMetrics metrics = new UserServiceMetrics(meterRegistry);
+
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(lowCostHashing());
+
+    @Spy
+    private UserEmailFilter emailFilter = new UserEmailFilter(new EmailFilterProperties(), meterRegistry);
+
+    @Spy
+    private UserRepositoryGuard guard = new UserRepositoryGuard(new UserRepositoryResilienceProperties(), meterRegistry);
+
     @InjectMocks
     private UserService service;
 
+    // Custo mínimo do bcrypt para os testes não pagarem pelo hash de verdade
+    private static PasswordHashingProperties lowCostHashing() {
+        final var properties = new PasswordHashingProperties();
+        properties.setStrength(4);
+        return properties;
+    }
+
     @Test
     void testSave() {
         var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
@@ -51,53 +131,503 @@ class UserServiceTest {
         verify(repository, times(1)).save(any(User.class));
     }
 
+    @Test
+    void testSaveInWriteBehindModeAppendsToTheLog() {
+        var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class)))
+                .thenReturn(User.builder().email("vini@mail.com").password("my-passw-test").build());
+        when(repository.existsByEmail("vini@mail.com", null)).thenReturn(Mono.just(false));
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(writeBehind.append(any(User.class))).thenAnswer(invocation -> {
+            final User user = invocation.getArgument(0);
+            user.setId("64b7f0c2a1b2c3d4e5f60718");
+            return Mono.just(user);
+        });
+
+        StepVerifier.create(service.save(request))
+                .expectNextMatches(user -> user.getId().equals("64b7f0c2a1b2c3d4e5f60718")
+                        && BCrypt.checkpw("my-passw-test", user.getPassword()))
+                .expectComplete()
+                .verify();
+
+        verify(repository, never()).save(any(User.class));
+        assertThat(emailFilter.mightContain("vini@mail.com")).isTrue();
+    }
+
+    @Test
+    void testSaveHashesPassword() {
+        var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class))).thenReturn(User.builder().password("my-passw-test").build());
+        when(repository.save(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(service.save(request))
+                .expectNextMatches(user -> !user.getPassword().equals("my-passw-test")
+                        && BCrypt.checkpw("my-passw-test", user.getPassword()))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void testSaveWhenHashingIsSaturated() {
+        var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class))).thenReturn(User.builder().password("my-passw-test").build());
+        doReturn(Mono.error(new ServiceUnavailableException("Password hashing capacity exceeded, try again later.")))
+                .when(passwordHasher).hash(anyString());
+
+        StepVerifier.create(service.save(request))
+                .expectError(ServiceUnavailableException.class)
+                .verify();
+
+        verify(repository, never()).save(any(User.class));
+        assertEquals(1, timerCount("save", "rejected"));
+    }
+
+    @Test
+    void testSaveSkipsLookupWhenEmailIsDefinitelyAbsent() {
+        emailFilter.rebuild(Flux.just("maria@mail.com")).block();
+        var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class))).thenReturn(User.builder().email("vini@mail.com").build());
+        when(repository.save(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(service.save(request))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+
+        verify(repository, never()).existsByEmail(anyString(), any());
+        assertThat(emailFilter.mightContain("VINI@mail.com")).isTrue();
+    }
+
+    @Test
+    void testSaveRejectsDuplicateEmailWithoutWriting() {
+        emailFilter.rebuild(Flux.just("vini@mail.com")).block();
+        var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class)))
+                .thenReturn(User.builder().email("vini@mail.com").password("my-passw-test").build());
+        when(repository.existsByEmail("vini@mail.com", null)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.save(request))
+                .expectErrorSatisfies(e -> assertEquals("E-mail already exists.", DuplicateKeyMessages.resolve(e.getMessage())))
+                .verify();
+
+        verify(passwordHasher, never()).hash(anyString());
+        verify(repository, never()).save(any(User.class));
+        assertEquals(1, timerCount("save", "duplicate_key"));
+    }
+
+    @Test
+    void testSaveAllReportsEachItem() {
+        var valid = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+        var invalid = new UserRequest(" Vini", "vini@mail.com", "my-passw-test");
+        var duplicated = new UserRequest("Maria", "maria@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class)))
+                .thenAnswer(invocation -> User.builder().id(new ObjectId().toHexString()).build());
+        when(repository.insertMany(anyList()))
+                .thenReturn(Mono.just(Map.of(1, new WriteFailure(WriteFailure.DUPLICATE_KEY,
+                        "E11000 duplicate key error collection: user index: email dup key"))));
+
+        List<BatchItemResponse> result = service.saveAll(Flux.just(valid, invalid, duplicated))
+                .collectSortedList(comparing(BatchItemResponse::index))
+                .block();
+
+        assertEquals(3, result.size());
+        assertEquals(201, result.get(0).status());
+        assertThat(result.get(0).id()).isNotNull();
+        assertEquals(400, result.get(1).status());
+        assertEquals("name: field cannot have blank spaces at the end or the begin", result.get(1).message());
+        assertEquals(400, result.get(2).status());
+        assertEquals("E-mail already exists.", result.get(2).message());
+
+        // Apenas as linhas válidas chegam ao banco, no mesmo insertMany
+        verify(repository, times(1)).insertMany(argThat(users -> users.size() == 2));
+    }
+
+    @Test
+    void testSaveAllReportsOtherWriteErrorsAs500() {
+        var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class))).thenAnswer(invocation -> User.builder().build());
+        when(repository.insertMany(anyList()))
+                .thenReturn(Mono.just(Map.of(0, new WriteFailure(121, "Document failed validation"))));
+
+        StepVerifier.create(service.saveAll(Flux.just(request)))
+                .expectNext(new BatchItemResponse(0L, null, 500, "Document failed validation"))
+                .expectComplete()
+                .verify();
+
+        assertEquals(1.0, meterRegistry.get("users.service.errors")
+                .tag("operation", "saveAll").tag("outcome", "error").counter().count());
+    }
+
+    @Test
+    void testSaveAllSplitsIntoChunks() {
+        batchProperties.setChunkSize(2);
+        var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class))).thenAnswer(invocation -> User.builder().build());
+        when(repository.insertMany(anyList())).thenReturn(Mono.just(Map.of()));
+
+        StepVerifier.create(service.saveAll(Flux.just(request, request, request, request, request)))
+                .expectNextCount(5)
+                .expectComplete()
+                .verify();
+
+        verify(repository, times(3)).insertMany(anyList());
+    }
+
+    @Test
+    void testSaveAllRejectsExistingEmailsBeforeInsert() {
+        emailFilter.rebuild(Flux.just("maria@mail.com")).block();
+        var existing = new UserRequest("Maria", "maria@mail.com", "my-passw-test");
+        var fresh = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class))).thenAnswer(invocation -> {
+            UserRequest request = invocation.getArgument(0);
+            return User.builder().email(request.email()).build();
+        });
+        when(repository.findExistingEmails(List.of("maria@mail.com"))).thenReturn(Flux.just("maria@mail.com"));
+        when(repository.insertMany(anyList())).thenReturn(Mono.just(Map.of()));
+
+        List<BatchItemResponse> result = service.saveAll(Flux.just(existing, fresh))
+                .collectSortedList(comparing(BatchItemResponse::index))
+                .block();
+
+        assertEquals(400, result.get(0).status());
+        assertEquals("E-mail already exists.", result.get(0).message());
+        assertEquals(201, result.get(1).status());
+        verify(repository, times(1)).insertMany(argThat(users -> users.size() == 1));
+    }
+
+    @Test
+    void testSaveAllWhenHashingIsSaturated() {
+        var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
+
+        when(mapper.toEntity(any(UserRequest.class))).thenAnswer(invocation -> User.builder().password("my-passw-test").build());
+        doReturn(Mono.error(new ServiceUnavailableException("Password hashing capacity exceeded, try again later.")))
+                .when(passwordHasher).hash(anyString());
+
+        StepVerifier.create(service.saveAll(Flux.just(request, request)))
+                .expectNextMatches(item -> item.status() == 503)
+                .expectNextMatches(item -> item.status() == 503)
+                .expectComplete()
+                .verify();
+
+        verify(repository, never()).insertMany(anyList());
+    }
+
     @Test
     void testFindById() {
         String id = "my-id-123";
-        when(repository.findById(anyString())).thenReturn(Mono.just(User.builder().id(id).build()));
+        when(batchLoader.load(anyString())).thenReturn(Mono.just(User.builder().id(id).build()));
 
-        Mono<User> result = service.findById(id);
+        Mono<User> result = service.findById(id, UserFields.DEFAULT);
 
         StepVerifier.create(result)
                 .expectNextMatches(user -> user.getClass() == User.class && Objects.equals(user.getId(), id))
                 .expectComplete()
                 .verify();
 
-        verify(repository, times(1)).findById(anyString());
+        verify(batchLoader, times(1)).load(anyString());
+    }
+
+    @Test
+    void testFindByIdUsesCache() {
+        String id = "my-id-123";
+        when(batchLoader.load(anyString())).thenReturn(Mono.just(User.builder().id(id).build()));
+
+        service.findById(id, UserFields.DEFAULT).block();
+        service.findById(id, UserFields.DEFAULT).block();
+
+        verify(batchLoader, times(1)).load(anyString());
+    }
+
+    @Test
+    void testFindByIdCoalescesConcurrentMisses() {
+        String id = "my-id-123";
+        when(batchLoader.load(anyString()))
+                .thenReturn(Mono.just(User.builder().id(id).build()).delayElement(Duration.ofMillis(50)));
+
+        StepVerifier.create(Flux.merge(
+                        service.findById(id, UserFields.DEFAULT),
+                        service.findById(id, UserFields.DEFAULT),
+                        service.findById(id, UserFields.DEFAULT)))
+                .expectNextCount(3)
+                .expectComplete()
+                .verify();
+
+        verify(batchLoader, times(1)).load(anyString());
+    }
+
+    @Test
+    void testFindByIdDoesNotCacheNotFound() {
+        when(batchLoader.load(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.findById("123", UserFields.DEFAULT)).expectError(ObjectNotFoundException.class).verify();
+        StepVerifier.create(service.findById("123", UserFields.DEFAULT)).expectError(ObjectNotFoundException.class).verify();
+
+        verify(batchLoader, times(2)).load(anyString());
+    }
+
+    @Test
+    void testFindByIdWithFieldsUsesCachedProjection() {
+        final var id = "123";
+        when(batchLoader.load(anyString()))
+                .thenReturn(Mono.just(User.builder().id(id).name("Vini").email("vini@mail.com").version(1L).build()));
+
+        service.findById(id, UserFields.DEFAULT).block();
+
+        StepVerifier.create(service.findById(id, Set.of("email")))
+                .expectNextMatches(user -> user.getName() == null
+                        && "vini@mail.com".equals(user.getEmail())
+                        && user.getVersion() == 1L)
+                .expectComplete()
+                .verify();
+
+        verify(batchLoader, times(1)).load(id);
+    }
+
+    @Test
+    void testFindAllByIdKeepsRequestedOrderAndSkipsMissing() {
+        when(batchLoader.load("1")).thenReturn(Mono.just(User.builder().id("1").name("Vini").build()));
+        when(batchLoader.load("2")).thenReturn(Mono.empty());
+        when(batchLoader.load("3")).thenReturn(Mono.just(User.builder().id("3").name("Maria").build()));
+
+        StepVerifier.create(service.findAllById(List.of("3", "2", "1", "3"), UserFields.DEFAULT).map(User::getId))
+                .expectNext("3", "1")
+                .expectComplete()
+                .verify();
+
+        verify(batchLoader, times(1)).load("3");
+    }
+
+    @Test
+    void testFindAllByIdWithTooManyIds() {
+        var ids = IntStream.rangeClosed(0, paginationProperties.getMaxLimit()).mapToObj(String::valueOf).toList();
+
+        StepVerifier.create(service.findAllById(ids, UserFields.DEFAULT))
+                .expectError(InvalidIdsException.class)
+                .verify();
+
+        verify(batchLoader, never()).load(anyString());
     }
 
     @Test
     void testFindAll() {
-        when(repository.findAll()).thenReturn(Flux.just(User.builder().build()));
+        when(repository.findAll(any())).thenReturn(Flux.just(User.builder().build()));
 
-        Flux<User> result = service.findAll();
+        Flux<User> result = service.findAll(UserFields.DEFAULT);
 
         StepVerifier.create(result)
                 .expectNextMatches(user -> user.getClass() == User.class)
                 .expectComplete()
                 .verify();
 
-        verify(repository, times(1)).findAll();
+        verify(repository, times(1)).findAll(any());
+    }
+
+    @Test
+    void testFindPageWithNextCursor() {
+        var users = IntStream.range(0, 3).mapToObj(i -> User.builder().id(new ObjectId().toHexString()).build()).toList();
+        when(repository.findPage(isNull(), eq(3), any())).thenReturn(Flux.fromIterable(users));
+
+        StepVerifier.create(service.findPage(2, null, UserFields.DEFAULT))
+                .assertNext(page -> {
+                    assertEquals(2, page.content().size());
+                    assertThat(page.next()).isNotNull();
+                })
+                .expectComplete()
+                .verify();
+
+        // O cursor devolvido deve continuar a partir do último item da página
+        var lastId = users.get(1).getId();
+        when(repository.findPage(eq(lastId), eq(3), any())).thenReturn(Flux.just(users.get(2)));
+
+        var next = service.findPage(2, null, UserFields.DEFAULT).block().next();
+
+        StepVerifier.create(service.findPage(2, next, UserFields.DEFAULT))
+                .assertNext(page -> {
+                    assertEquals(1, page.content().size());
+                    assertThat(page.next()).isNull();
+                })
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void testFindPageCapsLimit() {
+        when(repository.findPage(isNull(), anyInt(), any())).thenReturn(Flux.empty());
+
+        service.findPage(10_000, null, UserFields.DEFAULT).block();
+
+        verify(repository).findPage(null, paginationProperties.getMaxLimit() + 1, UserFields.DEFAULT);
+    }
+
+    @Test
+    void testFindPageWithInvalidCursor() {
+        StepVerifier.create(service.findPage(10, "not-a-cursor", UserFields.DEFAULT))
+                .expectError(InvalidCursorException.class)
+                .verify();
+
+        verify(repository, never()).findPage(any(), anyInt(), any());
+    }
+
+    @Test
+    void testSearchByNamePrefixContinuesFromLastKey() {
+        var first = User.builder().id(new ObjectId().toHexString()).name("Ana").build();
+        var second = User.builder().id(new ObjectId().toHexString()).name("Ána").build();
+        when(repository.search(any())).thenReturn(Flux.just(first, second));
+
+        var page = service.search("name", " an ", 1, null).block();
+
+        assertEquals(List.of(first), page.content());
+        verify(repository).search(new UserSearch(UserSearch.Mode.NAME, "an", null, null, 0, 2));
+
+        service.search("NAME", "an", 1, page.next()).block();
+
+        verify(repository).search(new UserSearch(UserSearch.Mode.NAME, "an", "Ana", first.getId(), 0, 2));
+    }
+
+    @Test
+    void testSearchTextStopsAtMaxResults() {
+        searchProperties.setMaxTextResults(4);
+        var users = IntStream.range(0, 3).mapToObj(i -> User.builder().id(String.valueOf(i)).build()).toList();
+        when(repository.search(any())).thenReturn(Flux.fromIterable(users));
+
+        var next = service.search("text", "maria", 2, null).block().next();
+        assertThat(next).isNotNull();
+
+        // Segunda página começa no item 2 e é a última alcançável (2 + 2 = max-text-results)
+        StepVerifier.create(service.search("text", "maria", 2, next))
+                .assertNext(page -> assertThat(page.next()).isNull())
+                .expectComplete()
+                .verify();
+        verify(repository).search(new UserSearch(UserSearch.Mode.TEXT, "maria", null, null, 2, 3));
+    }
+
+    @Test
+    void testSearchRejectsInvalidParameters() {
+        StepVerifier.create(service.search("regex", "maria", null, null))
+                .expectErrorMessage("mode: must be one of email, name, text")
+                .verify();
+        StepVerifier.create(service.search("email", "  ", null, null))
+                .expectErrorMessage("q: must not be blank")
+                .verify();
+        StepVerifier.create(service.search("email", "a".repeat(101), null, null))
+                .expectError(InvalidSearchException.class)
+                .verify();
+        StepVerifier.create(service.search("email", "maria", null, "not-a-cursor"))
+                .expectError(InvalidCursorException.class)
+                .verify();
+
+        verify(repository, never()).search(any());
     }
 
     @Test
     void testUpdate() {
         var request = new UserRequest("Vini", "vini@mail.com", "my-passw-test");
-        var entity = User.builder().build();
+        var changes = User.builder().name("Vini").build();
+        var entity = User.builder().id("123").version(1L).build();
 
-        when(mapper.toEntity(any(UserRequest.class), any(User.class))).thenReturn(entity);
-        when(repository.findById(anyString())).thenReturn(Mono.just(entity));
-        when(repository.save(any(User.class))).thenReturn(Mono.just(entity));
+        when(mapper.toEntity(any(UserRequest.class))).thenReturn(changes);
+        when(repository.updateFields(anyString(), any(User.class), isNull())).thenReturn(Mono.just(entity));
 
         Mono<User> result = service.update("123", request);
 
         StepVerifier.create(result)
-                .expectNextMatches(user -> user.getClass() == User.class)
+                .expectNext(entity)
                 .expectComplete()
                 .verify();
 
-        verify(repository, times(1)).findById(anyString());
-        verify(repository, times(1)).save(any(User.class));
+        verify(repository, times(1)).updateFields("123", changes, null);
+        verify(repository, never()).findById(anyString(), any());
+        verify(repository, never()).save(any(User.class));
+        verify(cache).invalidate("123");
+    }
+
+    @Test
+    void testUpdateWithNotFound() {
+        var request = new UserRequest("Vini", null, null);
+
+        when(mapper.toEntity(any(UserRequest.class))).thenReturn(User.builder().build());
+        when(repository.updateFields(anyString(), any(User.class), isNull())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.update("123", request))
+                .expectError(ObjectNotFoundException.class)
+                .verify();
+
+        verify(repository, never()).findVersionById(anyString());
+        verify(cache, never()).invalidate(anyString());
+    }
+
+    @Test
+    void testUpdateWithMatchingVersion() {
+        var request = new UserRequest("Vini", null, null);
+        var entity = User.builder().id("123").version(3L).build();
+
+        when(mapper.toEntity(any(UserRequest.class))).thenReturn(User.builder().name("Vini").build());
+        when(repository.updateFields(anyString(), any(User.class), eq(2L))).thenReturn(Mono.just(entity));
+
+        StepVerifier.create(service.update("123", request, 2L))
+                .expectNext(entity)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void testUpdateWithStaleVersion() {
+        var request = new UserRequest("Vini", null, null);
+
+        when(mapper.toEntity(any(UserRequest.class))).thenReturn(User.builder().name("Vini").build());
+        when(repository.updateFields(anyString(), any(User.class), eq(2L))).thenReturn(Mono.empty());
+        when(repository.findVersionById(anyString())).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(service.update("123", request, 2L))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+
+        verify(cache, never()).invalidate(anyString());
+    }
+
+    @Test
+    void testUpdateWithVersionAndNotFound() {
+        var request = new UserRequest("Vini", null, null);
+
+        when(mapper.toEntity(any(UserRequest.class))).thenReturn(User.builder().name("Vini").build());
+        when(repository.updateFields(anyString(), any(User.class), eq(2L))).thenReturn(Mono.empty());
+        when(repository.findVersionById(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.update("123", request, 2L))
+                .expectError(ObjectNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void testFindVersionPrefersCache() {
+        when(batchLoader.load(anyString())).thenReturn(Mono.just(User.builder().id("123").version(5L).build()));
+        service.findById("123", UserFields.DEFAULT).block();
+
+        StepVerifier.create(service.findVersion("123"))
+                .expectNext(5L)
+                .expectComplete()
+                .verify();
+
+        verify(repository, never()).findVersionById(anyString());
+    }
+
+    @Test
+    void testFindVersionWithoutCache() {
+        when(repository.findVersionById(anyString())).thenReturn(Mono.just(5L));
+
+        StepVerifier.create(service.findVersion("123"))
+                .expectNext(5L)
+                .expectComplete()
+                .verify();
     }
 
     @Test
@@ -113,17 +643,127 @@ class UserServiceTest {
                 .verify();
 
         verify(repository, times(1)).findAndRemove(anyString());
+        verify(cache).invalidate("123");
+    }
+
+    @Test
+    void testDeleteAllReportsEachItem() {
+        when(repository.findAllById(List.of("1", "2"), Set.of())).thenReturn(Flux.just(User.builder().id("1").build()));
+        when(repository.deleteAllById(List.of("1"), false)).thenReturn(Mono.just(Map.of()));
+
+        List<BatchItemResponse> result = service.deleteAll(Flux.just(
+                        new BulkDeleteRequest("1"), new BulkDeleteRequest(" "), new BulkDeleteRequest("2")), false)
+                .collectList()
+                .block();
+
+        assertEquals(List.of(
+                new BatchItemResponse(0L, "1", 200, null),
+                new BatchItemResponse(1L, " ", 400, "id: must not be null or empty"),
+                new BatchItemResponse(2L, "2", 404, "Object not found. Id: 2, Type: User")
+        ), result);
+        verify(cache).invalidate("1");
+        verify(cache, never()).invalidate("2");
+    }
+
+    @Test
+    void testDeleteAllOrderedAnswers503AndStopsWhenTheDatabaseIsUnavailable() {
+        batchProperties.setChunkSize(2);
+        when(repository.findAllById(anyList(), eq(Set.of())))
+                .thenReturn(Flux.just(User.builder().id("1").build(), User.builder().id("2").build()));
+        when(repository.deleteAllById(anyList(), eq(true)))
+                .thenReturn(Mono.error(new ServiceUnavailableException("Database unavailable, try again later.")));
+
+        StepVerifier.create(service.deleteAll(Flux.just(
+                        new BulkDeleteRequest("1"), new BulkDeleteRequest("2"), new BulkDeleteRequest("3")), true))
+                .expectNext(new BatchItemResponse(0L, "1", 503, "Database unavailable, try again later."))
+                .expectNext(new BatchItemResponse(1L, "2", 503, "Database unavailable, try again later."))
+                .expectComplete()
+                .verify();
+
+        verify(repository, times(1)).deleteAllById(anyList(), eq(true));
+        verify(cache, never()).invalidate(anyString());
+    }
+
+    @Test
+    void testUpdateAllOrderedStopsAtFirstFailure() {
+        when(mapper.toEntity(any(UserRequest.class))).thenAnswer(invocation -> {
+            UserRequest request = invocation.getArgument(0);
+            return User.builder().name(request.name()).email(request.email()).password(request.password()).build();
+        });
+        when(repository.findAllById(List.of("1", "2", "3"), Set.of()))
+                .thenReturn(Flux.just(User.builder().id("1").build(), User.builder().id("2").build()));
+        when(repository.updateAllFields(anyList(), eq(true)))
+                .thenReturn(Mono.just(Map.of(0, new WriteFailure(WriteFailure.DUPLICATE_KEY,
+                        "E11000 duplicate key error collection: user index: email dup key"))));
+
+        StepVerifier.create(service.updateAll(Flux.just(
+                        new BulkPatchRequest("1", new UserRequest(null, "maria@mail.com", null)),
+                        new BulkPatchRequest("2", new UserRequest(null, null, "my-passw-test")),
+                        new BulkPatchRequest("3", new UserRequest("Vini", null, null))), true))
+                .expectNext(new BatchItemResponse(0L, "1", 400, "E-mail already exists."))
+                .expectComplete()
+                .verify();
+
+        // Os PATCHs vão juntos para o banco, com a senha já em hash e sem os campos ausentes
+        verify(repository).updateAllFields(argThat(users -> users.size() == 2
+                && users.get(0).getPassword() == null
+                && BCrypt.checkpw("my-passw-test", users.get(1).getPassword())), eq(true));
+        verify(cache, never()).invalidate(anyString());
+    }
+
+    @Test
+    void testUpdateAllRejectsInvalidChangesWithoutWriting() {
+        StepVerifier.create(service.updateAll(Flux.just(
+                        new BulkPatchRequest("1", new UserRequest(" Vini", null, null)),
+                        new BulkPatchRequest("2", null)), false))
+                .expectNext(new BatchItemResponse(0L, "1", 400, "name: field cannot have blank spaces at the end or the begin"))
+                .expectNext(new BatchItemResponse(1L, "2", 400, "changes: must not be null"))
+                .expectComplete()
+                .verify();
+
+        verify(repository, never()).updateAllFields(anyList(), anyBoolean());
+    }
+
+    @Test
+    void testMetricsTagOutcomePerOperation() {
+        when(batchLoader.load(anyString())).thenReturn(Mono.just(User.builder().id("1").build()), Mono.empty());
+        when(repository.save(any(User.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error, email dup key")));
+        when(mapper.toEntity(any(UserRequest.class))).thenReturn(User.builder().build());
+
+        service.findById("1", UserFields.DEFAULT).block();
+        StepVerifier.create(service.findById("2", UserFields.DEFAULT)).expectError(ObjectNotFoundException.class).verify();
+        StepVerifier.create(service.save(new UserRequest("Vini", "vini@mail.com", "my-passw-test")))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+
+        assertEquals(1, timerCount("findById", "success"));
+        assertEquals(1, timerCount("findById", "not_found"));
+        assertEquals(1, timerCount("save", "duplicate_key"));
+        assertEquals(1.0, meterRegistry.get("users.service.errors")
+                .tags("operation", "save", "outcome", "duplicate_key")
+                .counter()
+                .count());
     }
 
     @Test
     void testHandleNotFound() {
-        when(repository.findById(anyString())).thenReturn(Mono.empty());
+        when(batchLoader.load(anyString())).thenReturn(Mono.empty());
 
         try {
-            service.findById("123").block();
+            service.findById("123", UserFields.DEFAULT).block();
         } catch (Exception e) {
             assertEquals(ObjectNotFoundException.class, e.getClass());
-            assertThat(e.getMessage()).contains("Object not found.");
+            assertEquals("Object not found. Id: 123, Type: User", e.getMessage());
+            // Erro esperado de negócio: sem custo de capturar stack trace
+            assertThat(e.getStackTrace()).isEmpty();
         }
     }
-}
\ No newline at end of file
+
+    private long timerCount(final String operation, final String outcome) {
+        return meterRegistry.get("users.service")
+                .tags("operation", operation, "outcome", outcome)
+                .timer()
+                .count();
+    }
+}
@@ -0,0 +1,150 @@
+package com.vinnilmg.webfluxcourse.service;
+
+import com.vinnilmg.webfluxcourse.config.InMemoryRepositoryProperties;
+import com.vinnilmg.webfluxcourse.config.UserWriteBehindProperties;
+import com.vinnilmg.webfluxcourse.entity.User;
+import com.vinnilmg.webfluxcourse.repository.impl.InMemoryUserRepository;
+import com.vinnilmg.webfluxcourse.service.exception.DuplicateEmailException;
+import com.vinnilmg.webfluxcourse.service.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserWriteBehindTest {
+
+    @TempDir
+    private Path directory;
+
+    private final InMemoryUserRepository repository = new InMemoryUserRepository(new InMemoryRepositoryProperties());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserWriteBehindProperties properties = new UserWriteBehindProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setBatchSize(2);
+    }
+
+    @Test
+    void testFlushesAppendedUsersInBatches() {
+        final var writeBehind = new UserWriteBehind(repository, properties, meterRegistry);
+        final var ids = Set.of(
+                writeBehind.append(user("ana@mail.com")).block().getId(),
+                writeBehind.append(user("bia@mail.com")).block().getId(),
+                writeBehind.append(user("caio@mail.com")).block().getId());
+
+        assertThat(pending()).isEqualTo(3);
+        assertThat(repository.findAllById(ids, Set.of("email")).collectList().block()).isEmpty();
+
+        writeBehind.drain().block();
+
+        assertThat(pending()).isZero();
+        assertThat(repository.findAllById(ids, Set.of("email")).map(User::getEmail).collectList().block())
+                .containsExactlyInAnyOrder("ana@mail.com", "bia@mail.com", "caio@mail.com");
+        assertThat(meterRegistry.get("users.write_behind.flushed").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testRejectsEmailStillWaitingInTheLog() {
+        final var writeBehind = new UserWriteBehind(repository, properties, meterRegistry);
+        writeBehind.append(user("ana@mail.com")).block();
+
+        StepVerifier.create(writeBehind.append(user("ana@mail.com")))
+                .expectError(DuplicateEmailException.class)
+                .verify();
+
+        writeBehind.drain().block();
+        StepVerifier.create(writeBehind.append(user("ana@mail.com")))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void testReplaysTheLogAfterRestart() {
+        final var id = new UserWriteBehind(repository, properties, meterRegistry).append(user("ana@mail.com")).block().getId();
+
+        final var restarted = new UserWriteBehind(repository, properties, new SimpleMeterRegistry());
+        StepVerifier.create(restarted.append(user("ana@mail.com")))
+                .expectError(DuplicateEmailException.class)
+                .verify();
+        restarted.drain().block();
+
+        assertThat(repository.findById(id, Set.of("email")).block().getEmail()).isEqualTo("ana@mail.com");
+    }
+
+    @Test
+    void testReplayedBatchDoesNotOverwriteWhatAlreadyEntered() {
+        final var writeBehind = new UserWriteBehind(repository, properties, meterRegistry);
+        final var ana = writeBehind.append(user("ana@mail.com")).block();
+        final var bia = writeBehind.append(user("bia@mail.com")).block();
+
+        // Queda entre o insertMany e o commit: o lote entrou no banco, mas continua no log
+        repository.insertMany(List.of(ana, bia)).block();
+        repository.updateFields(ana.getId(), User.builder().name("Ana").build(), null).block();
+
+        final var restartedRegistry = new SimpleMeterRegistry();
+        new UserWriteBehind(repository, properties, restartedRegistry).drain().block();
+
+        // O _id repetido é reconhecido como já aplicado: nada descartado e nada sobrescrito
+        final var replayed = repository.findById(ana.getId(), Set.of("name")).block();
+        assertThat(replayed.getName()).isEqualTo("Ana");
+        assertThat(replayed.getVersion()).isEqualTo(1);
+        assertThat(repository.findById(bia.getId(), Set.of("email")).block().getEmail()).isEqualTo("bia@mail.com");
+        assertThat(restartedRegistry.get("users.write_behind.pending").gauge().value()).isZero();
+        assertThat(restartedRegistry.find("users.write_behind.dropped").counters()).isEmpty();
+    }
+
+    @Test
+    void testDropsUserWhoseEmailWasTakenMeanwhile() {
+        repository.save(user("ana@mail.com")).block();
+        final var writeBehind = new UserWriteBehind(repository, properties, meterRegistry);
+        final var id = writeBehind.append(user("ana@mail.com")).block().getId();
+
+        writeBehind.drain().block();
+
+        assertThat(repository.findById(id, Set.of("email")).block()).isNull();
+        assertThat(pending()).isZero();
+        assertThat(meterRegistry.get("users.write_behind.dropped").tag("reason", "duplicate_email").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testFullLogIsServiceUnavailable() {
+        properties.setSegmentSize(DataSize.ofBytes(128));
+        properties.setMaxSegments(1);
+        final var writeBehind = new UserWriteBehind(repository, properties, meterRegistry);
+        writeBehind.append(user("ana@mail.com")).block();
+
+        StepVerifier.create(writeBehind.append(user("bia@mail.com")))
+                .expectError(ServiceUnavailableException.class)
+                .verify();
+
+        // O e-mail recusado não fica preso como pendente
+        writeBehind.drain().block();
+        StepVerifier.create(writeBehind.append(user("bia@mail.com")))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    private double pending() {
+        return meterRegistry.get("users.write_behind.pending").gauge().value();
+    }
+
+    private static User user(final String email) {
+        return User.builder()
+                .name("Vinicius")
+                .email(email)
+                .password("$2a$04$abcdefghijklmnopqrstuuJ0W0E2nQ6cXvQ2bKQx7Yy8m1e3s5u7a")
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.vinnilmg.webfluxcourse.service.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testReplaysFromCheckpointAfterReopen() throws IOException {
+        final var log = WriteAheadLog.open(directory, 1024, 4, true);
+        log.append(bytes("first"));
+        log.append(bytes("second"));
+        log.append(bytes("third"));
+
+        final var batch = log.read(2);
+        assertThat(batch.records()).map(WriteAheadLogTest::text).containsExactly("first", "second");
+        // Sem commit, a mesma leitura se repete
+        assertThat(log.read(2).records()).map(WriteAheadLogTest::text).containsExactly("first", "second");
+        log.commit(batch);
+
+        final var reopened = WriteAheadLog.open(directory, 1024, 4, true);
+        assertThat(reopened.pending()).isEqualTo(1);
+        assertThat(reopened.read(10).records()).map(WriteAheadLogTest::text).containsExactly("third");
+
+        reopened.append(bytes("fourth"));
+        assertThat(reopened.read(10).records()).map(WriteAheadLogTest::text).containsExactly("third", "fourth");
+    }
+
+    @Test
+    void testRejectsAppendsWhenFullUntilSegmentsAreCommitted() throws IOException {
+        // 64 bytes por segmento: dois registros de 20 bytes (+ 8 de cabeçalho) em cada
+        final var log = WriteAheadLog.open(directory, 64, 2, false);
+        for (int i = 0; i < 4; i++) {
+            assertThat(log.append(new byte[20])).isTrue();
+        }
+        assertThat(log.append(new byte[20])).isFalse();
+        assertThat(log.segments()).isEqualTo(2);
+
+        log.commit(log.read(3));
+
+        assertThat(log.segments()).isEqualTo(1);
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(log.append(new byte[20])).isTrue();
+        assertThat(log.pending()).isEqualTo(2);
+    }
+
+    @Test
+    void testIgnoresTornRecordAtTheEnd() throws IOException {
+        final var log = WriteAheadLog.open(directory, 1024, 4, true);
+        log.append(bytes("complete"));
+        log.append(bytes("torn"));
+
+        // Corrompe o payload do segundo registro, como uma escrita interrompida pela queda
+        try (var channel = FileChannel.open(segmentFiles().get(0), WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes("xx")), 8 + "complete".length() + 8);
+        }
+
+        final var reopened = WriteAheadLog.open(directory, 1024, 4, true);
+        assertThat(reopened.pending()).isEqualTo(1);
+        reopened.append(bytes("next"));
+        assertThat(reopened.read(10).records()).map(WriteAheadLogTest::text).containsExactly("complete", "next");
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(final byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}